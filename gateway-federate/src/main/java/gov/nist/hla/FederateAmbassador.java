@@ -2,9 +2,7 @@ package gov.nist.hla;
 
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
@@ -33,11 +31,17 @@ import hla.rti.jlc.NullFederateAmbassador;
 public class FederateAmbassador extends NullFederateAmbassador {
     private static final Logger log = LogManager.getLogger();
 
+    // upper bound on the number of unused event objects kept for reuse after a burst of messages
+    private static final int MAX_POOL_SIZE = 1024;
+
     private class ObjectDetails {
         private int instanceHandle;
         private int classHandle;
         private String instanceName;
 
+        // queued reflection that new attribute values are merged into when conflating reflections
+        private ObjectReflection pendingReflection = null;
+
         public ObjectDetails(int instanceHandle, int classHandle, String instanceName) {
             this.instanceHandle = instanceHandle;
             this.classHandle = classHandle;
@@ -56,6 +60,14 @@ public class FederateAmbassador extends NullFederateAmbassador {
             return instanceName;
         }
 
+        public ObjectReflection getPendingReflection() {
+            return pendingReflection;
+        }
+
+        public void setPendingReflection(ObjectReflection pendingReflection) {
+            this.pendingReflection = pendingReflection;
+        }
+
         public String toString() {
             return String.format("instance=%d class=%d name=%s", instanceHandle, classHandle, instanceName);
         }
@@ -68,13 +80,21 @@ public class FederateAmbassador extends NullFederateAmbassador {
     private Map<Integer, ObjectDetails> objectInstances = new HashMap<Integer, ObjectDetails>();
 
     // names of discovered object instances that have not been processed
-    private Queue<String> discoveredObjectInstances = new LinkedList<String>();
+    private RingBuffer<String> discoveredObjectInstances = new RingBuffer<String>();
 
     // names of previously discovered object instances that have since been removed
-    private Queue<String> removedObjectInstances = new LinkedList<String>();
+    private RingBuffer<String> removedObjectInstances = new RingBuffer<String>();
+
+    private RingBuffer<Interaction> receivedInteractions = new RingBuffer<Interaction>();
+    private RingBuffer<ObjectReflection> receivedObjectReflections = new RingBuffer<ObjectReflection>();
+
+    // processed events returned through recycle that can be reused for new messages
+    private RingBuffer<Interaction> interactionPool = new RingBuffer<Interaction>();
+    private RingBuffer<ObjectReflection> objectReflectionPool = new RingBuffer<ObjectReflection>();
 
-    private Queue<Interaction> receivedInteractions = new LinkedList<Interaction>();
-    private Queue<ObjectReflection> receivedObjectReflections = new LinkedList<ObjectReflection>();
+    private boolean isConflatingReflections = false;
+
+    private ValueCodec valueCodec = ValueCodec.DEFAULT;
 
     private boolean isTimeAdvancing = false;
     private boolean isTimeRegulating = false;
@@ -138,9 +158,15 @@ public class FederateAmbassador extends NullFederateAmbassador {
             LogicalTime theTime, EventRetractionHandle eventRetractionHandle)
                     throws InteractionClassNotKnown, InteractionParameterNotKnown, InvalidFederationTime,
                     FederateInternalError {
-        Interaction newInteraction = new Interaction(interactionClass, theInteraction);
+        Interaction newInteraction = interactionPool.poll();
+        if (newInteraction == null) {
+            newInteraction = new Interaction(valueCodec);
+        }
+        newInteraction.set(interactionClass, theInteraction);
         receivedInteractions.add(newInteraction);
-        log.debug("received " + newInteraction.toString());
+        if (log.isDebugEnabled()) {
+            log.debug("received " + newInteraction.toString());
+        }
     }
 
     @Override
@@ -173,10 +199,23 @@ public class FederateAmbassador extends NullFederateAmbassador {
         if (details == null) {
             throw new ObjectNotKnown("no discovered object instance with handle " + theObject);
         }
-        ObjectReflection newObjectReflection = 
-                new ObjectReflection(details.getClassHandle(), details.getInstanceName(), theAttributes);
+        if (isConflatingReflections && details.getPendingReflection() != null) {
+            details.getPendingReflection().merge(theAttributes);
+            log.debug("merged reflection for object {}", details.getInstanceName());
+            return;
+        }
+        ObjectReflection newObjectReflection = objectReflectionPool.poll();
+        if (newObjectReflection == null) {
+            newObjectReflection = new ObjectReflection(valueCodec);
+        }
+        newObjectReflection.set(details.getClassHandle(), theObject, details.getInstanceName(), theAttributes);
         receivedObjectReflections.add(newObjectReflection);
-        log.debug("received " + newObjectReflection.toString());
+        if (isConflatingReflections) {
+            details.setPendingReflection(newObjectReflection);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("received " + newObjectReflection.toString());
+        }
     }
 
     @Override
@@ -202,6 +241,29 @@ public class FederateAmbassador extends NullFederateAmbassador {
         log.info("removed object " + details.toString());
     }
 
+    // must be set before the first message is received; pooled events keep the codec they were created with
+    public void setValueCodec(ValueCodec valueCodec) {
+        this.valueCodec = valueCodec;
+    }
+
+    public ValueCodec getValueCodec() {
+        return valueCodec;
+    }
+
+    // when enabled, reflections of an instance that has an unprocessed reflection are merged into it
+    public void setConflateReflections(boolean isConflatingReflections) {
+        this.isConflatingReflections = isConflatingReflections;
+    }
+
+    public boolean isConflatingReflections() {
+        return isConflatingReflections;
+    }
+
+    // false once the instance has been removed, even if some of its reflections are still queued
+    public boolean isObjectInstanceKnown(int instanceHandle) {
+        return objectInstances.containsKey(instanceHandle);
+    }
+
     public boolean isSynchronizationPointPending(String label) {
         return pendingSynchronizationPoints.contains(label);
     }
@@ -231,7 +293,30 @@ public class FederateAmbassador extends NullFederateAmbassador {
     }
 
     public ObjectReflection nextObjectReflection() {
-        return receivedObjectReflections.poll(); // destructive read
+        ObjectReflection objectReflection = receivedObjectReflections.poll(); // destructive read
+        if (objectReflection != null && isConflatingReflections) {
+            ObjectDetails details = objectInstances.get(objectReflection.getInstanceHandle());
+            if (details != null && details.getPendingReflection() == objectReflection) {
+                details.setPendingReflection(null); // later reflections start a new queue entry
+            }
+        }
+        return objectReflection;
+    }
+
+    // the interaction must not be used after this call
+    public void recycle(Interaction interaction) {
+        interaction.clear();
+        if (interactionPool.size() < MAX_POOL_SIZE) {
+            interactionPool.add(interaction);
+        }
+    }
+
+    // the object reflection must not be used after this call
+    public void recycle(ObjectReflection objectReflection) {
+        objectReflection.clear();
+        if (objectReflectionPool.size() < MAX_POOL_SIZE) {
+            objectReflectionPool.add(objectReflection);
+        }
     }
 
     public String nextDiscoveredObjectName() {
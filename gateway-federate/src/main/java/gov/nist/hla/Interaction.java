@@ -1,46 +1,58 @@
 package gov.nist.hla;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import hla.rti.ArrayIndexOutOfBounds;
 import hla.rti.ReceivedInteraction;
 
+// instances are reused by the FederateAmbassador; see FederateAmbassador::recycle
 public class Interaction {
-    private class Parameter {
-        private int handle;
-        private String value;
+    private static final int INITIAL_CAPACITY = 8;
 
-        public Parameter(int handle, String value) {
-            this.handle = handle;
-            this.value = value;
-        }
+    private final ValueCodec codec;
 
-        public int getHandle() {
-            return handle;
-        }
+    private int classHandle;
+    private int parameterCount = 0;
 
-        public String getValue() {
-            return value;
-        }
+    // parameter values are stored in parallel arrays to avoid an object per parameter
+    private int[] parameterHandles = new int[INITIAL_CAPACITY];
+    private byte[][] parameterValues = new byte[INITIAL_CAPACITY][];
+    private String[] decodedValues = new String[INITIAL_CAPACITY]; // decoded on the first request
+
+    public Interaction() {
+        this(ValueCodec.DEFAULT);
     }
 
-    private int classHandle;
-    private List<Parameter> parameters;
+    public Interaction(ValueCodec codec) {
+        this.codec = codec;
+    }
 
     public Interaction(int interactionClass, ReceivedInteraction theInteraction) {
+        this();
+        set(interactionClass, theInteraction);
+    }
+
+    public void set(int interactionClass, ReceivedInteraction theInteraction) {
+        clear();
         this.classHandle = interactionClass;
-        this.parameters = new ArrayList<Parameter>(theInteraction.size());
+        ensureCapacity(theInteraction.size());
 
         for (int i = 0; i < theInteraction.size(); i++) {
             try {
-                int parameterHandle = theInteraction.getParameterHandle(i);
-                String parameterValue = decodeString(theInteraction.getValue(i));
-                parameters.add(new Parameter(parameterHandle, parameterValue));
+                parameterHandles[i] = theInteraction.getParameterHandle(i);
+                parameterValues[i] = theInteraction.getValue(i);
             } catch (ArrayIndexOutOfBounds e) {
                 throw new IndexOutOfBoundsException(e.getMessage()); // unreachable code
             }
         }
+        parameterCount = theInteraction.size();
+    }
+
+    public void clear() {
+        // drop references so the received buffers can be collected
+        Arrays.fill(parameterValues, 0, parameterCount, null);
+        Arrays.fill(decodedValues, 0, parameterCount, null);
+        parameterCount = 0;
     }
 
     public int getClassHandle() {
@@ -48,27 +60,49 @@ public class Interaction {
     }
 
     public int getParameterCount() {
-        return parameters.size();
+        return parameterCount;
     }
 
     public int getParameterHandle(int index) {
-        return parameters.get(index).getHandle();
+        checkIndex(index);
+        return parameterHandles[index];
     }
 
     public String getParameterValue(int index) {
-        return parameters.get(index).getValue();
+        checkIndex(index);
+        if (decodedValues[index] == null) {
+            decodedValues[index] = codec.decode(parameterValues[index]);
+        }
+        return decodedValues[index];
+    }
+
+    // the value decoded by an earlier request, or null when the value has not been decoded
+    public String getCachedParameterValue(int index) {
+        checkIndex(index);
+        return decodedValues[index];
+    }
+
+    public byte[] getParameterBytes(int index) {
+        checkIndex(index);
+        return parameterValues[index]; // not a copy
     }
 
-    private String decodeString(byte[] buffer) {
-        String result = new String(buffer);
-        if (result.endsWith("\0")) {
-            // the MOM implementation in Portico terminates strings with \0
-            result = result.substring(0, result.length() - 1);
+    private void checkIndex(int index) {
+        if (index < 0 || index >= parameterCount) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + parameterCount);
         }
-        return result;
     }
-    
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > parameterHandles.length) {
+            int newCapacity = Math.max(capacity, parameterHandles.length * 2);
+            parameterHandles = Arrays.copyOf(parameterHandles, newCapacity);
+            parameterValues = Arrays.copyOf(parameterValues, newCapacity);
+            decodedValues = Arrays.copyOf(decodedValues, newCapacity);
+        }
+    }
+
     public String toString() {
-        return String.format("interaction class=%d parameters=%d", classHandle, parameters.size());
+        return String.format("interaction class=%d parameters=%d", classHandle, parameterCount);
     }
 }
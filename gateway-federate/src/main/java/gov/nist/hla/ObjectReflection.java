@@ -1,80 +1,149 @@
 package gov.nist.hla;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import hla.rti.ArrayIndexOutOfBounds;
 import hla.rti.ReflectedAttributes;
 
+// instances are reused by the FederateAmbassador; see FederateAmbassador::recycle
 public class ObjectReflection {
-    private class Attribute {
-        private int handle;
-        private String value;
+    private static final int INITIAL_CAPACITY = 8;
 
-        public Attribute(int handle, String value) {
-            this.handle = handle;
-            this.value = value;
-        }
+    private final ValueCodec codec;
 
-        public int getHandle() {
-            return handle;
-        }
+    private int classHandle;
+    private int instanceHandle;
+    private String instanceName;
+    private int attributeCount = 0;
 
-        public String getValue() {
-            return value;
-        }
+    // attribute values are stored in parallel arrays to avoid an object per attribute
+    private int[] attributeHandles = new int[INITIAL_CAPACITY];
+    private byte[][] attributeValues = new byte[INITIAL_CAPACITY][];
+    private String[] decodedValues = new String[INITIAL_CAPACITY]; // decoded on the first request
+
+    public ObjectReflection() {
+        this(ValueCodec.DEFAULT);
     }
 
-    private int classHandle;
-    private String instanceName;
-    private List<Attribute> attributes;
+    public ObjectReflection(ValueCodec codec) {
+        this.codec = codec;
+    }
 
     public ObjectReflection(int objectClass, String objectName, ReflectedAttributes theAttributes) {
+        this();
+        set(objectClass, -1, objectName, theAttributes);
+    }
+
+    public void set(int objectClass, int objectHandle, String objectName, ReflectedAttributes theAttributes) {
+        clear();
         this.classHandle = objectClass;
+        this.instanceHandle = objectHandle;
         this.instanceName = objectName;
-        this.attributes = new ArrayList<Attribute>(theAttributes.size());
+        ensureCapacity(theAttributes.size());
+
+        for (int i = 0; i < theAttributes.size(); i++) {
+            try {
+                attributeHandles[i] = theAttributes.getAttributeHandle(i);
+                attributeValues[i] = theAttributes.getValue(i);
+            } catch (ArrayIndexOutOfBounds e) {
+                throw new IndexOutOfBoundsException(e.getMessage()); // unreachable code
+            }
+        }
+        attributeCount = theAttributes.size();
+    }
 
+    // overwrite the values of attributes already in this reflection and append the others
+    public void merge(ReflectedAttributes theAttributes) {
         for (int i = 0; i < theAttributes.size(); i++) {
             try {
                 int attributeHandle = theAttributes.getAttributeHandle(i);
-                String attributeValue = decodeString(theAttributes.getValue(i));
-                attributes.add(new Attribute(attributeHandle, attributeValue));
+                int index = indexOf(attributeHandle);
+                if (index < 0) {
+                    ensureCapacity(attributeCount + 1);
+                    index = attributeCount++;
+                    attributeHandles[index] = attributeHandle;
+                }
+                attributeValues[index] = theAttributes.getValue(i);
+                decodedValues[index] = null;
             } catch (ArrayIndexOutOfBounds e) {
                 throw new IndexOutOfBoundsException(e.getMessage()); // unreachable code
             }
         }
     }
 
+    public void clear() {
+        // drop references so the received buffers can be collected
+        Arrays.fill(attributeValues, 0, attributeCount, null);
+        Arrays.fill(decodedValues, 0, attributeCount, null);
+        instanceName = null;
+        attributeCount = 0;
+    }
+
     public int getClassHandle() {
         return classHandle;
     }
 
+    public int getInstanceHandle() {
+        return instanceHandle;
+    }
+
     public String getInstanceName() {
         return instanceName;
     }
 
     public int getAttributeCount() {
-        return attributes.size();
+        return attributeCount;
     }
 
     public int getAttributeHandle(int index) {
-        return attributes.get(index).getHandle();
+        checkIndex(index);
+        return attributeHandles[index];
     }
 
     public String getAttributeValue(int index) {
-        return attributes.get(index).getValue();
+        checkIndex(index);
+        if (decodedValues[index] == null) {
+            decodedValues[index] = codec.decode(attributeValues[index]);
+        }
+        return decodedValues[index];
+    }
+
+    // the value decoded by an earlier request, or null when the value has not been decoded
+    public String getCachedAttributeValue(int index) {
+        checkIndex(index);
+        return decodedValues[index];
+    }
+
+    public byte[] getAttributeBytes(int index) {
+        checkIndex(index);
+        return attributeValues[index]; // not a copy
+    }
+
+    private int indexOf(int attributeHandle) {
+        for (int i = 0; i < attributeCount; i++) {
+            if (attributeHandles[i] == attributeHandle) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    private String decodeString(byte[] buffer) {
-        String result = new String(buffer);
-        if (result.endsWith("\0")) {
-            // the MOM implementation in Portico terminates strings with \0
-            result = result.substring(0, result.length() - 1);
+    private void checkIndex(int index) {
+        if (index < 0 || index >= attributeCount) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + attributeCount);
         }
-        return result;
     }
-    
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > attributeHandles.length) {
+            int newCapacity = Math.max(capacity, attributeHandles.length * 2);
+            attributeHandles = Arrays.copyOf(attributeHandles, newCapacity);
+            attributeValues = Arrays.copyOf(attributeValues, newCapacity);
+            decodedValues = Arrays.copyOf(decodedValues, newCapacity);
+        }
+    }
+
     public String toString() {
-        return String.format("object name=%s class=%d attributes=%d", instanceName, classHandle, attributes.size());
+        return String.format("object name=%s class=%d attributes=%d", instanceName, classHandle, attributeCount);
     }
 }
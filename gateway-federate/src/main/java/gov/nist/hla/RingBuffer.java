@@ -0,0 +1,77 @@
+package gov.nist.hla;
+
+// growable first-in first-out queue backed by a circular array
+// it allocates only when its capacity must grow, unlike LinkedList which allocates a node per element
+public class RingBuffer<T> {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private Object[] elements;
+    private int head = 0; // index of the next element to poll
+    private int size = 0;
+
+    public RingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RingBuffer(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1; // power of two
+        this.elements = new Object[capacity];
+    }
+
+    public void add(T element) {
+        if (element == null) {
+            throw new NullPointerException("null elements are not supported");
+        }
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = element;
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T element = (T) elements[head];
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return element;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        if (size == 0) {
+            return null;
+        }
+        return (T) elements[head];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        while (poll() != null);
+    }
+
+    private void grow() {
+        Object[] larger = new Object[elements.length * 2];
+        // unwrap the circular array so the oldest element moves to index 0
+        int tailLength = elements.length - head;
+        System.arraycopy(elements, head, larger, 0, tailLength);
+        System.arraycopy(elements, 0, larger, tailLength, head);
+        elements = larger;
+        head = 0;
+    }
+
+    public String toString() {
+        return String.format("size=%d capacity=%d", size, elements.length);
+    }
+}
@@ -0,0 +1,141 @@
+package gov.nist.hla;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// converts between parameter and attribute values and the bytes exchanged through the RTI
+// instances are immutable and can be shared between threads
+public class ValueCodec {
+    // matches the encoding of String.getBytes on most hosts, but without depending on the default locale
+    public static final ValueCodec DEFAULT = new ValueCodec(StandardCharsets.UTF_8, false);
+
+    private final Charset charset;
+    private final boolean isNullTerminated;
+    private final int terminatorLength;
+    private final boolean hasAsciiFastPath;
+
+    public ValueCodec(Charset charset, boolean isNullTerminated) {
+        // the UTF-16 encoder writes a byte order mark, which no other federate expects; its decoder assumes big-endian
+        this.charset = charset.equals(StandardCharsets.UTF_16) ? StandardCharsets.UTF_16BE : charset;
+        this.isNullTerminated = isNullTerminated;
+        this.terminatorLength = this.charset.equals(StandardCharsets.UTF_16BE) ? 2 : 1;
+        // both charsets encode the characters U+0000 through U+007F as the identical single byte
+        this.hasAsciiFastPath = charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.UTF_8);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isNullTerminated() {
+        return isNullTerminated;
+    }
+
+    public String decode(byte[] buffer) {
+        return decode(buffer, 0, buffer.length);
+    }
+
+    public String decode(byte[] buffer, int offset, int length) {
+        // a trailing \0 is always dropped: the MOM implementation in Portico terminates strings with \0
+        if (hasTerminator(buffer, offset, length)) {
+            length -= terminatorLength;
+        }
+        if (hasAsciiFastPath && isAscii(buffer, offset, length)) {
+            // ISO-8859-1 maps each byte to one char without validation, which is exact for ASCII
+            return new String(buffer, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        return new String(buffer, offset, length, charset);
+    }
+
+    // accepts a StringBuilder so that formatted numbers can be encoded without an intermediate String
+    public byte[] encode(CharSequence value) {
+        if (hasAsciiFastPath && isAscii(value)) {
+            int length = value.length();
+            byte[] buffer = new byte[isNullTerminated ? length + 1 : length];
+            for (int i = 0; i < length; i++) {
+                buffer[i] = (byte) value.charAt(i);
+            }
+            return buffer;
+        }
+        byte[] encoded = value.toString().getBytes(charset);
+        if (!isNullTerminated) {
+            return encoded;
+        }
+        byte[] buffer = new byte[encoded.length + terminatorLength];
+        System.arraycopy(encoded, 0, buffer, 0, encoded.length);
+        return buffer;
+    }
+
+    // encodes value into the start of buffer when it fits, and returns the encoded length either way
+    // ASCII values are written directly, so a buffer that is reused for formatted numbers is never reallocated
+    public int encode(CharSequence value, byte[] buffer) {
+        int length = value.length();
+        if (isAscii(value)) {
+            if (hasAsciiFastPath) {
+                int encodedLength = isNullTerminated ? length + 1 : length;
+                if (encodedLength <= buffer.length) {
+                    for (int i = 0; i < length; i++) {
+                        buffer[i] = (byte) value.charAt(i);
+                    }
+                    if (isNullTerminated) {
+                        buffer[length] = 0;
+                    }
+                }
+                return encodedLength;
+            }
+            if (charset.equals(StandardCharsets.UTF_16BE)) {
+                int encodedLength = 2 * (isNullTerminated ? length + 1 : length);
+                if (encodedLength <= buffer.length) {
+                    for (int i = 0; i < length; i++) {
+                        buffer[2 * i] = 0;
+                        buffer[2 * i + 1] = (byte) value.charAt(i);
+                    }
+                    if (isNullTerminated) {
+                        buffer[2 * length] = 0;
+                        buffer[2 * length + 1] = 0;
+                    }
+                }
+                return encodedLength;
+            }
+        }
+        byte[] encoded = encode(value);
+        if (encoded.length <= buffer.length) {
+            System.arraycopy(encoded, 0, buffer, 0, encoded.length);
+        }
+        return encoded.length;
+    }
+
+    private boolean hasTerminator(byte[] buffer, int offset, int length) {
+        if (length < terminatorLength) {
+            return false;
+        }
+        for (int i = offset + length - terminatorLength; i < offset + length; i++) {
+            if (buffer[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(byte[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (buffer[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String toString() {
+        return String.format("value codec charset=%s nullTerminated=%b", charset.name(), isNullTerminated);
+    }
+}
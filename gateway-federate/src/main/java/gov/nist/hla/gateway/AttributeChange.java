@@ -0,0 +1,75 @@
+package gov.nist.hla.gateway;
+
+/**
+ * The latest change to one attribute of an object instance, returned from {@link GatewayFederate#getChangesSince}
+ * and {@link GatewayFederate#getChangesSinceTime}. Each update of an object instance, whether sent by this federate
+ * or reflected from another federate, is assigned the next object state version, which is shared by every attribute
+ * in the update.
+ *
+ * @author Thomas Roth
+ */
+public class AttributeChange {
+    private final String instanceName;
+    private final String attributeName;
+    private final String value;
+    private final long version;
+    private final double time;
+
+    AttributeChange(String instanceName, String attributeName, String value, long version, double time) {
+        this.instanceName = instanceName;
+        this.attributeName = attributeName;
+        this.value = value;
+        this.version = version;
+        this.time = time;
+    }
+
+    /**
+     * Get the object instance that changed.
+     *
+     * @return The instance name of a discovered or registered object instance
+     */
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    /**
+     * Get the attribute that changed.
+     *
+     * @return The attribute name as defined in the object model
+     */
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * Get the value of the attribute when the change was queried.
+     *
+     * @return The current attribute value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get the object state version of the latest change to the attribute.
+     *
+     * @return A version greater than the version given to the query
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the logical time of this federate when the attribute last changed.
+     *
+     * @return The logical time of the change
+     */
+    public double getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s=%s version=%d t=%s", instanceName, attributeName, value, version, time);
+    }
+}
@@ -0,0 +1,225 @@
+package gov.nist.hla.gateway;
+
+import java.util.Arrays;
+
+import gov.nist.hla.ValueCodec;
+import hla.rti.RTIinternalError;
+import hla.rti.SuppliedAttributes;
+import hla.rti.jlc.RtiFactoryFactory;
+
+// the attributes of one object update as it passes through the send filters
+// instances are reused; values are encoded when the update is sent unless they were supplied encoded, and values
+// supplied only encoded are decoded when they are first read
+class AttributeUpdate {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private ValueCodec codec;
+
+    private String instanceName;
+    private int instanceHandle;
+    private int classHandle;
+    private boolean isTimestamped;
+    private double timestamp = Double.NaN; // only set for the held values of the update rate throttle
+
+    private int size = 0;
+    private int[] handles = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] values = new String[INITIAL_CAPACITY]; // null until read for a value supplied encoded
+    private byte[][] encodedValues = new byte[INITIAL_CAPACITY][];
+
+    public AttributeUpdate() {
+        this(ValueCodec.DEFAULT);
+    }
+
+    public AttributeUpdate(ValueCodec codec) {
+        this.codec = codec;
+    }
+
+    public void reset(String instanceName, int instanceHandle, int classHandle, boolean isTimestamped) {
+        clear();
+        this.instanceName = instanceName;
+        this.instanceHandle = instanceHandle;
+        this.classHandle = classHandle;
+        this.isTimestamped = isTimestamped;
+        this.timestamp = Double.NaN;
+    }
+
+    // takes the instance, class, timestamp order, and codec of source without its values
+    public void reset(AttributeUpdate source) {
+        reset(source.instanceName, source.instanceHandle, source.classHandle, source.isTimestamped);
+        this.codec = source.codec;
+    }
+
+    public void clear() {
+        // drop references so the values can be collected
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(encodedValues, 0, size, null);
+        size = 0;
+    }
+
+    // either value or encodedValue can be null, but not both
+    public void add(int handle, String name, String value, byte[] encodedValue) {
+        if (size == handles.length) {
+            int capacity = handles.length * 2;
+            handles = Arrays.copyOf(handles, capacity);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+            encodedValues = Arrays.copyOf(encodedValues, capacity);
+        }
+        handles[size] = handle;
+        names[size] = name;
+        values[size] = value;
+        encodedValues[size] = encodedValue;
+        size++;
+    }
+
+    // replaces the value of an attribute already in this update, or appends it
+    public void put(int handle, String name, String value, byte[] encodedValue) {
+        int index = indexOf(handle);
+        if (index == -1) {
+            add(handle, name, value, encodedValue);
+        } else {
+            values[index] = value;
+            encodedValues[index] = encodedValue;
+        }
+    }
+
+    // copies the attribute at index of source without decoding its value
+    public void put(AttributeUpdate source, int index) {
+        source.checkIndex(index);
+        put(source.handles[index], source.names[index], valueFrom(source, index), source.encodedValues[index]);
+    }
+
+    public void add(AttributeUpdate source, int index) {
+        source.checkIndex(index);
+        add(source.handles[index], source.names[index], valueFrom(source, index), source.encodedValues[index]);
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+        int moved = size - index - 1;
+        System.arraycopy(handles, index + 1, handles, index, moved);
+        System.arraycopy(names, index + 1, names, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        System.arraycopy(encodedValues, index + 1, encodedValues, index, moved);
+        size--;
+        names[size] = null;
+        values[size] = null;
+        encodedValues[size] = null;
+    }
+
+    public int indexOf(int handle) {
+        for (int i = 0; i < size; i++) {
+            if (handles[i] == handle) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    public int getInstanceHandle() {
+        return instanceHandle;
+    }
+
+    public int getClassHandle() {
+        return classHandle;
+    }
+
+    public boolean isTimestamped() {
+        return isTimestamped;
+    }
+
+    public void setTimestamped(boolean isTimestamped) {
+        this.isTimestamped = isTimestamped;
+    }
+
+    // NaN when the timestamp was not recorded
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(double timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public ValueCodec getCodec() {
+        return codec;
+    }
+
+    public int getHandle(int index) {
+        checkIndex(index);
+        return handles[index];
+    }
+
+    public String getName(int index) {
+        checkIndex(index);
+        return names[index];
+    }
+
+    public String getValue(int index) {
+        checkIndex(index);
+        if (values[index] == null) {
+            values[index] = codec.decode(encodedValues[index]);
+        }
+        return values[index];
+    }
+
+    // null if the value has not been decoded
+    public String getDecodedValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    // null if the value has not been encoded
+    public byte[] getEncodedValue(int index) {
+        checkIndex(index);
+        return encodedValues[index];
+    }
+
+    public SuppliedAttributes toSuppliedAttributes()
+            throws RTIinternalError {
+        SuppliedAttributes suppliedAttributes = RtiFactoryFactory.getRtiFactory().createSuppliedAttributes();
+        for (int i = 0; i < size; i++) {
+            if (encodedValues[i] == null) {
+                encodedValues[i] = codec.encode(values[i]);
+            }
+            suppliedAttributes.add(handles[i], encodedValues[i]);
+        }
+        return suppliedAttributes;
+    }
+
+    // the value of source is only decoded when this update would decode it with another codec
+    private String valueFrom(AttributeUpdate source, int index) {
+        return source.codec == codec ? source.values[index] : source.getValue(index);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + size);
+        }
+    }
+
+    public String toString() {
+        StringBuilder builder = new StringBuilder(instanceName).append(" {");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(names[i]).append('=').append(getValue(i));
+        }
+        return builder.append('}').toString();
+    }
+}
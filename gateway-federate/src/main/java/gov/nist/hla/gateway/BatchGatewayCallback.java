@@ -0,0 +1,24 @@
+package gov.nist.hla.gateway;
+
+/**
+ * An optional extension of {@link GatewayCallback} for applications that process received messages in groups. When
+ * the {@link GatewayFederate} is constructed with an implementation of this interface, it collects the received
+ * interactions and object reflections and invokes {@link #receiveBatch} once per batch in place of
+ * {@link GatewayCallback#receiveInteraction} and {@link GatewayCallback#receiveObject}.
+ * <p>
+ * The configuration option batchMode determines the size of each batch. By default, a batch contains all the messages
+ * received during one logical time step and is delivered before {@link GatewayCallback#doTimeStep}. Before logical
+ * time progression starts, and for explicit calls to {@link GatewayFederate#tick}, a batch is delivered at the end of
+ * each tick that received messages.
+ *
+ * @author Thomas Roth
+ */
+public interface BatchGatewayCallback extends GatewayCallback {
+    /**
+     * This callback is invoked once per non-empty batch of received messages.
+     *
+     * @param timeStep The last requested logical time
+     * @param batch The received messages grouped by class, which is only valid for the duration of this call
+     */
+    void receiveBatch(Double timeStep, ReceivedBatch batch);
+}
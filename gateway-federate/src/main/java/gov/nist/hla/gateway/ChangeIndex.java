@@ -0,0 +1,148 @@
+package gov.nist.hla.gateway;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// records the version and logical time of the last change to each attribute of each tracked object instance
+// instances are indexed by their latest version, so a query visits only the instances changed since its version
+class ChangeIndex {
+    public static class Change {
+        private final String instanceName;
+        private final String attributeName;
+        private final long version;
+        private final double time;
+
+        public Change(String instanceName, String attributeName, long version, double time) {
+            this.instanceName = instanceName;
+            this.attributeName = attributeName;
+            this.version = version;
+            this.time = time;
+        }
+
+        public String getInstanceName() {
+            return instanceName;
+        }
+
+        public String getAttributeName() {
+            return attributeName;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public double getTime() {
+            return time;
+        }
+    }
+
+    private static final Comparator<Change> BY_VERSION = (a, b) -> Long.compare(a.version, b.version);
+
+    private static class AttributeVersion {
+        private long version;
+        private double time;
+    }
+
+    private static class InstanceVersions {
+        private long version;
+        private double time;
+        private final Map<String, AttributeVersion> attributes = new HashMap<String, AttributeVersion>();
+    }
+
+    private final Map<String, InstanceVersions> instances = new HashMap<String, InstanceVersions>();
+
+    // the name of each instance keyed by its latest version; logical time does not decrease as versions increase
+    private final NavigableMap<Long, String> instancesByVersion = new TreeMap<Long, String>();
+
+    private long version = 0;
+
+    public long getVersion() {
+        return version;
+    }
+
+    // every attribute of one update shares a version
+    public void record(AttributeUpdate update, double time) {
+        InstanceVersions instance = beginChange(update.getInstanceName(), time);
+        for (int i = 0; i < update.size(); i++) {
+            setVersion(instance, update.getName(i), time);
+        }
+    }
+
+    public void record(String instanceName, Map<String, String> attributes, double time) {
+        InstanceVersions instance = beginChange(instanceName, time);
+        for (String attributeName : attributes.keySet()) {
+            setVersion(instance, attributeName, time);
+        }
+    }
+
+    public void remove(String instanceName) {
+        InstanceVersions instance = instances.remove(instanceName);
+        if (instance != null) {
+            instancesByVersion.remove(instance.version);
+        }
+    }
+
+    // the attributes changed after the given version in version order
+    public List<Change> getChangesSinceVersion(long sinceVersion) {
+        List<Change> changes = new ArrayList<Change>();
+        for (String instanceName : instancesByVersion.tailMap(sinceVersion, false).values()) {
+            InstanceVersions instance = instances.get(instanceName);
+            for (Map.Entry<String, AttributeVersion> entry : instance.attributes.entrySet()) {
+                AttributeVersion attribute = entry.getValue();
+                if (attribute.version > sinceVersion) {
+                    changes.add(new Change(instanceName, entry.getKey(), attribute.version, attribute.time));
+                }
+            }
+        }
+        changes.sort(BY_VERSION);
+        return changes;
+    }
+
+    // the attributes changed at a logical time after the given time in version order
+    public List<Change> getChangesSinceTime(double sinceTime) {
+        List<Change> changes = new ArrayList<Change>();
+        for (String instanceName : instancesByVersion.descendingMap().values()) {
+            InstanceVersions instance = instances.get(instanceName);
+            if (instance.time <= sinceTime) {
+                break; // every older instance changed at or before sinceTime
+            }
+            for (Map.Entry<String, AttributeVersion> entry : instance.attributes.entrySet()) {
+                AttributeVersion attribute = entry.getValue();
+                if (attribute.time > sinceTime) {
+                    changes.add(new Change(instanceName, entry.getKey(), attribute.version, attribute.time));
+                }
+            }
+        }
+        changes.sort(BY_VERSION);
+        return changes;
+    }
+
+    private InstanceVersions beginChange(String instanceName, double time) {
+        InstanceVersions instance = instances.get(instanceName);
+        if (instance == null) {
+            instance = new InstanceVersions();
+            instances.put(instanceName, instance);
+        } else {
+            instancesByVersion.remove(instance.version);
+        }
+        instance.version = ++version;
+        instance.time = time;
+        instancesByVersion.put(instance.version, instanceName);
+        return instance;
+    }
+
+    private void setVersion(InstanceVersions instance, String attributeName, double time) {
+        AttributeVersion attribute = instance.attributes.get(attributeName);
+        if (attribute == null) {
+            attribute = new AttributeVersion();
+            instance.attributes.put(attributeName, attribute);
+        }
+        attribute.version = instance.version;
+        attribute.time = time;
+    }
+}
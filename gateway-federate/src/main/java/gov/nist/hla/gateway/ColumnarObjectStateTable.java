@@ -0,0 +1,472 @@
+package gov.nist.hla.gateway;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import gov.nist.hla.ValueCodec;
+
+// stores the values of each object class in columns indexed by attribute, with one slot per instance
+// each column packs the encoded values of its slots into one byte buffer, so a scan of an attribute over the
+// instances of a class reads contiguous memory; the attribute order of a class is taken from the object model
+class ColumnarObjectStateTable implements ObjectStateTable {
+    // supplies the attribute names of an object class in the order of its columns
+    public interface ClassLayout {
+        List<String> getAttributeNames(int classHandle);
+    }
+
+    // rough heap cost of an instance, and of the offset, length, and capacity that locate one value in a column
+    private static final long INSTANCE_OVERHEAD_BYTES = 80;
+    private static final long VALUE_OVERHEAD_BYTES = 12;
+
+    private static final int INITIAL_SLOTS = 16;
+    private static final int INITIAL_COLUMN_BYTES = 256;
+
+    // a round trip through UTF-8 without a terminator preserves any string that does not end in \0
+    private final ValueCodec codec = ValueCodec.DEFAULT;
+
+    private final ClassLayout layout;
+
+    private ClassColumns[] classes = new ClassColumns[0]; // indexed by class handle
+    private Map<String, InstanceView> instances = new HashMap<String, InstanceView>();
+
+    // the number of instances the map holds before it rehashes
+    private int capacity = MapObjectStateTable.DEFAULT_CAPACITY;
+
+    // the values of one attribute for every slot of a class
+    // a value that no longer fits the bytes reserved for its slot is appended, and the column is compacted once
+    // more than half of its bytes belong to replaced or removed values
+    private static class Column {
+        private byte[] data = new byte[INITIAL_COLUMN_BYTES];
+        private int usedBytes = 0;
+        private int garbageBytes = 0;
+
+        // indexed by slot; a length of -1 when the slot has no value
+        private int[] offsets;
+        private int[] lengths;
+        private int[] capacities;
+
+        public Column(int slotCapacity) {
+            offsets = new int[slotCapacity];
+            lengths = new int[slotCapacity];
+            capacities = new int[slotCapacity];
+            Arrays.fill(lengths, -1);
+        }
+
+        public boolean hasValue(int slot) {
+            return lengths[slot] != -1;
+        }
+
+        public void growSlots(int slotCapacity) {
+            int oldCapacity = lengths.length;
+            offsets = Arrays.copyOf(offsets, slotCapacity);
+            lengths = Arrays.copyOf(lengths, slotCapacity);
+            capacities = Arrays.copyOf(capacities, slotCapacity);
+            Arrays.fill(lengths, oldCapacity, slotCapacity, -1);
+        }
+
+        // copies the first length bytes of value, and returns the change in the number of value bytes
+        public int put(int slot, byte[] value, int length) {
+            int oldLength = lengths[slot];
+            if (length > capacities[slot]) {
+                garbageBytes += capacities[slot];
+                capacities[slot] = 0; // not copied if the column is compacted to make room
+                reserve(length);
+                offsets[slot] = usedBytes;
+                capacities[slot] = length;
+                usedBytes += length;
+            }
+            System.arraycopy(value, 0, data, offsets[slot], length);
+            lengths[slot] = length;
+            return length - Math.max(0, oldLength);
+        }
+
+        public void clear(int slot) {
+            garbageBytes += capacities[slot];
+            capacities[slot] = 0;
+            lengths[slot] = -1;
+        }
+
+        // the encoded value must have the same length as the value of the slot
+        public boolean equals(int slot, byte[] value) {
+            int offset = offsets[slot];
+            for (int i = 0; i < value.length; i++) {
+                if (data[offset + i] != value[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void reserve(int length) {
+            if (usedBytes + length <= data.length) {
+                return;
+            }
+            if (garbageBytes > usedBytes / 2) {
+                compact();
+            }
+            if (usedBytes + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(usedBytes + length, data.length * 2));
+            }
+        }
+
+        // copies the values to the start of the buffer in slot order, keeping the bytes reserved for each slot
+        private void compact() {
+            byte[] compacted = new byte[data.length];
+            int offset = 0;
+            for (int slot = 0; slot < capacities.length; slot++) {
+                if (capacities[slot] > 0) {
+                    System.arraycopy(data, offsets[slot], compacted, offset, capacities[slot]);
+                    offsets[slot] = offset;
+                    offset += capacities[slot];
+                }
+            }
+            data = compacted;
+            usedBytes = offset;
+            garbageBytes = 0;
+        }
+    }
+
+    private static class ClassColumns {
+        private String[] attributeNames;
+        private final Map<String, Integer> attributeIndexes = new HashMap<String, Integer>();
+
+        private Column[] columns;
+        private int capacity = INITIAL_SLOTS;
+        private int slotCount = 0;
+
+        private String[] instanceNames = new String[INITIAL_SLOTS]; // indexed by slot; null for a free slot
+        private int[] freeSlots = new int[INITIAL_SLOTS];
+        private int freeSlotCount = 0;
+
+        public ClassColumns(List<String> attributeNames) {
+            this.attributeNames = attributeNames.toArray(new String[0]);
+            this.columns = new Column[this.attributeNames.length];
+            for (int i = 0; i < this.attributeNames.length; i++) {
+                attributeIndexes.put(this.attributeNames[i], i);
+                columns[i] = new Column(capacity);
+            }
+        }
+
+        // -1 when the attribute has no column
+        public int indexOf(Object attributeName) {
+            Integer index = attributeIndexes.get(attributeName);
+            return index == null ? -1 : index;
+        }
+
+        // adds a column for an attribute that is not in the object model
+        public int addColumn(String attributeName) {
+            int index = attributeNames.length;
+            attributeNames = Arrays.copyOf(attributeNames, index + 1);
+            attributeNames[index] = attributeName;
+            columns = Arrays.copyOf(columns, index + 1);
+            columns[index] = new Column(capacity);
+            attributeIndexes.put(attributeName, index);
+            return index;
+        }
+
+        public int allocateSlot(String instanceName) {
+            int slot;
+            if (freeSlotCount > 0) {
+                slot = freeSlots[--freeSlotCount];
+            } else {
+                if (slotCount == capacity) {
+                    capacity *= 2;
+                    for (Column column : columns) {
+                        column.growSlots(capacity);
+                    }
+                    instanceNames = Arrays.copyOf(instanceNames, capacity);
+                }
+                slot = slotCount++;
+            }
+            instanceNames[slot] = instanceName;
+            return slot;
+        }
+
+        public void releaseSlot(int slot) {
+            for (Column column : columns) {
+                column.clear(slot);
+            }
+            instanceNames[slot] = null;
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+
+        public long put(int slot, String attributeName, byte[] value, int length) {
+            int index = indexOf(attributeName);
+            if (index == -1) {
+                index = addColumn(attributeName);
+            }
+            Column column = columns[index];
+            boolean isNew = !column.hasValue(slot);
+            return column.put(slot, value, length) + (isNew ? VALUE_OVERHEAD_BYTES : 0);
+        }
+    }
+
+    // the values of one instance; empty once the instance is removed, since its slot can be reused
+    private class InstanceView extends AbstractMap<String, String> {
+        private final ClassColumns table;
+        private int slot;
+
+        public InstanceView(ClassColumns table, int slot) {
+            this.table = table;
+            this.slot = slot;
+        }
+
+        @Override
+        public String get(Object key) {
+            int index = slot == -1 ? -1 : table.indexOf(key);
+            if (index == -1 || !table.columns[index].hasValue(slot)) {
+                return null;
+            }
+            return decode(table.columns[index], slot);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            int index = slot == -1 ? -1 : table.indexOf(key);
+            return index != -1 && table.columns[index].hasValue(slot);
+        }
+
+        @Override
+        public int size() {
+            if (slot == -1) {
+                return 0;
+            }
+            int size = 0;
+            for (Column column : table.columns) {
+                if (column.hasValue(slot)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new ValueIterator(InstanceView.this);
+                }
+
+                @Override
+                public int size() {
+                    return InstanceView.this.size();
+                }
+            };
+        }
+    }
+
+    private class ValueIterator implements Iterator<Map.Entry<String, String>> {
+        private final InstanceView view;
+        private int nextIndex = -1;
+
+        public ValueIterator(InstanceView view) {
+            this.view = view;
+            advance();
+        }
+
+        private void advance() {
+            nextIndex++;
+            if (view.slot == -1) {
+                nextIndex = view.table.columns.length;
+                return;
+            }
+            while (nextIndex < view.table.columns.length && !view.table.columns[nextIndex].hasValue(view.slot)) {
+                nextIndex++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < view.table.columns.length;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String name = view.table.attributeNames[nextIndex];
+            String value = decode(view.table.columns[nextIndex], view.slot);
+            advance();
+            return new AbstractMap.SimpleImmutableEntry<String, String>(name, value);
+        }
+    }
+
+    public ColumnarObjectStateTable(ClassLayout layout) {
+        this.layout = layout;
+    }
+
+    @Override
+    public long add(String instanceName, int classHandle, int expectedAttributes) {
+        remove(instanceName);
+        ClassColumns table = getClassColumns(classHandle);
+        instances.put(instanceName, new InstanceView(table, table.allocateSlot(instanceName)));
+        if (instances.size() > capacity) {
+            capacity *= 2; // the map doubled its table
+        }
+        return INSTANCE_OVERHEAD_BYTES;
+    }
+
+    @Override
+    public boolean contains(String instanceName) {
+        return instances.containsKey(instanceName);
+    }
+
+    // the ASCII values of an unchanged ReceivedValueMap are copied without decoding them
+    @Override
+    public long putAll(String instanceName, Map<String, String> values) {
+        InstanceView view = instances.get(instanceName);
+        long delta = 0;
+        if (values instanceof ReceivedValueMap && !((ReceivedValueMap) values).isChanged()) {
+            ReceivedValueMap receivedValues = (ReceivedValueMap) values;
+            for (int i = 0; i < receivedValues.size(); i++) {
+                delta += put(view, receivedValues.getName(i), receivedValues.getDecodedValue(i),
+                        receivedValues.getBytes(i), receivedValues.getCodec());
+            }
+            return delta;
+        }
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            byte[] value = codec.encode(entry.getValue());
+            delta += view.table.put(view.slot, entry.getKey(), value, value.length);
+        }
+        return delta;
+    }
+
+    // the ASCII values of a template update that were set as bytes or typed values are copied without decoding them
+    @Override
+    public long putAll(AttributeUpdate update) {
+        InstanceView view = instances.get(update.getInstanceName());
+        long delta = 0;
+        for (int i = 0; i < update.size(); i++) {
+            delta += put(view, update.getName(i), update.getDecodedValue(i), update.getEncodedValue(i),
+                    update.getCodec());
+        }
+        return delta;
+    }
+
+    @Override
+    public Map<String, String> get(String instanceName) {
+        return instances.get(instanceName);
+    }
+
+    @Override
+    public void remove(String instanceName) {
+        InstanceView view = instances.remove(instanceName);
+        if (view != null) {
+            view.table.releaseSlot(view.slot);
+            view.slot = -1;
+        }
+    }
+
+    @Override
+    public void reserve(int count) {
+        int required = instances.size() + count;
+        if (required > capacity) {
+            Map<String, InstanceView> resized =
+                    new HashMap<String, InstanceView>(MapObjectStateTable.capacityFor(required));
+            resized.putAll(instances);
+            instances = resized;
+            capacity = MapObjectStateTable.thresholdFor(required);
+        }
+    }
+
+    // compares the encoded bytes in the column, so no value is decoded
+    @Override
+    public boolean scanEqual(int classHandle, String attributeName, String value, Collection<String> result) {
+        Column column = getColumn(classHandle, attributeName);
+        if (column == null) {
+            return true;
+        }
+        byte[] encodedValue = codec.encode(value);
+        String[] instanceNames = classes[classHandle].instanceNames;
+        for (int slot = 0; slot < classes[classHandle].slotCount; slot++) {
+            if (column.lengths[slot] == encodedValue.length && column.equals(slot, encodedValue)) {
+                result.add(instanceNames[slot]);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean scan(int classHandle, String attributeName, Predicate<String> matches, Collection<String> result) {
+        Column column = getColumn(classHandle, attributeName);
+        if (column == null) {
+            return true;
+        }
+        String[] instanceNames = classes[classHandle].instanceNames;
+        for (int slot = 0; slot < classes[classHandle].slotCount; slot++) {
+            if (column.hasValue(slot) && matches.test(decode(column, slot))) {
+                result.add(instanceNames[slot]);
+            }
+        }
+        return true;
+    }
+
+    // value is null when the value has not been decoded from encodedValue, which was encoded with sourceCodec
+    private long put(InstanceView view, String attributeName, String value, byte[] encodedValue,
+            ValueCodec sourceCodec) {
+        int length = value == null ? asciiLength(encodedValue, sourceCodec) : -1;
+        if (length == -1) {
+            encodedValue = codec.encode(value == null ? sourceCodec.decode(encodedValue) : value);
+            length = encodedValue.length;
+        }
+        return view.table.put(view.slot, attributeName, encodedValue, length);
+    }
+
+    // the length of encodedValue without its terminator when it is ASCII encoded with an ASCII or UTF-8 codec, as
+    // those bytes are also the UTF-8 encoding of the decoded value; otherwise -1
+    private static int asciiLength(byte[] encodedValue, ValueCodec sourceCodec) {
+        Charset charset = sourceCodec.getCharset();
+        if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)) {
+            return -1;
+        }
+        int length = encodedValue.length;
+        if (length > 0 && encodedValue[length - 1] == 0) {
+            length--; // dropped by either codec when decoding
+        }
+        for (int i = 0; i < length; i++) {
+            if (encodedValue[i] < 0) {
+                return -1;
+            }
+        }
+        return length;
+    }
+
+    // null when no instance of the class has a value for the attribute
+    private Column getColumn(int classHandle, String attributeName) {
+        if (classHandle >= classes.length || classes[classHandle] == null) {
+            return null;
+        }
+        int index = classes[classHandle].indexOf(attributeName);
+        return index == -1 ? null : classes[classHandle].columns[index];
+    }
+
+    private String decode(Column column, int slot) {
+        return codec.decode(column.data, column.offsets[slot], column.lengths[slot]);
+    }
+
+    private ClassColumns getClassColumns(int classHandle) {
+        if (classHandle >= classes.length) {
+            classes = Arrays.copyOf(classes, Math.max(classHandle + 1, classes.length * 2));
+        }
+        if (classes[classHandle] == null) {
+            classes[classHandle] = new ClassColumns(layout.getAttributeNames(classHandle));
+        }
+        return classes[classHandle];
+    }
+}
@@ -0,0 +1,56 @@
+package gov.nist.hla.gateway;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// removes the attributes of an object update whose values equal the last values sent for the instance
+// every fullUpdateInterval logical time steps, the next update of each instance is sent unfiltered
+class DeltaUpdateFilter {
+    private final int fullUpdateInterval; // 0 to never force an unfiltered update
+
+    private final Map<String, Long> lastFullUpdateSteps = new HashMap<String, Long>();
+
+    private long step = 0;
+
+    public DeltaUpdateFilter(int fullUpdateInterval) {
+        this.fullUpdateInterval = fullUpdateInterval;
+    }
+
+    public void advanceStep() {
+        step++;
+    }
+
+    // returns true if the update of instanceName about to be sent should not be filtered
+    public boolean beginUpdate(String instanceName) {
+        if (fullUpdateInterval <= 0) {
+            return false;
+        }
+        Long lastFullUpdateStep = lastFullUpdateSteps.get(instanceName);
+        if (lastFullUpdateStep == null || step - lastFullUpdateStep >= fullUpdateInterval) {
+            lastFullUpdateSteps.put(instanceName, step);
+            return true;
+        }
+        return false;
+    }
+
+    // removes the attributes of update whose value equals the value for the same attribute in state
+    // a value held by throttle, which can be null, is discarded for each removed attribute: state holds the values
+    // last sent, so the removed value supersedes a different value that was held back and not yet sent
+    public void filter(AttributeUpdate update, Map<String, String> state, UpdateRateThrottle throttle) {
+        if (state == null || state.isEmpty()) {
+            return;
+        }
+        for (int i = update.size() - 1; i >= 0; i--) {
+            if (update.getValue(i).equals(state.get(update.getName(i)))) {
+                if (throttle != null) {
+                    throttle.discardHeld(update.getInstanceHandle(), update.getHandle(i));
+                }
+                update.remove(i);
+            }
+        }
+    }
+
+    public void remove(String instanceName) {
+        lastFullUpdateSteps.remove(instanceName);
+    }
+}
@@ -2,12 +2,19 @@ package gov.nist.hla.gateway;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -15,6 +22,7 @@ import org.apache.logging.log4j.Logger;
 import org.ieee.standards.ieee1516._2010.AttributeType;
 import org.ieee.standards.ieee1516._2010.InteractionClassType;
 import org.ieee.standards.ieee1516._2010.ObjectClassType;
+import org.ieee.standards.ieee1516._2010.ParameterType;
 import org.portico.impl.hla13.types.DoubleTime;
 import org.portico.impl.hla13.types.DoubleTimeInterval;
 
@@ -23,6 +31,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import gov.nist.hla.FederateAmbassador;
 import gov.nist.hla.Interaction;
 import gov.nist.hla.ObjectReflection;
+import gov.nist.hla.ValueCodec;
 import gov.nist.hla.gateway.exception.RTIAmbassadorException;
 import gov.nist.hla.gateway.exception.UnsupportedServiceException;
 import hla.rti.AsynchronousDeliveryAlreadyEnabled;
@@ -81,6 +90,17 @@ import hla.rti.jlc.RtiFactoryFactory;
  * thread. It is only safe to invoke public methods from the concrete implementation of {@link GatewayCallback} used
  * to construct the gateway federate.
  * <p>
+ * The configuration option dispatchThreads moves {@link GatewayCallback#receiveInteraction} and
+ * {@link GatewayCallback#receiveObject} onto a fixed pool of worker threads. Interactions are partitioned by class and
+ * object reflections by instance name, so the callbacks for one class or one instance are invoked in the order they
+ * were received. All dispatched callbacks complete before the next call to {@link GatewayCallback#doTimeStep} and
+ * before each logical time advance request. The receive callbacks invoked on worker threads must not use the public
+ * methods of this class.
+ * <p>
+ * The configuration option useReceivePipeline instead decodes received messages on a dedicated thread and invokes the
+ * same two callbacks on a second dedicated thread in the order the messages were received. It has the same completion
+ * guarantees and threading restrictions as dispatchThreads.
+ * <p>
  * A significant number of HLA services are not exposed in the public interface. The federation management, ownership
  * management, time management, and data distribution management services are not exposed through the public API. Both
  * the save/restore services and ownership transfer services are unimplemented, and this class will throw exceptions
@@ -103,12 +123,34 @@ public class GatewayFederate {
     
     private GatewayFederateConfig configuration;
     private GatewayCallback callback;
+    private RawGatewayCallback rawCallback; // null unless callback implements RawGatewayCallback
+    private BatchGatewayCallback batchCallback; // null unless callback implements BatchGatewayCallback
     private ObjectModel objectModel;
 
     private RTIambassador rtiAmb;
     private FederateAmbassador fedAmb;
-
-    private Map<String, Map<String, String>> objectInstances = new HashMap<String, Map<String, String>>();
+    private ValueCodec valueCodec;
+
+    private ObjectStateStore objectStates;
+
+    private HandleNameCache nameCache = new HandleNameCache();
+    private Map<String, PublishedInteraction> publishedInteractions = new HashMap<String, PublishedInteraction>();
+    private HandlerRegistry handlerRegistry = new HandlerRegistry();
+    private int simulationEndHandle = -1;
+    private RawValuesBuffer rawValues = new RawValuesBuffer();
+    private ReceivedBatchBuffer receivedBatch = new ReceivedBatchBuffer();
+    private PartitionedDispatcher dispatcher; // null when callbacks run on the thread that invoked run
+    private ReceivePipeline receivePipeline; // null when messages are decoded on the thread that invoked run
+    private DeltaUpdateFilter deltaFilter; // null when every attribute of an update is sent
+    private UpdateRateThrottle updateThrottle; // null when update rates are not limited
+    private UpdateCombiner updateCombiner; // null when each object update is sent immediately
+    private AttributeUpdate pendingUpdate;
+    private List<AttributeUpdate> releasedUpdates = new ArrayList<AttributeUpdate>();
+    private InteractionPacer interactionPacer; // null when interactions are not rate limited
+    private List<InteractionPacer.PacedInteraction> releasedInteractions =
+            new ArrayList<InteractionPacer.PacedInteraction>();
+    private SendQueue sendQueue;
+    private volatile Thread runThread; // the thread that drains sendQueue
 
     private boolean isRunning = false;
     private boolean hasTimeStarted = false;
@@ -143,6 +185,8 @@ public class GatewayFederate {
     public GatewayFederate(GatewayFederateConfig configuration, GatewayCallback callback) {
         this.configuration = configuration;
         this.callback = callback;
+        this.rawCallback = asRawCallback(callback);
+        this.batchCallback = asBatchCallback(callback);
         objectModel = new ObjectModel(configuration.getFomFilepath());
         
         try {
@@ -150,7 +194,15 @@ public class GatewayFederate {
         } catch (RTIinternalError e) {
             throw new RTIAmbassadorException(e);
         }
-        fedAmb = new FederateAmbassador();
+        valueCodec = createValueCodec(configuration);
+        fedAmb = createFederateAmbassador(configuration, valueCodec);
+        pendingUpdate = new AttributeUpdate(valueCodec);
+        deltaFilter = createDeltaFilter(configuration);
+        updateThrottle = createUpdateThrottle(configuration);
+        updateCombiner = createUpdateCombiner(configuration);
+        sendQueue = createSendQueue(configuration);
+        objectStates = createObjectStateStore(configuration);
+        interactionPacer = createInteractionPacer(configuration);
     }
     
     /**
@@ -165,6 +217,8 @@ public class GatewayFederate {
     public GatewayFederate(GatewayFederateConfig configuration, GatewayCallback callback, ObjectModel objectModel) {
         this.configuration = configuration;
         this.callback = callback;
+        this.rawCallback = asRawCallback(callback);
+        this.batchCallback = asBatchCallback(callback);
         this.objectModel = objectModel;
         
         try {
@@ -172,7 +226,15 @@ public class GatewayFederate {
         } catch (RTIinternalError e) {
             throw new RTIAmbassadorException(e);
         }
-        fedAmb = new FederateAmbassador();
+        valueCodec = createValueCodec(configuration);
+        fedAmb = createFederateAmbassador(configuration, valueCodec);
+        pendingUpdate = new AttributeUpdate(valueCodec);
+        deltaFilter = createDeltaFilter(configuration);
+        updateThrottle = createUpdateThrottle(configuration);
+        updateCombiner = createUpdateCombiner(configuration);
+        sendQueue = createSendQueue(configuration);
+        objectStates = createObjectStateStore(configuration);
+        interactionPacer = createInteractionPacer(configuration);
     }
 
     /**
@@ -191,6 +253,7 @@ public class GatewayFederate {
         this.hasTimeStarted = false;
         this.lastRequestedTime = 0;
         this.isRunning = true;
+        this.runThread = Thread.currentThread();
 
         try {
             joinFederationExecution();
@@ -202,7 +265,11 @@ public class GatewayFederate {
             return;
         }
 
+        this.receivePipeline = createReceivePipeline();
+        this.dispatcher = createDispatcher();
+
         try {
+            sendQueue.open();
             enableAsynchronousDelivery();
             enableTimeConstrained();
             enableTimeRegulation();
@@ -211,10 +278,13 @@ public class GatewayFederate {
             notifyOfFederationJoin();
 
             callback.initializeSelf();
+            flushCombinedUpdates();
             if (!configuration.getIsLateJoiner()) {
                 synchronize(READY_TO_POPULATE);
             }
+            awaitDispatchedCallbacks();
             callback.initializeWithPeers();
+            flushCombinedUpdates();
             if (!configuration.getIsLateJoiner()) {
                 synchronize(READY_TO_RUN);
             }
@@ -222,10 +292,16 @@ public class GatewayFederate {
 
             while (!isExitCondition()) {
                 log.trace("run t=" + getLogicalTime());
+                awaitDispatchedCallbacks();
+                objectStates.publishSnapshot(getLogicalTime());
                 callback.doTimeStep(lastRequestedTime);
                 advanceLogicalTime();
             }
+            awaitDispatchedCallbacks();
             callback.prepareToResign();
+            sendQueue.close(); // the final drain sends every accepted message
+            drainSendQueue();
+            flushCombinedUpdates();
 
             if (!configuration.getIsLateJoiner() && receivedSimEnd) {
                 synchronize(READY_TO_RESIGN);
@@ -234,6 +310,21 @@ public class GatewayFederate {
             resignFederationExecution();
         } catch (FederateNotExecutionMember | TimeAdvanceAlreadyInProgress e) {
             throw new RTIAmbassadorException("unreachable code", e);
+        } finally {
+            if (dispatcher != null) {
+                dispatcher.shutdown();
+                dispatcher = null;
+            }
+            if (receivePipeline != null) {
+                receivePipeline.shutdown();
+                receivePipeline = null;
+            }
+            sendQueue.close();
+            if (!sendQueue.isEmpty()) {
+                log.warn("discarded " + sendQueue.size() + " queued messages that were not sent");
+                sendQueue.clear();
+            }
+            runThread = null;
         }
         callback.terminate();
         this.isRunning = false;
@@ -248,6 +339,9 @@ public class GatewayFederate {
      */
     public void tick()
             throws FederateNotExecutionMember {
+        drainSendQueue();
+        releaseThrottledUpdates();
+        releasePacedInteractions();
         try {
             rtiAmb.tick();
         } catch (RTIinternalError | ConcurrentAccessAttempted e) {
@@ -297,6 +391,42 @@ public class GatewayFederate {
         return this.hasTimeStarted;
     }
 
+    /**
+     * Register a handler for the interactions of an HLA interaction class and all of its subclasses. Handlers are
+     * invoked immediately before {@link GatewayCallback#receiveInteraction}, and the handlers for a subclass are
+     * invoked before the handlers for its parent classes. Handlers should be registered before logical time
+     * progression starts, such as during {@link GatewayCallback#initializeSelf}.
+     *
+     * @param className The full HLA interaction class name as defined in the object model
+     * @param handler The handler to invoke for each received interaction of className or its subclasses
+     */
+    public void addInteractionHandler(String className, InteractionHandler handler) {
+        log.trace("addInteractionHandler " + className);
+        InteractionClassType interaction = objectModel.getInteraction(className);
+        if (interaction == null) {
+            throw new IllegalArgumentException("invalid interaction class " + className);
+        }
+        handlerRegistry.addInteractionHandler(interaction, handler);
+    }
+
+    /**
+     * Register a handler for the object reflections of an HLA object class and all of its subclasses. Handlers are
+     * invoked immediately before {@link GatewayCallback#receiveObject}, and the handlers for a subclass are invoked
+     * before the handlers for its parent classes. Handlers should be registered before logical time progression
+     * starts, such as during {@link GatewayCallback#initializeSelf}.
+     *
+     * @param className The full HLA object class name as defined in the object model
+     * @param handler The handler to invoke for each received reflection of className or its subclasses
+     */
+    public void addObjectHandler(String className, ObjectHandler handler) {
+        log.trace("addObjectHandler " + className);
+        ObjectClassType object = objectModel.getObject(className);
+        if (object == null) {
+            throw new IllegalArgumentException("invalid object class " + className);
+        }
+        handlerRegistry.addObjectHandler(object, handler);
+    }
+
     /**
      * Request this class resign from its federation and return from {@link #run} after the next logical time step.
      */
@@ -321,7 +451,7 @@ public class GatewayFederate {
             int classHandle = rtiAmb.getObjectClassHandle(className);
             int instanceHandle = rtiAmb.registerObjectInstance(classHandle);
             final String instanceName = rtiAmb.getObjectInstanceName(instanceHandle);
-            updateObjectState(instanceName, new HashMap<String, String>());
+            objectStates.putRegistered(instanceName, classHandle);
             return instanceName;
         } catch (ObjectClassNotDefined | ObjectNotKnown e) {
             // classHandle retrieved from the RTI ambassador
@@ -351,7 +481,7 @@ public class GatewayFederate {
         try {
             int classHandle = rtiAmb.getObjectClassHandle(className);
             rtiAmb.registerObjectInstance(classHandle, instanceName);
-            updateObjectState(instanceName, new HashMap<String, String>());
+            objectStates.putRegistered(instanceName, classHandle);
             return instanceName;
         } catch (ObjectClassNotDefined e) {
             // classHandle retrieved from the RTI ambassador
@@ -363,6 +493,123 @@ public class GatewayFederate {
         } 
     }
 
+    /**
+     * Create count new object instances of the same class in the current federation and assign them random names.
+     * The object class is resolved once for all of the instances.
+     *
+     * @param className The full HLA object class to create the new instances for
+     * @param count The number of object instances to create
+     * @return The instance names of the newly created objects in the order they were created
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not the full classpath of a known HLA object class
+     * @throws ObjectClassNotPublished if className is not an object class this federate publishes
+     */
+    public List<String> registerObjectInstances(String className, int count)
+            throws FederateNotExecutionMember, NameNotFound, ObjectClassNotPublished {
+        try {
+            return registerObjectInstances(className, count, Collections.<String, String>emptyMap());
+        } catch (AttributeNotOwned e) {
+            // no attributes are updated
+            throw new RTIAmbassadorException("unreachable code", e);
+        }
+    }
+
+    /**
+     * Create count new object instances of the same class in the current federation, assign them random names, and
+     * send a receive order update with the same initial attribute values to each new instance. The object class and
+     * attribute handles are resolved once for all of the instances, and each update has the same behavior as
+     * {@link #updateObject(String, Map)}. If an exception is thrown, the instances created before the failure
+     * remain registered.
+     *
+     * @param className The full HLA object class to create the new instances for
+     * @param count The number of object instances to create
+     * @param initialAttributes A map from attribute names to string values sent to every new instance, which can be
+     *  empty to send no update
+     * @return The instance names of the newly created objects in the order they were created
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not the full classpath of a known HLA object class, or a key from
+     *  initialAttributes is not a valid attribute name for the object class
+     * @throws ObjectClassNotPublished if className is not an object class this federate publishes
+     * @throws AttributeNotOwned if this federate does not publish an attribute in initialAttributes
+     */
+    public List<String> registerObjectInstances(String className, int count, Map<String, String> initialAttributes)
+            throws FederateNotExecutionMember, NameNotFound, ObjectClassNotPublished, AttributeNotOwned {
+        log.trace("registerObjectInstances {} {} {}", className, count, initialAttributes);
+        try {
+            int classHandle = rtiAmb.getObjectClassHandle(className);
+            int[] attributeHandles = getAttributeHandles(classHandle, initialAttributes.keySet());
+            objectStates.reserveRegistered(count);
+            List<String> instanceNames = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                int instanceHandle = rtiAmb.registerObjectInstance(classHandle);
+                String instanceName = rtiAmb.getObjectInstanceName(instanceHandle);
+                instanceNames.add(instanceName);
+                registerInitialState(instanceName, instanceHandle, classHandle, attributeHandles, initialAttributes);
+            }
+            log.debug("registered {} instances of {}", count, className);
+            return instanceNames;
+        } catch (ObjectClassNotDefined | ObjectNotKnown | AttributeNotDefined | InvalidFederationTime e) {
+            // classHandle and attributeHandles retrieved from the RTI ambassador
+            // instanceHandle received from the RTI ambassador
+            // receive order updates have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Create a new object instance of the same class in the current federation for each key in the given map, and
+     * send a receive order update with the mapped initial attribute values to each new instance. The object class is
+     * resolved once for all of the instances, and each update has the same behavior as
+     * {@link #updateObject(String, Map)}. The instances are created in the iteration order of the map. If an
+     * exception is thrown, the instances created before the failure remain registered.
+     *
+     * @param className The full HLA object class to create the new instances for
+     * @param instances A map from the unique name to assign each new instance to a map from attribute names to string
+     *  values, which can be empty to send no update for that instance
+     * @return The instance names of the newly created objects in the order they were created
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not the full classpath of a known HLA object class, or an initial
+     *  attribute name is not a valid attribute name for the object class
+     * @throws ObjectClassNotPublished if className is not an object class this federate publishes
+     * @throws ObjectAlreadyRegistered if another object instance already exists with one of the names
+     * @throws AttributeNotOwned if this federate does not publish an initial attribute
+     */
+    public List<String> registerObjectInstances(String className, Map<String, Map<String, String>> instances)
+            throws FederateNotExecutionMember, NameNotFound, ObjectClassNotPublished, ObjectAlreadyRegistered,
+            AttributeNotOwned {
+        log.trace("registerObjectInstances {} {}", className, instances.keySet());
+        try {
+            int classHandle = rtiAmb.getObjectClassHandle(className);
+            objectStates.reserveRegistered(instances.size());
+            List<String> instanceNames = new ArrayList<String>(instances.size());
+            // the instances usually share their attribute names, so each name is resolved once for the class
+            Map<String, Integer> resolvedHandles = new HashMap<String, Integer>();
+            for (Map.Entry<String, Map<String, String>> entry : instances.entrySet()) {
+                final String instanceName = entry.getKey();
+                final Map<String, String> initialAttributes = entry.getValue();
+                int[] attributeHandles = getAttributeHandles(classHandle, initialAttributes.keySet(), resolvedHandles);
+                int instanceHandle = rtiAmb.registerObjectInstance(classHandle, instanceName);
+                instanceNames.add(instanceName);
+                registerInitialState(instanceName, instanceHandle, classHandle, attributeHandles, initialAttributes);
+            }
+            log.debug("registered {} instances of {}", instances.size(), className);
+            return instanceNames;
+        } catch (ObjectClassNotDefined | ObjectNotKnown | AttributeNotDefined | InvalidFederationTime e) {
+            // classHandle and attributeHandles retrieved from the RTI ambassador
+            // instanceHandle received from the RTI ambassador
+            // receive order updates have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
     /**
      * Delete an object instance created from a prior call to {@link #registerObjectInstance}
      * 
@@ -377,6 +624,16 @@ public class GatewayFederate {
         try {
             int instanceHandle = rtiAmb.getObjectInstanceHandle(instanceName);
             rtiAmb.deleteObjectInstance(instanceHandle, null);
+            objectStates.remove(instanceName);
+            if (deltaFilter != null) {
+                deltaFilter.remove(instanceName);
+            }
+            if (updateThrottle != null) {
+                updateThrottle.remove(instanceHandle);
+            }
+            if (updateCombiner != null) {
+                updateCombiner.remove(instanceHandle);
+            }
         } catch (SaveInProgress | RestoreInProgress e) {
             throw new UnsupportedServiceException("for federation save/restore", e);
         } catch (RTIinternalError | ConcurrentAccessAttempted e) {
@@ -392,6 +649,9 @@ public class GatewayFederate {
      * <p>
      * The behavior of this function is undefined when using a subset of the interaction's available parameters. The
      * parameters map should always contain values for every interaction parameter.
+     * <p>
+     * When the interaction class has a rate limit in the configuration, an interaction that exceeds the rate is held
+     * and sent later, or discarded; see {@link #getInteractionPacingStatistics}.
      * 
      * @param className The full HLA interaction class name to send
      * @param parameters A map from parameter names to string values
@@ -402,15 +662,17 @@ public class GatewayFederate {
      */
     public void sendInteraction(String className, Map<String, String> parameters)
             throws FederateNotExecutionMember, NameNotFound, InteractionClassNotPublished {
-        log.trace("sendInteraction " + className + " " + Arrays.toString(parameters.entrySet().toArray()));
+        log.trace("sendInteraction {} {}", className, parameters);
         try {
-            int classHandle = rtiAmb.getInteractionClassHandle(className);
-            Map<String, String> modifiedParameters = addRootParameters(className, parameters);
-            SuppliedParameters suppliedParameters = convertToSuppliedParameters(classHandle, modifiedParameters);
-            rtiAmb.sendInteraction(classHandle, suppliedParameters, null);
-        } catch (InteractionClassNotDefined | InteractionParameterNotDefined e) {
+            PublishedInteraction published = getPublishedInteraction(className);
+            SuppliedParameters suppliedParameters =
+                    convertToSuppliedParameters(published.getClassHandle(), parameters);
+            published.addRootParameters(suppliedParameters, parameters);
+            transmitInteraction(published.getClassHandle(), suppliedParameters, null);
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined | InvalidFederationTime e) {
             // classHandle retrieved from the RTI ambassador
             // convertToSuppliedParameters returns valid parameters
+            // receive order interactions have no timestamp
             throw new RTIAmbassadorException("unreachable code", e);
         } catch (SaveInProgress | RestoreInProgress e) {
             throw new UnsupportedServiceException("for federation save/restore", e);
@@ -426,6 +688,9 @@ public class GatewayFederate {
      * <p>
      * The behavior of this function is undefined when using a subset of the interaction's available parameters. The
      * parameters map should always contain values for every interaction parameter.
+     * <p>
+     * When the interaction class has a rate limit in the configuration, an interaction that exceeds the rate is held
+     * and sent later, or discarded; see {@link #getInteractionPacingStatistics}.
      * 
      * @param className The full HLA interaction class name to send
      * @param parameters A map from parameter names to string values
@@ -438,13 +703,13 @@ public class GatewayFederate {
      */
     public void sendInteraction(String className, Map<String, String> parameters, double timestamp)
             throws FederateNotExecutionMember, NameNotFound, InteractionClassNotPublished, InvalidFederationTime {
-        log.trace("sendInteraction " + className + " " + Arrays.toString(parameters.entrySet().toArray())
-        + " " + timestamp);
+        log.trace("sendInteraction {} {} {}", className, parameters, timestamp);
         try {
-            int classHandle = rtiAmb.getInteractionClassHandle(className);
-            Map<String, String> modifiedParameters = addRootParameters(className, parameters);
-            SuppliedParameters suppliedParameters = convertToSuppliedParameters(classHandle, modifiedParameters);
-            rtiAmb.sendInteraction(classHandle, suppliedParameters, null, new DoubleTime(timestamp));
+            PublishedInteraction published = getPublishedInteraction(className);
+            SuppliedParameters suppliedParameters =
+                    convertToSuppliedParameters(published.getClassHandle(), parameters);
+            published.addRootParameters(suppliedParameters, parameters);
+            transmitInteraction(published.getClassHandle(), suppliedParameters, new DoubleTime(timestamp));
         } catch (InteractionClassNotDefined | InteractionParameterNotDefined e) {
             // classHandle retrieved from the RTI ambassador
             // convertToSuppliedParameters returns valid parameters
@@ -461,6 +726,11 @@ public class GatewayFederate {
      * during the same logical time step it is sent using an explicit call to {@link #tick}. Because the message will
      * take some time to deliver, {@link #tick} should be called multiple times in a loop until the desired receive
      * order message has been delivered to {@link GatewayCallback#receiveObject}.
+     * <p>
+     * When delta updates are enabled in the configuration, only the attributes whose value differs from
+     * {@link #getObjectState} are sent, and no update is sent when every value is unchanged.
+     * When combined updates are enabled, the update is merged with the other updates of the same object instance
+     * and sent before the next time advance request, and any error from the RTI is logged instead of thrown.
      * 
      * @param instanceName The object instance name returned from {@link #registerObjectInstance}
      * @param attributes A map from attribute names to string values
@@ -471,16 +741,17 @@ public class GatewayFederate {
      */
     public void updateObject(String instanceName, Map<String, String> attributes)
             throws FederateNotExecutionMember, ObjectNotKnown, NameNotFound, AttributeNotOwned {
-        log.trace("updateObject " + instanceName + " " + Arrays.toString(attributes.entrySet().toArray()));
+        log.trace("updateObject {} {}", instanceName, attributes);
         try {
             int instanceHandle = rtiAmb.getObjectInstanceHandle(instanceName);
             int classHandle = rtiAmb.getObjectClass(instanceHandle);
-            SuppliedAttributes suppliedAttributes = convertToSuppliedAttributes(classHandle, attributes);
-            rtiAmb.updateAttributeValues(instanceHandle, suppliedAttributes, null);
-            updateObjectState(instanceName, attributes);
-        } catch (ObjectClassNotDefined | AttributeNotDefined e) {
+            AttributeUpdate update =
+                    toAttributeUpdate(instanceName, instanceHandle, classHandle, attributes, false);
+            sendAttributeUpdate(update, null);
+        } catch (ObjectClassNotDefined | AttributeNotDefined | InvalidFederationTime e) {
             // classHandle retrieved from the RTI ambassador
-            // convertToSuppliedAttributes returns valid attributes
+            // toAttributeUpdate returns valid attributes
+            // receive order updates have no timestamp
             throw new RTIAmbassadorException("unreachable code", e);
         } catch (SaveInProgress | RestoreInProgress e) {
             throw new UnsupportedServiceException("for federation save/restore", e);
@@ -493,6 +764,11 @@ public class GatewayFederate {
      * Send an update to an existing and owned object instance which other federates will receive once their logical
      * time exceeds the given timestamp. The value of timestamp must be greater than or equal to the value returned by
      * {@link #getTimeStamp}.
+     * <p>
+     * When delta updates are enabled in the configuration, only the attributes whose value differs from
+     * {@link #getObjectState} are sent, and no update is sent when every value is unchanged.
+     * When combined updates are enabled, the update is merged with the other updates of the same object instance
+     * and sent before the next time advance request, and any error from the RTI is logged instead of thrown.
      * 
      * @param instanceName The object instance name returned from {@link #registerObjectInstance}
      * @param attributes A map from attribute names to string values
@@ -505,17 +781,16 @@ public class GatewayFederate {
      */
     public void updateObject(String instanceName, Map<String, String> attributes, double timestamp)
             throws FederateNotExecutionMember, ObjectNotKnown, NameNotFound, AttributeNotOwned, InvalidFederationTime {
-        log.trace("updateObject " + instanceName + " " + Arrays.toString(attributes.entrySet().toArray()) 
-        + " " + timestamp);
+        log.trace("updateObject {} {} {}", instanceName, attributes, timestamp);
         try {
             int instanceHandle = rtiAmb.getObjectInstanceHandle(instanceName);
             int classHandle = rtiAmb.getObjectClass(instanceHandle);
-            SuppliedAttributes suppliedAttributes = convertToSuppliedAttributes(classHandle, attributes);
-            rtiAmb.updateAttributeValues(instanceHandle, suppliedAttributes, null, new DoubleTime(timestamp));
-            updateObjectState(instanceName, attributes);
+            AttributeUpdate update =
+                    toAttributeUpdate(instanceName, instanceHandle, classHandle, attributes, true);
+            sendAttributeUpdate(update, new DoubleTime(timestamp));
         } catch (ObjectClassNotDefined | AttributeNotDefined e) {
             // classHandle retrieved from the RTI ambassador
-            // convertToSuppliedAttributes returns valid attributes
+            // toAttributeUpdate returns valid attributes
             throw new RTIAmbassadorException("unreachable code", e);
         } catch (SaveInProgress | RestoreInProgress e) {
             throw new UnsupportedServiceException("for federation save/restore", e);
@@ -524,19 +799,1026 @@ public class GatewayFederate {
         } 
     }
 
-    /**
-     * Get the current value of all attributes for a known object instance. An object instance is considered known if
-     * it was registered through a prior call to {@link #registerObjectInstance}, or if its instance name was passed
-     * as an argument to {@link GatewayCallback#receiveObject}.
-     *
-     * @param instanceName The instance name of a discovered or registered object instance.
-     * @return An unmodifiable map of attributes and their current value, or null if the object instance is not known.
-     */
-    public Map<String, String> getObjectState(String instanceName) {
-        if (objectInstances.containsKey(instanceName)) {
-            return Collections.unmodifiableMap(objectInstances.get(instanceName));
+    /**
+     * Create a reusable template for sending interactions of the given class. The interaction class and parameter
+     * handles are resolved once, so that the template can be sent repeatedly without name lookups. The template can
+     * be used until this federate resigns from the federation.
+     *
+     * @param className The full HLA interaction class name to send
+     * @return A new template with no parameter values other than the defaults for C2WInteractionRoot
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not a known HLA interaction class
+     */
+    public InteractionTemplate prepareInteraction(String className)
+            throws FederateNotExecutionMember, NameNotFound {
+        log.trace("prepareInteraction " + className);
+        try {
+            int classHandle = rtiAmb.getInteractionClassHandle(className);
+            InteractionClassType interaction = objectModel.getInteraction(className);
+            if (interaction == null) {
+                throw new NameNotFound(className + " is not in the object model");
+            }
+            Set<ParameterType> parameters = objectModel.getParameters(interaction);
+            String[] parameterNames = new String[parameters.size()];
+            int[] parameterHandles = new int[parameters.size()];
+            int slot = 0;
+            for (ParameterType parameter : parameters) {
+                parameterNames[slot] = parameter.getName().getValue();
+                parameterHandles[slot] = rtiAmb.getParameterHandle(parameterNames[slot], classHandle);
+                slot++;
+            }
+            Map<String, String> defaults = getRootParameterDefaults(className);
+            TemplateSlots slots = new TemplateSlots(valueCodec, parameterNames, parameterHandles, defaults);
+            return new InteractionTemplate(this, className, classHandle, slots);
+        } catch (InteractionClassNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Send a receive order interaction using a template created by {@link #prepareInteraction}. The parameters that
+     * have a value in the template are sent. This method has the same behavior as
+     * {@link #sendInteraction(String, Map)}.
+     *
+     * @param template A template created by this gateway federate
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws InteractionClassNotPublished if this federate does not publish the interaction class of the template
+     */
+    public void sendInteraction(InteractionTemplate template)
+            throws FederateNotExecutionMember, InteractionClassNotPublished {
+        log.trace("sendInteraction {}", template);
+        checkOwner(template.getOwner());
+        try {
+            SuppliedParameters suppliedParameters = template.getParameters().toSuppliedParameters();
+            transmitInteraction(template.getClassHandle(), suppliedParameters, null);
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined | InvalidFederationTime e) {
+            // the template contains handles retrieved from the RTI ambassador
+            // receive order interactions have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Send a timestamp order interaction using a template created by {@link #prepareInteraction}. The parameters that
+     * have a value in the template are sent. This method has the same behavior as
+     * {@link #sendInteraction(String, Map, double)}.
+     *
+     * @param template A template created by this gateway federate
+     * @param timestamp The logical time after which other federates should receive this interaction
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws InteractionClassNotPublished if this federate does not publish the interaction class of the template
+     * @throws InvalidFederationTime if this federate cannot send interactions to be delivered at the given timestamp
+     */
+    public void sendInteraction(InteractionTemplate template, double timestamp)
+            throws FederateNotExecutionMember, InteractionClassNotPublished, InvalidFederationTime {
+        log.trace("sendInteraction {} {}", template, timestamp);
+        checkOwner(template.getOwner());
+        try {
+            SuppliedParameters suppliedParameters = template.getParameters().toSuppliedParameters();
+            transmitInteraction(template.getClassHandle(), suppliedParameters, new DoubleTime(timestamp));
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined e) {
+            // the template contains handles retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Create a reusable template for updating the attributes of an existing and owned object instance. The object
+     * instance, object class, and attribute handles are resolved once, so that the template can be sent repeatedly
+     * without name lookups. The template can be used until the object instance is deleted.
+     *
+     * @param instanceName The object instance name returned from {@link #registerObjectInstance}
+     * @return A new template with no attribute values
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws ObjectNotKnown if instanceName does not refer to an existing HLA object in the federation
+     */
+    public ObjectUpdateTemplate prepareObjectUpdate(String instanceName)
+            throws FederateNotExecutionMember, ObjectNotKnown {
+        log.trace("prepareObjectUpdate " + instanceName);
+        try {
+            int instanceHandle = rtiAmb.getObjectInstanceHandle(instanceName);
+            int classHandle = rtiAmb.getObjectClass(instanceHandle);
+            String className = getObjectClassName(classHandle);
+            ObjectClassType object = objectModel.getObject(className);
+            if (object == null) {
+                throw new ObjectNotKnown(instanceName + " has class " + className + " not in the object model");
+            }
+            Set<AttributeType> attributes = objectModel.getAttributes(object);
+            String[] attributeNames = new String[attributes.size()];
+            int[] attributeHandles = new int[attributes.size()];
+            int slot = 0;
+            for (AttributeType attribute : attributes) {
+                attributeNames[slot] = attribute.getName().getValue();
+                attributeHandles[slot] = rtiAmb.getAttributeHandle(attributeNames[slot], classHandle);
+                slot++;
+            }
+            TemplateSlots slots = new TemplateSlots(valueCodec, attributeNames, attributeHandles,
+                    Collections.<String, String>emptyMap());
+            return new ObjectUpdateTemplate(this, instanceName, instanceHandle, className, classHandle, slots);
+        } catch (ObjectClassNotDefined | NameNotFound e) {
+            // classHandle retrieved from the RTI ambassador
+            // attribute names retrieved from the object model
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Send a receive order update using a template created by {@link #prepareObjectUpdate}. The attributes that have
+     * a value in the template are sent. This method has the same behavior as {@link #updateObject(String, Map)}.
+     *
+     * @param template A template created by this gateway federate
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws ObjectNotKnown if the object instance of the template has been deleted
+     * @throws AttributeNotOwned if this federate was not the one who created the object instance of the template
+     */
+    public void updateObject(ObjectUpdateTemplate template)
+            throws FederateNotExecutionMember, ObjectNotKnown, AttributeNotOwned {
+        log.trace("updateObject {}", template);
+        checkOwner(template.getOwner());
+        try {
+            sendAttributeUpdate(toAttributeUpdate(template, false), null);
+        } catch (AttributeNotDefined | InvalidFederationTime e) {
+            // the template contains handles retrieved from the RTI ambassador
+            // receive order updates have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Send a timestamp order update using a template created by {@link #prepareObjectUpdate}. The attributes that
+     * have a value in the template are sent. This method has the same behavior as
+     * {@link #updateObject(String, Map, double)}.
+     *
+     * @param template A template created by this gateway federate
+     * @param timestamp The logical time after which other federates should receive this object update
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws ObjectNotKnown if the object instance of the template has been deleted
+     * @throws AttributeNotOwned if this federate was not the one who created the object instance of the template
+     * @throws InvalidFederationTime if this federate cannot send object updates to be delivered at the given timestamp
+     */
+    public void updateObject(ObjectUpdateTemplate template, double timestamp)
+            throws FederateNotExecutionMember, ObjectNotKnown, AttributeNotOwned, InvalidFederationTime {
+        log.trace("updateObject {} {}", template, timestamp);
+        checkOwner(template.getOwner());
+        try {
+            sendAttributeUpdate(toAttributeUpdate(template, true), new DoubleTime(timestamp));
+        } catch (AttributeNotDefined e) {
+            // the template contains handles retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Send a receive order interaction for each template in the given collection, in iteration order. This method
+     * has the same behavior as calling {@link #sendInteraction(InteractionTemplate)} for each template, but with the
+     * overhead of a single call. If an exception is thrown, the interactions for the templates that precede the
+     * failed template have already been sent.
+     *
+     * @param templates A collection of templates created by this gateway federate
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws InteractionClassNotPublished if this federate does not publish the interaction class of a template
+     */
+    public void sendInteractions(Collection<InteractionTemplate> templates)
+            throws FederateNotExecutionMember, InteractionClassNotPublished {
+        log.trace("sendInteractions {}", templates.size());
+        InteractionTemplate template = null;
+        try {
+            for (InteractionTemplate next : templates) {
+                template = next;
+                checkOwner(template.getOwner());
+                SuppliedParameters suppliedParameters = template.getParameters().toSuppliedParameters();
+                transmitInteraction(template.getClassHandle(), suppliedParameters, null);
+            }
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined | InvalidFederationTime e) {
+            // the template contains handles retrieved from the RTI ambassador
+            // receive order interactions have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (InteractionClassNotPublished e) {
+            log.debug("sendInteractions failed for {}", template);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a timestamp order interaction for each template in the given collection, in iteration order, using the
+     * same timestamp for every interaction. This method has the same behavior as calling
+     * {@link #sendInteraction(InteractionTemplate, double)} for each template, but with the overhead of a single
+     * call. If an exception is thrown, the interactions for the templates that precede the failed template have
+     * already been sent.
+     *
+     * @param templates A collection of templates created by this gateway federate
+     * @param timestamp The logical time after which other federates should receive the interactions
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws InteractionClassNotPublished if this federate does not publish the interaction class of a template
+     * @throws InvalidFederationTime if this federate cannot send interactions to be delivered at the given timestamp
+     */
+    public void sendInteractions(Collection<InteractionTemplate> templates, double timestamp)
+            throws FederateNotExecutionMember, InteractionClassNotPublished, InvalidFederationTime {
+        log.trace("sendInteractions {} {}", templates.size(), timestamp);
+        DoubleTime time = new DoubleTime(timestamp);
+        InteractionTemplate template = null;
+        try {
+            for (InteractionTemplate next : templates) {
+                template = next;
+                checkOwner(template.getOwner());
+                SuppliedParameters suppliedParameters = template.getParameters().toSuppliedParameters();
+                transmitInteraction(template.getClassHandle(), suppliedParameters, time);
+            }
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined e) {
+            // the template contains handles retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (InteractionClassNotPublished e) {
+            log.debug("sendInteractions failed for {}", template);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a receive order update for each template in the given collection, in iteration order. This method has the
+     * same behavior as calling {@link #updateObject(ObjectUpdateTemplate)} for each template, but with the overhead
+     * of a single call. If an exception is thrown, the updates for the templates that precede the failed template
+     * have already been sent.
+     *
+     * @param templates A collection of templates created by this gateway federate
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws ObjectNotKnown if the object instance of a template has been deleted
+     * @throws AttributeNotOwned if this federate was not the one who created the object instance of a template
+     */
+    public void updateObjects(Collection<ObjectUpdateTemplate> templates)
+            throws FederateNotExecutionMember, ObjectNotKnown, AttributeNotOwned {
+        log.trace("updateObjects {}", templates.size());
+        ObjectUpdateTemplate template = null;
+        try {
+            for (ObjectUpdateTemplate next : templates) {
+                template = next;
+                checkOwner(template.getOwner());
+                sendAttributeUpdate(toAttributeUpdate(template, false), null);
+            }
+        } catch (AttributeNotDefined | InvalidFederationTime e) {
+            // the template contains handles retrieved from the RTI ambassador
+            // receive order updates have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (ObjectNotKnown | AttributeNotOwned e) {
+            log.debug("updateObjects failed for {}", template);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a timestamp order update for each template in the given collection, in iteration order, using the same
+     * timestamp for every update. This method has the same behavior as calling
+     * {@link #updateObject(ObjectUpdateTemplate, double)} for each template, but with the overhead of a single call.
+     * If an exception is thrown, the updates for the templates that precede the failed template have already been
+     * sent.
+     *
+     * @param templates A collection of templates created by this gateway federate
+     * @param timestamp The logical time after which other federates should receive the object updates
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws ObjectNotKnown if the object instance of a template has been deleted
+     * @throws AttributeNotOwned if this federate was not the one who created the object instance of a template
+     * @throws InvalidFederationTime if this federate cannot send object updates to be delivered at the given timestamp
+     */
+    public void updateObjects(Collection<ObjectUpdateTemplate> templates, double timestamp)
+            throws FederateNotExecutionMember, ObjectNotKnown, AttributeNotOwned, InvalidFederationTime {
+        log.trace("updateObjects {} {}", templates.size(), timestamp);
+        DoubleTime time = new DoubleTime(timestamp);
+        ObjectUpdateTemplate template = null;
+        try {
+            for (ObjectUpdateTemplate next : templates) {
+                template = next;
+                checkOwner(template.getOwner());
+                sendAttributeUpdate(toAttributeUpdate(template, true), time);
+            }
+        } catch (AttributeNotDefined e) {
+            // the template contains handles retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (ObjectNotKnown | AttributeNotOwned e) {
+            log.debug("updateObjects failed for {}", template);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a receive order interaction of one class for each parameter map in the given collection, in iteration
+     * order. This method has the same behavior as calling {@link #sendInteraction(String, Map)} for each parameter
+     * map, but the interaction class is resolved once and each parameter name is resolved once for the batch. If an
+     * exception is thrown, the interactions for the parameter maps that precede the failed map have already been
+     * sent.
+     *
+     * @param className The full HLA interaction class name to send
+     * @param interactions A collection of maps from parameter names to string values, one for each interaction
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not a known HLA interaction class, or a key from a parameter map is not a
+     *  valid parameter name for the className interaction
+     * @throws InteractionClassNotPublished if this federate does not publish the interaction className
+     */
+    public void sendInteractions(String className, Collection<Map<String, String>> interactions)
+            throws FederateNotExecutionMember, NameNotFound, InteractionClassNotPublished {
+        log.trace("sendInteractions {} {}", className, interactions.size());
+        Map<String, String> parameters = null;
+        try {
+            PublishedInteraction published = getPublishedInteraction(className);
+            Map<String, Integer> parameterHandles = new HashMap<String, Integer>();
+            for (Map<String, String> next : interactions) {
+                parameters = next;
+                SuppliedParameters suppliedParameters =
+                        convertToSuppliedParameters(published.getClassHandle(), parameters, parameterHandles);
+                published.addRootParameters(suppliedParameters, parameters);
+                transmitInteraction(published.getClassHandle(), suppliedParameters, null);
+            }
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined | InvalidFederationTime e) {
+            // classHandle retrieved from the RTI ambassador
+            // convertToSuppliedParameters returns valid parameters
+            // receive order interactions have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (NameNotFound | InteractionClassNotPublished e) {
+            log.debug("sendInteractions failed for {} {}", className, parameters);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a timestamp order interaction of one class for each parameter map in the given collection, in iteration
+     * order, using the same timestamp for every interaction. This method has the same behavior as calling
+     * {@link #sendInteraction(String, Map, double)} for each parameter map, but the interaction class is resolved
+     * once and each parameter name is resolved once for the batch. If an exception is thrown, the interactions for
+     * the parameter maps that precede the failed map have already been sent.
+     *
+     * @param className The full HLA interaction class name to send
+     * @param interactions A collection of maps from parameter names to string values, one for each interaction
+     * @param timestamp The logical time after which other federates should receive the interactions
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not a known HLA interaction class, or a key from a parameter map is not a
+     *  valid parameter name for the className interaction
+     * @throws InteractionClassNotPublished if this federate does not publish the interaction className
+     * @throws InvalidFederationTime if this federate cannot send interactions to be delivered at the given timestamp
+     */
+    public void sendInteractions(String className, Collection<Map<String, String>> interactions, double timestamp)
+            throws FederateNotExecutionMember, NameNotFound, InteractionClassNotPublished, InvalidFederationTime {
+        log.trace("sendInteractions {} {} {}", className, interactions.size(), timestamp);
+        DoubleTime time = new DoubleTime(timestamp);
+        Map<String, String> parameters = null;
+        try {
+            PublishedInteraction published = getPublishedInteraction(className);
+            Map<String, Integer> parameterHandles = new HashMap<String, Integer>();
+            for (Map<String, String> next : interactions) {
+                parameters = next;
+                SuppliedParameters suppliedParameters =
+                        convertToSuppliedParameters(published.getClassHandle(), parameters, parameterHandles);
+                published.addRootParameters(suppliedParameters, parameters);
+                transmitInteraction(published.getClassHandle(), suppliedParameters, time);
+            }
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            // convertToSuppliedParameters returns valid parameters
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (NameNotFound | InteractionClassNotPublished e) {
+            log.debug("sendInteractions failed for {} {}", className, parameters);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a receive order update for each object instance in the given map, in iteration order. This method has the
+     * same behavior as calling {@link #updateObject(String, Map)} for each entry, but each attribute name is
+     * resolved once per object class for the batch. If an exception is thrown, the updates for the entries that
+     * precede the failed entry have already been sent.
+     *
+     * @param updates A map from the object instance names returned from {@link #registerObjectInstance} to maps from
+     *  attribute names to string values
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws ObjectNotKnown if an instance name does not refer to an existing HLA object in the federation
+     * @throws NameNotFound if a key from an attributes map is not a valid attribute name for its object instance
+     * @throws AttributeNotOwned if this federate was not the one who created an object instance
+     */
+    public void updateObjects(Map<String, Map<String, String>> updates)
+            throws FederateNotExecutionMember, ObjectNotKnown, NameNotFound, AttributeNotOwned {
+        log.trace("updateObjects {}", updates.size());
+        String instanceName = null;
+        try {
+            Map<Integer, Map<String, Integer>> attributeHandles = new HashMap<Integer, Map<String, Integer>>();
+            for (Map.Entry<String, Map<String, String>> entry : updates.entrySet()) {
+                instanceName = entry.getKey();
+                int instanceHandle = rtiAmb.getObjectInstanceHandle(instanceName);
+                int classHandle = rtiAmb.getObjectClass(instanceHandle);
+                AttributeUpdate update = toAttributeUpdate(instanceName, instanceHandle, classHandle,
+                        entry.getValue(), false, attributeHandles);
+                sendAttributeUpdate(update, null);
+            }
+        } catch (ObjectClassNotDefined | AttributeNotDefined | InvalidFederationTime e) {
+            // classHandle retrieved from the RTI ambassador
+            // toAttributeUpdate returns valid attributes
+            // receive order updates have no timestamp
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (ObjectNotKnown | NameNotFound | AttributeNotOwned e) {
+            log.debug("updateObjects failed for {}", instanceName);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a timestamp order update for each object instance in the given map, in iteration order, using the same
+     * timestamp for every update. This method has the same behavior as calling
+     * {@link #updateObject(String, Map, double)} for each entry, but each attribute name is resolved once per object
+     * class for the batch. If an exception is thrown, the updates for the entries that precede the failed entry have
+     * already been sent.
+     *
+     * @param updates A map from the object instance names returned from {@link #registerObjectInstance} to maps from
+     *  attribute names to string values
+     * @param timestamp The logical time after which other federates should receive the object updates
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws ObjectNotKnown if an instance name does not refer to an existing HLA object in the federation
+     * @throws NameNotFound if a key from an attributes map is not a valid attribute name for its object instance
+     * @throws AttributeNotOwned if this federate was not the one who created an object instance
+     * @throws InvalidFederationTime if this federate cannot send object updates to be delivered at the given timestamp
+     */
+    public void updateObjects(Map<String, Map<String, String>> updates, double timestamp)
+            throws FederateNotExecutionMember, ObjectNotKnown, NameNotFound, AttributeNotOwned, InvalidFederationTime {
+        log.trace("updateObjects {} {}", updates.size(), timestamp);
+        DoubleTime time = new DoubleTime(timestamp);
+        String instanceName = null;
+        try {
+            Map<Integer, Map<String, Integer>> attributeHandles = new HashMap<Integer, Map<String, Integer>>();
+            for (Map.Entry<String, Map<String, String>> entry : updates.entrySet()) {
+                instanceName = entry.getKey();
+                int instanceHandle = rtiAmb.getObjectInstanceHandle(instanceName);
+                int classHandle = rtiAmb.getObjectClass(instanceHandle);
+                AttributeUpdate update = toAttributeUpdate(instanceName, instanceHandle, classHandle,
+                        entry.getValue(), true, attributeHandles);
+                sendAttributeUpdate(update, time);
+            }
+        } catch (ObjectClassNotDefined | AttributeNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            // toAttributeUpdate returns valid attributes
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } catch (ObjectNotKnown | NameNotFound | AttributeNotOwned | InvalidFederationTime e) {
+            log.debug("updateObjects failed for {}", instanceName);
+            throw e;
+        }
+    }
+
+    /**
+     * Queue a receive order interaction to be sent by the thread that invoked {@link #run}. Unlike the other methods
+     * of this class, this method can be invoked from any thread. Queued messages are sent in the order they were
+     * queued at the start of each {@link #tick} and before each time advance request, with the same behavior as
+     * {@link #sendInteraction(String, Map)}. Errors from sending a queued message are logged.
+     * <p>
+     * The parameters map is not copied, and must not be modified after this call. When the queue is full, the
+     * configured send queue policy determines whether this call waits, rejects the message, or discards the oldest
+     * queued message. Messages are only queued while {@link #run} is active: a message queued before {@link #run}
+     * joins the federation or after {@link GatewayCallback#prepareToResign} returns is rejected, and a call waiting
+     * for space returns false when the federate stops.
+     *
+     * @param className The full HLA interaction class name to send
+     * @param parameters A map from parameter names to string values
+     * @return False if the message was not queued because the queue is full or the federate is not running
+     */
+    public boolean enqueueInteraction(String className, Map<String, String> parameters) {
+        return enqueue(new SendQueue.Message(true, className, parameters, Double.NaN));
+    }
+
+    /**
+     * Queue a timestamp order interaction to be sent by the thread that invoked {@link #run}. This method can be
+     * invoked from any thread, and has the same behavior as {@link #enqueueInteraction(String, Map)} except the
+     * interaction is sent using {@link #sendInteraction(String, Map, double)}. The timestamp must still be valid when
+     * the queued message is sent.
+     *
+     * @param className The full HLA interaction class name to send
+     * @param parameters A map from parameter names to string values
+     * @param timestamp The logical time after which other federates should receive this interaction
+     * @return False if the message was not queued because the queue is full or the federate is not running
+     */
+    public boolean enqueueInteraction(String className, Map<String, String> parameters, double timestamp) {
+        return enqueue(new SendQueue.Message(true, className, parameters, timestamp));
+    }
+
+    /**
+     * Queue a receive order object update to be sent by the thread that invoked {@link #run}. This method can be
+     * invoked from any thread, and has the same behavior as {@link #enqueueInteraction(String, Map)} except the
+     * update is sent using {@link #updateObject(String, Map)}.
+     *
+     * @param instanceName The object instance name returned from {@link #registerObjectInstance}
+     * @param attributes A map from attribute names to string values
+     * @return False if the message was not queued because the queue is full or the federate is not running
+     */
+    public boolean enqueueObjectUpdate(String instanceName, Map<String, String> attributes) {
+        return enqueue(new SendQueue.Message(false, instanceName, attributes, Double.NaN));
+    }
+
+    /**
+     * Queue a timestamp order object update to be sent by the thread that invoked {@link #run}. This method can be
+     * invoked from any thread, and has the same behavior as {@link #enqueueInteraction(String, Map)} except the
+     * update is sent using {@link #updateObject(String, Map, double)}. The timestamp must still be valid when the
+     * queued message is sent.
+     *
+     * @param instanceName The object instance name returned from {@link #registerObjectInstance}
+     * @param attributes A map from attribute names to string values
+     * @param timestamp The logical time after which other federates should receive this object update
+     * @return False if the message was not queued because the queue is full or the federate is not running
+     */
+    public boolean enqueueObjectUpdate(String instanceName, Map<String, String> attributes, double timestamp) {
+        return enqueue(new SendQueue.Message(false, instanceName, attributes, timestamp));
+    }
+
+    /**
+     * Get the most recent snapshot of the object state. A snapshot is published at the start of each logical time
+     * step, after the messages received for the time step have been processed and before
+     * {@link GatewayCallback#doTimeStep}. Unlike the other methods of this class, this method can be invoked from any
+     * thread, and it never blocks the thread that invoked {@link #run}. The publishStateSnapshots configuration option
+     * must be enabled.
+     *
+     * @return The latest snapshot, which is empty until the first time step
+     * @throws IllegalStateException if publishStateSnapshots is not enabled in the configuration
+     */
+    public ObjectStateSnapshot getObjectStateSnapshot() {
+        if (!objectStates.isPublishingSnapshots()) {
+            throw new IllegalStateException("publishStateSnapshots is not enabled");
+        }
+        return objectStates.getSnapshot();
+    }
+
+    /**
+     * Get the current object state version. The version increases by one for each update to the state of an object
+     * instance, whether the update was sent by this federate or reflected from another federate. Store this value to
+     * later query the changes made after it using {@link #getChangesSince}. The trackObjectChanges configuration
+     * option must be enabled.
+     *
+     * @return The version of the latest object state update, or 0 if no object state was updated
+     * @throws IllegalStateException if trackObjectChanges is not enabled in the configuration
+     */
+    public long getObjectStateVersion() {
+        checkTrackingChanges();
+        return objectStates.getVersion();
+    }
+
+    /**
+     * Get the latest change of each attribute that changed after the given object state version. The cost of this
+     * method is proportional to the number of object instances changed since the version rather than to the total
+     * object state. Object instances that are no longer known, as described in {@link #getObjectState}, are not
+     * reported. The trackObjectChanges configuration option must be enabled.
+     *
+     * @param version A value returned from {@link #getObjectStateVersion}, or 0 for every known attribute value
+     * @return The changed attributes and their current values, ordered by version
+     * @throws IllegalStateException if trackObjectChanges is not enabled in the configuration
+     */
+    public List<AttributeChange> getChangesSince(long version) {
+        checkTrackingChanges();
+        return objectStates.getChangesSinceVersion(version);
+    }
+
+    /**
+     * Get the latest change of each attribute that changed when the logical time of this federate was greater than
+     * the given logical time. This method has the same behavior as {@link #getChangesSince} other than how the
+     * changes are selected.
+     *
+     * @param logicalTime A logical time, such as a prior value of {@link #getLogicalTime}
+     * @return The changed attributes and their current values, ordered by version
+     * @throws IllegalStateException if trackObjectChanges is not enabled in the configuration
+     */
+    public List<AttributeChange> getChangesSinceTime(double logicalTime) {
+        checkTrackingChanges();
+        return objectStates.getChangesSinceTime(logicalTime);
+    }
+
+    /**
+     * Get the counters for an interaction class that has a rate limit in the configuration. Interactions of a rate
+     * limited class that exceed the rate are held and sent as the rate allows, or discarded, depending on the
+     * configured policy. A held timestamp order interaction is sent with its original timestamp, or with the value of
+     * {@link #getTimeStamp} when its original timestamp is no longer valid.
+     *
+     * @param className The full HLA interaction class name
+     * @return A snapshot of the counters, or null if the interaction class is not rate limited
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not a known HLA interaction class
+     */
+    public InteractionPacingStatistics getInteractionPacingStatistics(String className)
+            throws FederateNotExecutionMember, NameNotFound {
+        if (interactionPacer == null) {
+            return null;
+        }
+        try {
+            return interactionPacer.getStatistics(rtiAmb.getInteractionClassHandle(className));
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Get the current value of all attributes for a known object instance. An object instance is considered known if
+     * it was registered through a prior call to {@link #registerObjectInstance}, or if its instance name was passed
+     * as an argument to {@link GatewayCallback#receiveObject}. An object instance is no longer known once it is
+     * deleted or removed from the federation. The state of a discovered instance can also be evicted early when the
+     * configuration limits the number of instances, the memory used by their state, or how long an instance can go
+     * without an update; an evicted instance is known again after its next reflection, with only the reflected values.
+     * The returned map reflects later updates; use {@link #getObjectStateSnapshot} to read the state from another
+     * thread.
+     *
+     * @param instanceName The instance name of a discovered or registered object instance.
+     * @return An unmodifiable map of attributes and their current value, or null if the object instance is not known.
+     */
+    public Map<String, String> getObjectState(String instanceName) {
+        Map<String, String> attributes = objectStates.get(instanceName);
+        if (attributes != null) {
+            return Collections.unmodifiableMap(attributes);
+        }
+        return null;
+    }
+
+    /**
+     * Get the known object instances of an object class. Instances of subclasses are not included. The set is
+     * maintained as object instances are registered, discovered, deleted, removed, and evicted, so this method does
+     * not scan the object state.
+     *
+     * @param className The full HLA object class name
+     * @return An unmodifiable set of instance names that reflects later changes to the known object instances
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not the full classpath of a known HLA object class
+     */
+    public Set<String> getObjectInstances(String className) throws FederateNotExecutionMember, NameNotFound {
+        try {
+            return objectStates.getInstances(rtiAmb.getObjectClassHandle(className));
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Get the known object instances of an object class with an attribute equal to a value. Instances of subclasses
+     * are not included. The lookup uses the index declared for the attribute in the objectAttributeIndexes
+     * configuration option, and scans the instances of the object class when the attribute is not indexed.
+     *
+     * @param className The full HLA object class name
+     * @param attributeName The attribute name as defined in the object model
+     * @param value The attribute value to find
+     * @return A new set of the instance names with the attribute value
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not the full classpath of a known HLA object class
+     */
+    public Set<String> findObjectInstances(String className, String attributeName, String value)
+            throws FederateNotExecutionMember, NameNotFound {
+        try {
+            return objectStates.find(rtiAmb.getObjectClassHandle(className), attributeName, value);
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    /**
+     * Get the known object instances of an object class with an attribute in a range of values. Instances of
+     * subclasses are not included. Values that are numbers are ordered by value before all other values, which are
+     * ordered as strings. A bound that is a number includes every value equal to that number, such as 10 and 10.0.
+     * The lookup uses the index declared for the attribute in the objectAttributeIndexes configuration option when it
+     * is SORTED, and scans the instances of the object class otherwise.
+     *
+     * @param className The full HLA object class name
+     * @param attributeName The attribute name as defined in the object model
+     * @param fromValue The lowest attribute value to find, inclusive, or null for no lower bound
+     * @param toValue The highest attribute value to find, inclusive, or null for no upper bound
+     * @return A new set of the instance names with an attribute value in the range, in value order when indexed
+     * @throws FederateNotExecutionMember if invoked before {@link #run} or if connection to the federation is lost
+     * @throws NameNotFound if className is not the full classpath of a known HLA object class
+     */
+    public Set<String> findObjectInstancesInRange(String className, String attributeName, String fromValue,
+            String toValue) throws FederateNotExecutionMember, NameNotFound {
+        try {
+            return objectStates.findRange(rtiAmb.getObjectClassHandle(className), attributeName, fromValue, toValue);
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    private boolean enqueue(SendQueue.Message message) {
+        // the thread that drains the queue cannot wait for space
+        boolean isQueued = sendQueue.offer(message, Thread.currentThread() != runThread);
+        if (!isQueued) {
+            log.debug("send queue rejected message for {}", message.getName());
+        }
+        return isQueued;
+    }
+
+    // sends the messages queued before this call; messages queued during this call wait for the next drain
+    private void drainSendQueue()
+            throws FederateNotExecutionMember {
+        long droppedCount = sendQueue.takeDroppedCount();
+        if (droppedCount > 0) {
+            log.warn("send queue discarded " + droppedCount + " messages");
+        }
+        if (sendQueue.isEmpty()) {
+            return;
+        }
+        int count = sendQueue.size();
+        for (int i = 0; i < count; i++) {
+            SendQueue.Message message = sendQueue.poll();
+            if (message == null) {
+                break;
+            }
+            try {
+                if (message.isInteraction()) {
+                    if (message.isTimestamped()) {
+                        sendInteraction(message.getName(), message.getValues(), message.getTimestamp());
+                    } else {
+                        sendInteraction(message.getName(), message.getValues());
+                    }
+                } else {
+                    if (message.isTimestamped()) {
+                        updateObject(message.getName(), message.getValues(), message.getTimestamp());
+                    } else {
+                        updateObject(message.getName(), message.getValues());
+                    }
+                }
+            } catch (NameNotFound | InteractionClassNotPublished | ObjectNotKnown | AttributeNotOwned
+                    | InvalidFederationTime e) {
+                log.warn("dropped queued message for " + message.getName(), e);
+            }
+        }
+    }
+
+    private void checkTrackingChanges() {
+        if (!objectStates.isTrackingChanges()) {
+            throw new IllegalStateException("trackObjectChanges is not enabled");
+        }
+    }
+
+    private void checkOwner(GatewayFederate owner) {
+        if (owner != this) {
+            throw new IllegalArgumentException("template was prepared by a different gateway federate");
+        }
+    }
+
+    private static DeltaUpdateFilter createDeltaFilter(GatewayFederateConfig configuration) {
+        if (!configuration.getUseDeltaUpdates()) {
+            return null;
+        }
+        log.info("object updates will only send changed attributes");
+        if (configuration.getFullUpdateInterval() > 0) {
+            log.info("object updates will send all attributes every " + configuration.getFullUpdateInterval()
+                    + " logical time steps");
+        }
+        return new DeltaUpdateFilter(configuration.getFullUpdateInterval());
+    }
+
+    private static UpdateRateThrottle createUpdateThrottle(GatewayFederateConfig configuration) {
+        if (configuration.getUpdateThrottleMode() == GatewayFederateConfig.ThrottleMode.NONE) {
+            return null;
+        }
+        log.info("object updates will be limited to the FOM update rates in " + configuration.getUpdateThrottleMode());
+        return new UpdateRateThrottle();
+    }
+
+    private static UpdateCombiner createUpdateCombiner(GatewayFederateConfig configuration) {
+        if (!configuration.getCombineUpdates()) {
+            return null;
+        }
+        log.info("object updates will be combined per instance and sent before each time advance request");
+        return new UpdateCombiner();
+    }
+
+    private static InteractionPacer createInteractionPacer(GatewayFederateConfig configuration) {
+        if (configuration.getInteractionPacingMode() == GatewayFederateConfig.ThrottleMode.NONE
+                || configuration.getInteractionRateLimits() == null
+                || configuration.getInteractionRateLimits().isEmpty()) {
+            return null;
+        }
+        log.info("interactions will be rate limited in " + configuration.getInteractionPacingMode());
+        return new InteractionPacer();
+    }
+
+    private ObjectStateStore createObjectStateStore(GatewayFederateConfig configuration) {
+        ObjectStateTable table;
+        if (configuration.getObjectStateLayout() == GatewayFederateConfig.StateLayout.COLUMNAR) {
+            log.info("object state will be stored in columns per object class");
+            table = new ColumnarObjectStateTable(this::getStateAttributeNames);
+        } else {
+            table = new MapObjectStateTable(valueCodec);
+        }
+        if (configuration.getMaxObjectInstances() > 0 || configuration.getMaxObjectStateBytes() > 0
+                || configuration.getObjectIdleTimeoutMs() > 0) {
+            log.info(String.format("state of discovered objects limited to %d instances, %d bytes, and %d ms idle",
+                    configuration.getMaxObjectInstances(), configuration.getMaxObjectStateBytes(),
+                    configuration.getObjectIdleTimeoutMs()));
+        }
+        ChangeIndex changeIndex = null;
+        if (configuration.getTrackObjectChanges()) {
+            log.info("object state changes will be indexed by version");
+            changeIndex = new ChangeIndex();
+        }
+        Map<String, Map<String, GatewayFederateConfig.IndexType>> attributeIndexes =
+                configuration.getObjectAttributeIndexes();
+        if (attributeIndexes == null) {
+            attributeIndexes = Collections.emptyMap();
+        }
+        for (Map.Entry<String, Map<String, GatewayFederateConfig.IndexType>> entry : attributeIndexes.entrySet()) {
+            log.info("object instances of " + entry.getKey() + " will be indexed by " + entry.getValue());
+        }
+        ObjectIndex index = new ObjectIndex(this::getStateClassName, attributeIndexes);
+        ObjectStateStore store = new ObjectStateStore(table, index, changeIndex,
+                configuration.getMaxObjectInstances(), configuration.getMaxObjectStateBytes(),
+                TimeUnit.MILLISECONDS.toNanos(configuration.getObjectIdleTimeoutMs()));
+        if (configuration.getPublishStateSnapshots()) {
+            log.info("object state snapshots will be published at the start of each time step");
+            store.setSnapshotBuilder(new ObjectStateSnapshotBuilder(this::getStateClassName));
+        }
+        return store;
+    }
+
+    private String getStateClassName(int classHandle) {
+        try {
+            return getObjectClassName(classHandle);
+        } catch (ObjectClassNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (FederateNotExecutionMember | RTIinternalError e) {
+            // only used while the object state is updated during the federate life cycle
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    // the columns of the columnar object state table; attributes missing from the object model are added on use
+    private List<String> getStateAttributeNames(int classHandle) {
+        try {
+            ObjectClassType object = objectModel.getObject(getObjectClassName(classHandle));
+            if (object == null) {
+                return Collections.emptyList();
+            }
+            return objectModel.getAttributes(object).stream().
+                    map(x -> x.getName().getValue()).
+                    collect(Collectors.toList());
+        } catch (ObjectClassNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (FederateNotExecutionMember | RTIinternalError e) {
+            // only used while the object state is updated during the federate life cycle
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    private static SendQueue createSendQueue(GatewayFederateConfig configuration) {
+        log.info("send queue capacity " + configuration.getSendQueueCapacity() + " with policy "
+                + configuration.getSendQueuePolicy());
+        return new SendQueue(configuration.getSendQueueCapacity(), configuration.getSendQueuePolicy());
+    }
+
+    private static ValueCodec createValueCodec(GatewayFederateConfig configuration) {
+        Charset charset;
+        switch (configuration.getValueEncoding()) {
+            case ASCII:
+                charset = StandardCharsets.US_ASCII;
+                break;
+            case UTF_16:
+                charset = StandardCharsets.UTF_16BE;
+                break;
+            case UTF_8:
+            default:
+                charset = StandardCharsets.UTF_8;
+                break;
+        }
+        ValueCodec valueCodec = new ValueCodec(charset, configuration.getNullTerminatedValues());
+        log.info("using " + valueCodec.toString());
+        return valueCodec;
+    }
+
+    private static FederateAmbassador createFederateAmbassador(GatewayFederateConfig configuration,
+            ValueCodec valueCodec) {
+        FederateAmbassador federateAmbassador = new FederateAmbassador();
+        federateAmbassador.setValueCodec(valueCodec);
+        if (configuration.getConflationMode() != GatewayFederateConfig.ConflationMode.NONE) {
+            log.info("object reflections will be conflated per " + configuration.getConflationMode());
+            federateAmbassador.setConflateReflections(true);
+        }
+        return federateAmbassador;
+    }
+
+    private static RawGatewayCallback asRawCallback(GatewayCallback callback) {
+        if (callback instanceof RawGatewayCallback) {
+            log.info("received values will be delivered as raw bytes");
+            return (RawGatewayCallback) callback;
+        }
+        return null;
+    }
+
+    private static BatchGatewayCallback asBatchCallback(GatewayCallback callback) {
+        if (callback instanceof BatchGatewayCallback) {
+            if (callback instanceof RawGatewayCallback) {
+                throw new IllegalArgumentException("callback cannot implement both raw and batch delivery");
+            }
+            log.info("received messages will be delivered in batches");
+            return (BatchGatewayCallback) callback;
+        }
+        return null;
+    }
+
+    private PartitionedDispatcher createDispatcher() {
+        if (configuration.getDispatchThreads() < 1) {
+            return null;
+        }
+        if (rawCallback != null || batchCallback != null) {
+            log.warn("dispatchThreads ignored for raw and batch callbacks");
+            return null;
+        }
+        if (receivePipeline != null) {
+            log.warn("dispatchThreads ignored when using the receive pipeline");
+            return null;
+        }
+        return new PartitionedDispatcher(configuration.getDispatchThreads());
+    }
+
+    private ReceivePipeline createReceivePipeline() {
+        if (!configuration.getUseReceivePipeline()) {
+            return null;
+        }
+        if (rawCallback != null || batchCallback != null) {
+            log.warn("useReceivePipeline ignored for raw and batch callbacks");
+            return null;
+        }
+        ReceivePipeline.CompletionHandler completionHandler = new ReceivePipeline.CompletionHandler() {
+            @Override
+            public void interactionCompleted(Interaction interaction) {
+                fedAmb.recycle(interaction);
+            }
+
+            @Override
+            public void objectReflectionCompleted(ObjectReflection objectReflection) {
+                updateObjectState(objectReflection);
+                fedAmb.recycle(objectReflection);
+            }
+        };
+        ReceivePipeline.Delivery delivery = new ReceivePipeline.Delivery() {
+            @Override
+            public void deliverInteraction(Double timeStep, int classHandle, String className,
+                    Map<String, String> parameters) {
+                GatewayFederate.this.deliverInteraction(timeStep, classHandle, className, parameters);
+            }
+
+            @Override
+            public void deliverObject(Double timeStep, int classHandle, String className, String instanceName,
+                    Map<String, String> attributes) {
+                GatewayFederate.this.deliverObject(timeStep, classHandle, className, instanceName, attributes);
+            }
+        };
+        return new ReceivePipeline(
+                configuration.getReceivePipelineCapacity(), nameCache, delivery, completionHandler);
+    }
+
+    private void awaitDispatchedCallbacks() {
+        if (dispatcher != null) {
+            dispatcher.awaitCompletion();
+        }
+        if (receivePipeline != null) {
+            receivePipeline.awaitCompletion();
         }
-        return null;
     }
 
     private boolean isExitCondition() {
@@ -660,9 +1942,11 @@ public class GatewayFederate {
         try {
             for (InteractionClassType interaction : objectModel.getPublishedInteractions()) {
                 publishInteraction(objectModel.getClassPath(interaction));
+                getPublishedInteraction(objectModel.getClassPath(interaction));
             }
             for (InteractionClassType interaction : objectModel.getSubscribedInteractions()) {
                 subscribeInteraction(objectModel.getClassPath(interaction));
+                cacheInteractionNames(interaction);
             }
             for (ObjectClassType object : objectModel.getPublishedObjects()) {
                 Set<String> attributeNames = objectModel.getPublishedAttributes(object).stream().
@@ -675,6 +1959,7 @@ public class GatewayFederate {
                         map(x -> x.getName().getValue()).
                         collect(Collectors.toSet());
                 subscribeObject(objectModel.getClassPath(object), attributeNames.toArray(new String[0]));
+                cacheObjectNames(object, attributeNames);
             }
         } catch (NameNotFound e) {
             throw new RTIAmbassadorException("invalid object model", e);
@@ -754,6 +2039,50 @@ public class GatewayFederate {
         }
     }
 
+    private void cacheInteractionNames(InteractionClassType interaction)
+            throws NameNotFound, FederateNotExecutionMember {
+        final String classPath = objectModel.getClassPath(interaction);
+        try {
+            int classHandle = rtiAmb.getInteractionClassHandle(classPath);
+            nameCache.putInteractionClass(classHandle, classPath);
+            handlerRegistry.addInteractionClass(classHandle, interaction);
+            if (classPath.equals(ObjectModel.SIMULATION_END)) {
+                simulationEndHandle = classHandle;
+            }
+            for (ParameterType parameter : objectModel.getParameters(interaction)) {
+                String parameterName = parameter.getName().getValue();
+                int parameterHandle = rtiAmb.getParameterHandle(parameterName, classHandle);
+                nameCache.putParameter(classHandle, parameterHandle, parameterName);
+            }
+            log.debug("cached handles for {} ({})", classPath, classHandle);
+        } catch (InteractionClassNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
+    private void cacheObjectNames(ObjectClassType object, Set<String> attributeNames)
+            throws NameNotFound, FederateNotExecutionMember {
+        final String classPath = objectModel.getClassPath(object);
+        try {
+            int classHandle = rtiAmb.getObjectClassHandle(classPath);
+            nameCache.putObjectClass(classHandle, classPath);
+            handlerRegistry.addObjectClass(classHandle, object);
+            for (String attributeName : attributeNames) {
+                int attributeHandle = rtiAmb.getAttributeHandle(attributeName, classHandle);
+                nameCache.putAttribute(classHandle, attributeHandle, attributeName);
+            }
+            log.debug("cached handles for {} ({})", classPath, classHandle);
+        } catch (ObjectClassNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
+        }
+    }
+
     private AttributeHandleSet convertToAttributeHandleSet(int classHandle, String... attributes)
             throws ObjectClassNotDefined, NameNotFound, FederateNotExecutionMember, RTIinternalError {
         log.trace("convertToAttributeHandleSet " + classHandle + " " + Arrays.toString(attributes));
@@ -828,8 +2157,16 @@ public class GatewayFederate {
 
     private void advanceLogicalTime()
             throws TimeAdvanceAlreadyInProgress, FederateNotExecutionMember {
+        awaitDispatchedCallbacks(); // for callbacks dispatched during doTimeStep
         lastRequestedTime = fedAmb.getLogicalTime() + configuration.getStepSize();
         log.info("advancing logical time to " + lastRequestedTime);
+        drainSendQueue();
+        flushCombinedUpdates();
+        releaseThrottledUpdates();
+        releasePacedInteractions();
+        if (deltaFilter != null) {
+            deltaFilter.advanceStep();
+        }
         try {
             fedAmb.setTimeAdvancing();
             rtiAmb.timeAdvanceRequest(new DoubleTime(lastRequestedTime));
@@ -863,10 +2200,29 @@ public class GatewayFederate {
 
     private void handleSubscriptions()
             throws FederateNotExecutionMember {
+        if (receivePipeline != null) {
+            receivePipeline.processCompleted();
+        }
         handleReceivedInteractions();
         handleDiscoveredObjectInstances();
         handleReceivedObjectReflections();
         handleRemovedObjectInstances();
+        deliverReceivedBatch();
+    }
+
+    private void deliverReceivedBatch() {
+        if (batchCallback == null || receivedBatch.isEmpty()) {
+            return;
+        }
+        if (configuration.getBatchMode() == GatewayFederateConfig.BatchMode.TIME_STEP
+                && hasTimeStarted && fedAmb.isTimeAdvancing()) {
+            return; // the batch is delivered once the time advance completes
+        }
+        try {
+            batchCallback.receiveBatch(lastRequestedTime, receivedBatch);
+        } finally {
+            receivedBatch.clear();
+        }
     }
 
     private void handleReceivedInteractions()
@@ -875,11 +2231,37 @@ public class GatewayFederate {
             Interaction receivedInteraction;
             while ((receivedInteraction = fedAmb.nextInteraction()) != null) {
                 int classHandle = receivedInteraction.getClassHandle();
-                String interactionName = rtiAmb.getInteractionClassName(classHandle);
-                Map<String, String> parameters = convertToMap(receivedInteraction);
-                callback.receiveInteraction(lastRequestedTime, interactionName, parameters);
+                String interactionName = getInteractionClassName(classHandle);
+                if (rawCallback != null) {
+                    InteractionHandler[] handlers = handlerRegistry.getInteractionHandlers(classHandle);
+                    if (handlers.length > 0) {
+                        invokeHandlers(handlers, lastRequestedTime, interactionName, convertToMap(receivedInteraction));
+                    }
+                    fillRawValues(receivedInteraction);
+                    rawCallback.receiveRawInteraction(lastRequestedTime, classHandle, interactionName, rawValues);
+                } else if (batchCallback != null) {
+                    Map<String, String> parameters = convertToMap(receivedInteraction);
+                    invokeHandlers(handlerRegistry.getInteractionHandlers(classHandle),
+                            lastRequestedTime, interactionName, parameters);
+                    receivedBatch.addInteraction(interactionName, parameters);
+                } else if (receivePipeline != null) {
+                    cacheParameterNames(receivedInteraction);
+                    receivePipeline.submit(lastRequestedTime, interactionName, receivedInteraction);
+                } else if (dispatcher != null) {
+                    final Double timeStep = lastRequestedTime;
+                    final Map<String, String> parameters = convertToMap(receivedInteraction);
+                    dispatcher.dispatch(classHandle,
+                            () -> deliverInteraction(timeStep, classHandle, interactionName, parameters));
+                } else {
+                    Map<String, String> parameters = convertToMap(receivedInteraction);
+                    deliverInteraction(lastRequestedTime, classHandle, interactionName, parameters);
+                }
+
+                if (receivePipeline == null) {
+                    fedAmb.recycle(receivedInteraction); // otherwise recycled when the pipeline completes
+                }
 
-                if (interactionName.equals(ObjectModel.SIMULATION_END)) {
+                if (classHandle == simulationEndHandle) {
                     receivedSimEnd = true;
                     log.info("received " + ObjectModel.SIMULATION_END);
                 }
@@ -895,15 +2277,43 @@ public class GatewayFederate {
 
     private void handleReceivedObjectReflections()
             throws FederateNotExecutionMember {
+        if (isHoldingReflections()) {
+            return; // the reflections are merged until the time advance completes
+        }
         try {
             ObjectReflection receivedObjectReflection;
             while ((receivedObjectReflection = fedAmb.nextObjectReflection()) != null) {
                 int classHandle = receivedObjectReflection.getClassHandle();
-                String className = rtiAmb.getObjectClassName(classHandle);
+                String className = getObjectClassName(classHandle);
                 String instanceName = receivedObjectReflection.getInstanceName();
-                Map<String, String> attributes = convertToMap(classHandle, receivedObjectReflection);
-                updateObjectState(instanceName, attributes);
-                callback.receiveObject(lastRequestedTime, className, instanceName, attributes);
+                if (rawCallback != null) {
+                    ObjectHandler[] handlers = handlerRegistry.getObjectHandlers(classHandle);
+                    if (handlers.length > 0) {
+                        invokeHandlers(handlers, lastRequestedTime, className, instanceName,
+                                convertToMap(classHandle, receivedObjectReflection));
+                    }
+                    fillRawValues(classHandle, receivedObjectReflection);
+                    rawCallback.receiveRawObject(lastRequestedTime, classHandle, className, instanceName, rawValues);
+                } else if (receivePipeline != null) {
+                    cacheAttributeNames(classHandle, receivedObjectReflection);
+                    receivePipeline.submit(lastRequestedTime, className, receivedObjectReflection);
+                    continue; // recycled when the pipeline completes
+                } else {
+                    Map<String, String> attributes = convertToMap(classHandle, receivedObjectReflection);
+                    updateObjectState(receivedObjectReflection.getInstanceHandle(), classHandle, instanceName, attributes);
+                    if (batchCallback != null) {
+                        invokeHandlers(handlerRegistry.getObjectHandlers(classHandle),
+                                lastRequestedTime, className, instanceName, attributes);
+                        receivedBatch.addObject(className, instanceName, attributes);
+                    } else if (dispatcher != null) {
+                        final Double timeStep = lastRequestedTime;
+                        dispatcher.dispatch(instanceName.hashCode(),
+                                () -> deliverObject(timeStep, classHandle, className, instanceName, attributes));
+                    } else {
+                        deliverObject(lastRequestedTime, classHandle, className, instanceName, attributes);
+                    }
+                }
+                fedAmb.recycle(receivedObjectReflection);
             }
         } catch (ObjectClassNotDefined | AttributeNotDefined e) {
             // classHandle retrieved from the RTI ambassador
@@ -914,6 +2324,37 @@ public class GatewayFederate {
         } 
     }
 
+    private void deliverInteraction(Double timeStep, int classHandle, String className,
+            Map<String, String> parameters) {
+        invokeHandlers(handlerRegistry.getInteractionHandlers(classHandle), timeStep, className, parameters);
+        callback.receiveInteraction(timeStep, className, parameters);
+    }
+
+    private void deliverObject(Double timeStep, int classHandle, String className, String instanceName,
+            Map<String, String> attributes) {
+        invokeHandlers(handlerRegistry.getObjectHandlers(classHandle), timeStep, className, instanceName, attributes);
+        callback.receiveObject(timeStep, className, instanceName, attributes);
+    }
+
+    private static void invokeHandlers(InteractionHandler[] handlers, Double timeStep, String className,
+            Map<String, String> parameters) {
+        for (InteractionHandler handler : handlers) {
+            handler.receiveInteraction(timeStep, className, parameters);
+        }
+    }
+
+    private static void invokeHandlers(ObjectHandler[] handlers, Double timeStep, String className,
+            String instanceName, Map<String, String> attributes) {
+        for (ObjectHandler handler : handlers) {
+            handler.receiveObject(timeStep, className, instanceName, attributes);
+        }
+    }
+
+    private boolean isHoldingReflections() {
+        return configuration.getConflationMode() == GatewayFederateConfig.ConflationMode.TIME_STEP
+                && hasTimeStarted && fedAmb.isTimeAdvancing();
+    }
+
     private void handleDiscoveredObjectInstances()
             throws FederateNotExecutionMember {
         String instanceName;
@@ -933,7 +2374,8 @@ public class GatewayFederate {
                     continue;
                 }
                 classHandle = rtiAmb.getObjectClass(instanceHandle);
-                className = rtiAmb.getObjectClassName(classHandle);
+                className = getObjectClassName(classHandle);
+                objectStates.addDiscovered(instanceName, classHandle, System.nanoTime());
                 
                 if (className.startsWith(ObjectModel.OBJECT_MOM + ".")) {
                     log.info("discovered RTI managed object {} ({})", instanceName, className);
@@ -970,77 +2412,528 @@ public class GatewayFederate {
         String removedObjectName;
         while ((removedObjectName = fedAmb.nextRemovedObjectName()) != null) {
             log.info("no longer receiving updates for object " + removedObjectName);
+            objectStates.remove(removedObjectName);
         }
+        objectStates.evictIdle(System.nanoTime());
     }
 
+    // the values are decoded when they are read from the map
     private Map<String, String> convertToMap(Interaction receivedInteraction)
             throws InteractionClassNotDefined, InteractionParameterNotDefined, FederateNotExecutionMember, RTIinternalError {
         int interactionHandle = receivedInteraction.getClassHandle();
-        Map<String, String> parameters = new HashMap<String, String>();
+        ReceivedValueMap parameters = new ReceivedValueMap(valueCodec, receivedInteraction.getParameterCount());
         for (int i = 0; i < receivedInteraction.getParameterCount(); i++) {
             int parameterHandle = receivedInteraction.getParameterHandle(i);
-            String parameterName = rtiAmb.getParameterName(parameterHandle, interactionHandle);
-            String parameterValue = receivedInteraction.getParameterValue(i);
-            parameters.put(parameterName, parameterValue);
+            String parameterName = getParameterName(interactionHandle, parameterHandle);
+            parameters.add(parameterName, receivedInteraction.getParameterBytes(i),
+                    receivedInteraction.getCachedParameterValue(i));
         }
         return parameters;
     }
 
+    // the values are decoded when they are read from the map
     private Map<String, String> convertToMap(int objectClassHandle, ObjectReflection receivedObjectReflection)
             throws ObjectClassNotDefined, AttributeNotDefined, FederateNotExecutionMember, RTIinternalError {
-        Map<String, String> attributes = new HashMap<String, String>();
+        ReceivedValueMap attributes =
+                new ReceivedValueMap(valueCodec, receivedObjectReflection.getAttributeCount());
         for (int i = 0; i < receivedObjectReflection.getAttributeCount(); i++) {
             int attributeHandle = receivedObjectReflection.getAttributeHandle(i);
-            String attributeName = rtiAmb.getAttributeName(attributeHandle, objectClassHandle);
-            String attributeValue = receivedObjectReflection.getAttributeValue(i);
-            attributes.put(attributeName, attributeValue);
+            String attributeName = getAttributeName(objectClassHandle, attributeHandle);
+            attributes.add(attributeName, receivedObjectReflection.getAttributeBytes(i),
+                    receivedObjectReflection.getCachedAttributeValue(i));
         }
         return attributes;
     }
 
-    private Map<String, String> addRootParameters(String className, Map<String, String> parameters) {
-        log.trace("addRootParameters " + className + " " + parameters.toString());
-        Map<String, String> modifiedParameters = new HashMap<String, String>(parameters);
+    private void cacheParameterNames(Interaction receivedInteraction)
+            throws InteractionClassNotDefined, InteractionParameterNotDefined, FederateNotExecutionMember, RTIinternalError {
+        for (int i = 0; i < receivedInteraction.getParameterCount(); i++) {
+            getParameterName(receivedInteraction.getClassHandle(), receivedInteraction.getParameterHandle(i));
+        }
+    }
+
+    private void cacheAttributeNames(int objectClassHandle, ObjectReflection receivedObjectReflection)
+            throws ObjectClassNotDefined, AttributeNotDefined, FederateNotExecutionMember, RTIinternalError {
+        for (int i = 0; i < receivedObjectReflection.getAttributeCount(); i++) {
+            getAttributeName(objectClassHandle, receivedObjectReflection.getAttributeHandle(i));
+        }
+    }
+
+    private void fillRawValues(Interaction receivedInteraction)
+            throws InteractionClassNotDefined, InteractionParameterNotDefined, FederateNotExecutionMember, RTIinternalError {
+        int interactionHandle = receivedInteraction.getClassHandle();
+        rawValues.clear();
+        for (int i = 0; i < receivedInteraction.getParameterCount(); i++) {
+            int parameterHandle = receivedInteraction.getParameterHandle(i);
+            String parameterName = getParameterName(interactionHandle, parameterHandle);
+            rawValues.add(parameterHandle, parameterName, receivedInteraction.getParameterBytes(i));
+        }
+    }
+
+    private void fillRawValues(int objectClassHandle, ObjectReflection receivedObjectReflection)
+            throws ObjectClassNotDefined, AttributeNotDefined, FederateNotExecutionMember, RTIinternalError {
+        rawValues.clear();
+        for (int i = 0; i < receivedObjectReflection.getAttributeCount(); i++) {
+            int attributeHandle = receivedObjectReflection.getAttributeHandle(i);
+            String attributeName = getAttributeName(objectClassHandle, attributeHandle);
+            rawValues.add(attributeHandle, attributeName, receivedObjectReflection.getAttributeBytes(i));
+        }
+    }
+
+    // the following name lookups fall back to the RTI ambassador for handles missing from the cache
+
+    private String getInteractionClassName(int classHandle)
+            throws InteractionClassNotDefined, FederateNotExecutionMember, RTIinternalError {
+        String className = nameCache.getInteractionClassName(classHandle);
+        if (className == null) {
+            className = rtiAmb.getInteractionClassName(classHandle);
+            nameCache.putInteractionClass(classHandle, className);
+            log.debug("cached name for interaction class {} ({})", className, classHandle);
+        }
+        return className;
+    }
+
+    private String getParameterName(int classHandle, int parameterHandle)
+            throws InteractionClassNotDefined, InteractionParameterNotDefined, FederateNotExecutionMember,
+            RTIinternalError {
+        String parameterName = nameCache.getParameterName(classHandle, parameterHandle);
+        if (parameterName == null) {
+            parameterName = rtiAmb.getParameterName(parameterHandle, classHandle);
+            nameCache.putParameter(classHandle, parameterHandle, parameterName);
+        }
+        return parameterName;
+    }
+
+    private String getObjectClassName(int classHandle)
+            throws ObjectClassNotDefined, FederateNotExecutionMember, RTIinternalError {
+        String className = nameCache.getObjectClassName(classHandle);
+        if (className == null) {
+            className = rtiAmb.getObjectClassName(classHandle);
+            nameCache.putObjectClass(classHandle, className);
+            log.debug("cached name for object class {} ({})", className, classHandle);
+        }
+        return className;
+    }
+
+    private String getAttributeName(int classHandle, int attributeHandle)
+            throws ObjectClassNotDefined, AttributeNotDefined, FederateNotExecutionMember, RTIinternalError {
+        String attributeName = nameCache.getAttributeName(classHandle, attributeHandle);
+        if (attributeName == null) {
+            attributeName = rtiAmb.getAttributeName(attributeHandle, classHandle);
+            nameCache.putAttribute(classHandle, attributeHandle, attributeName);
+        }
+        return attributeName;
+    }
+
+    // the values used for C2WInteractionRoot parameters that are not set by the gateway application
+    private Map<String, String> getRootParameterDefaults(String className) {
+        Map<String, String> defaults = new LinkedHashMap<String, String>();
         if (className.equals(ObjectModel.INTERACTION_CPSWT) || className.startsWith(ObjectModel.INTERACTION_CPSWT + ".")) {
-            modifiedParameters.putIfAbsent("sourceFed", configuration.getFederateName());
-            modifiedParameters.putIfAbsent("originFed", configuration.getFederateName());
-            modifiedParameters.putIfAbsent("federateFilter", "");
-            modifiedParameters.putIfAbsent("actualLogicalGenerationTime", Double.toString(0.0));
-            log.debug("added {} parameters to {}", ObjectModel.INTERACTION_CPSWT, className);
+            defaults.put("sourceFed", configuration.getFederateName());
+            defaults.put("originFed", configuration.getFederateName());
+            defaults.put("federateFilter", "");
+            defaults.put("actualLogicalGenerationTime", Double.toString(0.0));
+        }
+        return defaults;
+    }
+
+    private PublishedInteraction getPublishedInteraction(String className)
+            throws NameNotFound, FederateNotExecutionMember {
+        PublishedInteraction published = publishedInteractions.get(className);
+        if (published == null) {
+            published = createPublishedInteraction(className);
+            publishedInteractions.put(className, published);
+        }
+        return published;
+    }
+
+    private PublishedInteraction createPublishedInteraction(String className)
+            throws NameNotFound, FederateNotExecutionMember {
+        try {
+            int classHandle = rtiAmb.getInteractionClassHandle(className);
+            Map<String, String> defaults = getRootParameterDefaults(className);
+            String[] parameterNames = new String[defaults.size()];
+            int[] parameterHandles = new int[defaults.size()];
+            byte[][] parameterValues = new byte[defaults.size()][];
+            int i = 0;
+            for (Map.Entry<String, String> entry : defaults.entrySet()) {
+                parameterNames[i] = entry.getKey();
+                parameterHandles[i] = rtiAmb.getParameterHandle(entry.getKey(), classHandle);
+                parameterValues[i] = valueCodec.encode(entry.getValue());
+                i++;
+            }
+            if (!defaults.isEmpty()) {
+                log.debug("cached {} parameters for {}", ObjectModel.INTERACTION_CPSWT, className);
+            }
+            if (interactionPacer != null) {
+                GatewayFederateConfig.InteractionRateLimit limit =
+                        configuration.getInteractionRateLimits().get(className);
+                if (limit != null && limit.getRate() > 0) {
+                    interactionPacer.putClass(classHandle, className, limit);
+                    log.info("limited interactions of {} to {}", className, limit);
+                } else if (limit != null) {
+                    log.warn("ignored rate limit for {} without a positive rate", className);
+                }
+            }
+            return new PublishedInteraction(classHandle, parameterNames, parameterHandles, parameterValues);
+        } catch (InteractionClassNotDefined e) {
+            // classHandle retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (RTIinternalError e) {
+            throw new RTIAmbassadorException(e);
         }
-        return modifiedParameters;
     }
 
     private SuppliedParameters convertToSuppliedParameters(int classHandle, Map<String, String> parameters)
             throws FederateNotExecutionMember, InteractionClassNotDefined, NameNotFound, RTIinternalError {
-        log.trace("convertToSuppliedParameters " + classHandle + " " + parameters.toString());
+        log.trace("convertToSuppliedParameters {} {}", classHandle, parameters);
         SuppliedParameters suppliedParameters = RtiFactoryFactory.getRtiFactory().createSuppliedParameters();
         for (Map.Entry<String, String> entry : parameters.entrySet()) {
             int parameterHandle = rtiAmb.getParameterHandle(entry.getKey(), classHandle);
-            byte[] parameterValue = entry.getValue().getBytes(); // do we need to add \0 ?
+            byte[] parameterValue = valueCodec.encode(entry.getValue());
             suppliedParameters.add(parameterHandle, parameterValue);
         }
         return suppliedParameters;
     }
 
-    private SuppliedAttributes convertToSuppliedAttributes(int classHandle, Map<String, String> attributes)
+    // parameterHandles caches the handles resolved for the class during a batch
+    private SuppliedParameters convertToSuppliedParameters(int classHandle, Map<String, String> parameters,
+            Map<String, Integer> parameterHandles)
+            throws FederateNotExecutionMember, InteractionClassNotDefined, NameNotFound, RTIinternalError {
+        SuppliedParameters suppliedParameters = RtiFactoryFactory.getRtiFactory().createSuppliedParameters();
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            Integer parameterHandle = parameterHandles.get(entry.getKey());
+            if (parameterHandle == null) {
+                parameterHandle = rtiAmb.getParameterHandle(entry.getKey(), classHandle);
+                parameterHandles.put(entry.getKey(), parameterHandle);
+            }
+            suppliedParameters.add(parameterHandle, valueCodec.encode(entry.getValue()));
+        }
+        return suppliedParameters;
+    }
+
+    // attributeHandles caches the handles resolved for each class handle during a batch
+    private AttributeUpdate toAttributeUpdate(String instanceName, int instanceHandle, int classHandle,
+            Map<String, String> attributes, boolean isTimestamped, Map<Integer, Map<String, Integer>> attributeHandles)
+            throws FederateNotExecutionMember, ObjectClassNotDefined, NameNotFound, RTIinternalError {
+        Map<String, Integer> classAttributeHandles = attributeHandles.get(classHandle);
+        if (classAttributeHandles == null) {
+            classAttributeHandles = new HashMap<String, Integer>();
+            attributeHandles.put(classHandle, classAttributeHandles);
+        }
+        pendingUpdate.reset(instanceName, instanceHandle, classHandle, isTimestamped);
+        for (Map.Entry<String, String> entry : attributes.entrySet()) {
+            Integer attributeHandle = classAttributeHandles.get(entry.getKey());
+            if (attributeHandle == null) {
+                attributeHandle = rtiAmb.getAttributeHandle(entry.getKey(), classHandle);
+                classAttributeHandles.put(entry.getKey(), attributeHandle);
+            }
+            pendingUpdate.add(attributeHandle, entry.getKey(), entry.getValue(), null);
+        }
+        return pendingUpdate;
+    }
+
+    private AttributeUpdate toAttributeUpdate(String instanceName, int instanceHandle, int classHandle,
+            Map<String, String> attributes, boolean isTimestamped)
             throws FederateNotExecutionMember, ObjectClassNotDefined, NameNotFound, RTIinternalError {
-        log.trace("convertToSuppliedAttributes " + classHandle + " " + attributes.toString());
-        SuppliedAttributes suppliedAttributes = RtiFactoryFactory.getRtiFactory().createSuppliedAttributes();
+        log.trace("toAttributeUpdate {} {}", classHandle, attributes);
+        pendingUpdate.reset(instanceName, instanceHandle, classHandle, isTimestamped);
         for (Map.Entry<String, String> entry : attributes.entrySet()) {
             int attributeHandle = rtiAmb.getAttributeHandle(entry.getKey(), classHandle);
-            byte[] attributeValue = entry.getValue().getBytes(); // do we need to add \0 ?
-            suppliedAttributes.add(attributeHandle, attributeValue);
+            pendingUpdate.add(attributeHandle, entry.getKey(), entry.getValue(), null);
+        }
+        return pendingUpdate;
+    }
+
+    // resolves the handles in the iteration order of attributeNames
+    private int[] getAttributeHandles(int classHandle, Set<String> attributeNames)
+            throws FederateNotExecutionMember, ObjectClassNotDefined, NameNotFound, RTIinternalError {
+        int[] attributeHandles = new int[attributeNames.size()];
+        int i = 0;
+        for (String attributeName : attributeNames) {
+            attributeHandles[i++] = rtiAmb.getAttributeHandle(attributeName, classHandle);
+        }
+        return attributeHandles;
+    }
+
+    // as getAttributeHandles, but takes the handles of the names in resolvedHandles and adds the handles it resolves
+    private int[] getAttributeHandles(int classHandle, Set<String> attributeNames, Map<String, Integer> resolvedHandles)
+            throws FederateNotExecutionMember, ObjectClassNotDefined, NameNotFound, RTIinternalError {
+        int[] attributeHandles = new int[attributeNames.size()];
+        int i = 0;
+        for (String attributeName : attributeNames) {
+            Integer attributeHandle = resolvedHandles.get(attributeName);
+            if (attributeHandle == null) {
+                attributeHandle = rtiAmb.getAttributeHandle(attributeName, classHandle);
+                resolvedHandles.put(attributeName, attributeHandle);
+            }
+            attributeHandles[i++] = attributeHandle;
+        }
+        return attributeHandles;
+    }
+
+    // tracks the state of a newly registered instance and sends its initial values, if any
+    // attributeHandles must be in the iteration order of initialAttributes
+    private void registerInitialState(String instanceName, int instanceHandle, int classHandle,
+            int[] attributeHandles, Map<String, String> initialAttributes)
+            throws ObjectNotKnown, AttributeNotDefined, AttributeNotOwned, InvalidFederationTime,
+            FederateNotExecutionMember, SaveInProgress, RestoreInProgress, RTIinternalError, ConcurrentAccessAttempted {
+        objectStates.putRegistered(instanceName, classHandle, attributeHandles.length);
+        if (initialAttributes.isEmpty()) {
+            return;
+        }
+        pendingUpdate.reset(instanceName, instanceHandle, classHandle, false);
+        int i = 0;
+        for (Map.Entry<String, String> entry : initialAttributes.entrySet()) {
+            pendingUpdate.add(attributeHandles[i++], entry.getKey(), entry.getValue(), null);
+        }
+        sendAttributeUpdate(pendingUpdate, null);
+    }
+
+    private AttributeUpdate toAttributeUpdate(ObjectUpdateTemplate template, boolean isTimestamped) {
+        pendingUpdate.reset(template.getInstanceName(), template.getInstanceHandle(), template.getClassHandle(),
+                isTimestamped);
+        template.getAttributes().copyTo(pendingUpdate);
+        return pendingUpdate;
+    }
+
+    // applies the delta filter and update rate throttle, then sends the remaining attributes
+    // time is null for a receive order update
+    private void sendAttributeUpdate(AttributeUpdate update, DoubleTime time)
+            throws ObjectNotKnown, AttributeNotDefined, AttributeNotOwned, InvalidFederationTime,
+            FederateNotExecutionMember, SaveInProgress, RestoreInProgress, RTIinternalError, ConcurrentAccessAttempted {
+        if (updateCombiner != null) {
+            // filtered and sent by flushCombinedUpdates
+            updateCombiner.add(update, time == null ? Double.NaN : time.getTime());
+            log.trace("combined update of {}", update.getInstanceName());
+            return;
+        }
+        filterAttributeUpdate(update, time == null ? Double.NaN : time.getTime());
+        if (update.isEmpty()) {
+            log.trace("skipped update of {} with no attributes to send", update.getInstanceName());
+            return;
+        }
+        transmitAttributeUpdate(update, time);
+    }
+
+    // timestamp is NaN for a receive order update
+    private void filterAttributeUpdate(AttributeUpdate update, double timestamp)
+            throws FederateNotExecutionMember, RTIinternalError {
+        if (deltaFilter != null && !deltaFilter.beginUpdate(update.getInstanceName())) {
+            deltaFilter.filter(update, objectStates.get(update.getInstanceName()), updateThrottle);
+        }
+        if (updateThrottle != null) {
+            if (!updateThrottle.hasClass(update.getClassHandle())) {
+                cacheUpdateRates(update.getClassHandle());
+            }
+            updateThrottle.filter(update, getThrottleTime(), timestamp);
+        }
+    }
+
+    // sends one update for each object instance updated since the last flush
+    private void flushCombinedUpdates()
+            throws FederateNotExecutionMember {
+        if (updateCombiner == null || updateCombiner.isEmpty()) {
+            return;
+        }
+        log.debug("sending {} combined object updates", updateCombiner.size());
+        try {
+            for (int i = 0; i < updateCombiner.size(); i++) {
+                AttributeUpdate update = updateCombiner.getUpdate(i);
+                double timestamp = updateCombiner.getTimestamp(i);
+                if (!update.isEmpty()) {
+                    filterAttributeUpdate(update, timestamp);
+                }
+                if (update.isEmpty()) {
+                    continue;
+                }
+                try {
+                    transmitAttributeUpdate(update, Double.isNaN(timestamp) ? null : new DoubleTime(timestamp));
+                } catch (ObjectNotKnown | AttributeNotOwned | InvalidFederationTime e) {
+                    log.warn("dropped combined update of " + update.getInstanceName(), e);
+                }
+            }
+        } catch (AttributeNotDefined e) {
+            // the update contains handles retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } finally {
+            updateCombiner.clear();
         }
-        return suppliedAttributes;
     }
 
-    private void updateObjectState(String instanceName, Map<String, String> attributes) {
-        log.trace("updateObjectState for {} with {}", instanceName, attributes.toString());
-        if (!objectInstances.containsKey(instanceName)) {
-            log.debug("tracking state for the new object instance {}", instanceName);
-            objectInstances.put(instanceName, new HashMap<String, String>());
+    private void transmitAttributeUpdate(AttributeUpdate update, DoubleTime time)
+            throws ObjectNotKnown, AttributeNotDefined, AttributeNotOwned, InvalidFederationTime,
+            FederateNotExecutionMember, SaveInProgress, RestoreInProgress, RTIinternalError, ConcurrentAccessAttempted {
+        SuppliedAttributes suppliedAttributes = update.toSuppliedAttributes();
+        if (time == null) {
+            rtiAmb.updateAttributeValues(update.getInstanceHandle(), suppliedAttributes, null);
+        } else {
+            rtiAmb.updateAttributeValues(update.getInstanceHandle(), suppliedAttributes, null, time);
+        }
+        updateObjectState(update);
+    }
+
+    private void cacheUpdateRates(int classHandle)
+            throws FederateNotExecutionMember, RTIinternalError {
+        try {
+            String className = getObjectClassName(classHandle);
+            ObjectClassType object = objectModel.getObject(className);
+            double[] intervals = null;
+            if (object != null) {
+                for (AttributeType attribute : objectModel.getAttributes(object)) {
+                    Double updateRate = objectModel.getUpdateRate(attribute);
+                    if (updateRate == null) {
+                        continue;
+                    }
+                    String attributeName = attribute.getName().getValue();
+                    int attributeHandle = rtiAmb.getAttributeHandle(attributeName, classHandle);
+                    if (intervals == null || attributeHandle >= intervals.length) {
+                        intervals = Arrays.copyOf(intervals == null ? new double[0] : intervals, attributeHandle + 1);
+                    }
+                    intervals[attributeHandle] = 1.0 / updateRate;
+                    log.debug("limited updates of {} {} to {} Hz", className, attributeName, updateRate);
+                }
+            }
+            updateThrottle.putClass(classHandle, intervals);
+        } catch (ObjectClassNotDefined | NameNotFound e) {
+            // classHandle retrieved from the RTI ambassador
+            // attribute names retrieved from the object model
+            throw new RTIAmbassadorException("unreachable code", e);
+        }
+    }
+
+    // sends the interaction unless its class is rate limited and the interaction was held or discarded
+    private void transmitInteraction(int classHandle, SuppliedParameters suppliedParameters, DoubleTime time)
+            throws FederateNotExecutionMember, InteractionClassNotDefined, InteractionClassNotPublished,
+            InteractionParameterNotDefined, InvalidFederationTime, SaveInProgress, RestoreInProgress,
+            RTIinternalError, ConcurrentAccessAttempted {
+        if (interactionPacer != null && interactionPacer.hasClass(classHandle)) {
+            double timestamp = time == null ? Double.NaN : time.getTime();
+            if (!interactionPacer.acquire(classHandle, suppliedParameters, timestamp, getPacingTime())) {
+                log.trace("paced interaction of class {}", classHandle);
+                return;
+            }
+        }
+        if (time == null) {
+            rtiAmb.sendInteraction(classHandle, suppliedParameters, null);
+        } else {
+            rtiAmb.sendInteraction(classHandle, suppliedParameters, null, time);
+        }
+    }
+
+    private double getPacingTime() {
+        if (configuration.getInteractionPacingMode() == GatewayFederateConfig.ThrottleMode.WALL_CLOCK) {
+            return System.nanoTime() / 1e9;
+        }
+        return fedAmb.getLogicalTime();
+    }
+
+    // sends the held interactions allowed by the rate limit of their class
+    // a held timestamp that is no longer valid is moved to the earliest valid timestamp
+    private void releasePacedInteractions()
+            throws FederateNotExecutionMember {
+        if (interactionPacer == null || !interactionPacer.hasQueued()) {
+            return;
+        }
+        interactionPacer.release(getPacingTime(), releasedInteractions);
+        try {
+            for (InteractionPacer.PacedInteraction interaction : releasedInteractions) {
+                log.trace("releasing paced interaction of class {}", interaction.getClassHandle());
+                try {
+                    if (interaction.isTimestamped()) {
+                        double timestamp = Math.max(interaction.getTimestamp(), getTimeStamp());
+                        rtiAmb.sendInteraction(interaction.getClassHandle(), interaction.getParameters(), null,
+                                new DoubleTime(timestamp));
+                    } else {
+                        rtiAmb.sendInteraction(interaction.getClassHandle(), interaction.getParameters(), null);
+                    }
+                } catch (InteractionClassNotPublished | InvalidFederationTime e) {
+                    log.warn("dropped paced interaction of class " + interaction.getClassHandle(), e);
+                }
+            }
+        } catch (InteractionClassNotDefined | InteractionParameterNotDefined e) {
+            // the interaction was accepted by transmitInteraction with handles retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } finally {
+            releasedInteractions.clear();
+        }
+    }
+
+    private double getThrottleTime() {
+        if (configuration.getUpdateThrottleMode() == GatewayFederateConfig.ThrottleMode.WALL_CLOCK) {
+            return System.nanoTime() / 1e9;
+        }
+        return fedAmb.getLogicalTime();
+    }
+
+    // sends the held attribute values whose minimum update interval has ended
+    private void releaseThrottledUpdates()
+            throws FederateNotExecutionMember {
+        if (updateThrottle == null || !updateThrottle.hasHeldValues()) {
+            return;
+        }
+        updateThrottle.releaseHeldValues(getThrottleTime(), releasedUpdates);
+        try {
+            for (AttributeUpdate update : releasedUpdates) {
+                log.trace("releasing throttled update {}", update);
+                try {
+                    // the original timestamp can be earlier than the current lookahead allows
+                    DoubleTime time = update.isTimestamped()
+                            ? new DoubleTime(Math.max(update.getTimestamp(), getTimeStamp()))
+                            : null;
+                    transmitAttributeUpdate(update, time);
+                } catch (ObjectNotKnown | AttributeNotOwned | InvalidFederationTime e) {
+                    log.warn("dropped throttled update of " + update.getInstanceName(), e);
+                }
+            }
+        } catch (AttributeNotDefined e) {
+            // the update contains handles retrieved from the RTI ambassador
+            throw new RTIAmbassadorException("unreachable code", e);
+        } catch (SaveInProgress | RestoreInProgress e) {
+            throw new UnsupportedServiceException("for federation save/restore", e);
+        } catch (RTIinternalError | ConcurrentAccessAttempted e) {
+            throw new RTIAmbassadorException(e);
+        } finally {
+            releasedUpdates.clear();
+        }
+    }
+
+    // the attribute names must be in the name cache before this call
+    // the values decoded by the receive pipeline are cached in the object reflection, and the others stay encoded
+    private void updateObjectState(ObjectReflection objectReflection) {
+        ReceivedValueMap attributes = new ReceivedValueMap(valueCodec, objectReflection.getAttributeCount());
+        for (int i = 0; i < objectReflection.getAttributeCount(); i++) {
+            String attributeName = nameCache.getAttributeName(
+                    objectReflection.getClassHandle(), objectReflection.getAttributeHandle(i));
+            attributes.add(attributeName, objectReflection.getAttributeBytes(i),
+                    objectReflection.getCachedAttributeValue(i));
+        }
+        updateObjectState(objectReflection.getInstanceHandle(), objectReflection.getClassHandle(),
+                objectReflection.getInstanceName(), attributes);
+    }
+
+    private void updateObjectState(AttributeUpdate update) {
+        log.trace("updateObjectState with {}", update);
+        objectStates.updateRegistered(update, fedAmb.getLogicalTime());
+    }
+
+    // a reflection can be processed after its instance was removed when it was held or in the receive pipeline
+    private void updateObjectState(int instanceHandle, int classHandle, String instanceName,
+            Map<String, String> attributes) {
+        log.trace("updateObjectState for {} with {}", instanceName, attributes);
+        if (!fedAmb.isObjectInstanceKnown(instanceHandle)) {
+            log.debug("ignored state of the removed object instance {}", instanceName);
+            return;
         }
-        objectInstances.get(instanceName).putAll(attributes);
+        objectStates.updateDiscovered(instanceName, classHandle, attributes, fedAmb.getLogicalTime(),
+                System.nanoTime());
     }
 }
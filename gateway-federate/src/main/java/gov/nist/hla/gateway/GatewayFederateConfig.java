@@ -1,8 +1,101 @@
 package gov.nist.hla.gateway;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import gov.nist.hla.gateway.exception.ValueNotSet;
 
 public class GatewayFederateConfig {
+    public enum ConflationMode {
+        NONE,       // deliver every received object reflection
+        TICK,       // merge the reflections of each instance received during one tick
+        TIME_STEP   // merge the reflections of each instance received during one logical time step
+    }
+    
+    public enum BatchMode {
+        TICK,       // deliver the messages received during one tick as a batch
+        TIME_STEP   // deliver the messages received during one logical time step as a batch
+    }
+    
+    public enum ThrottleMode {
+        NONE,           // send every message
+        LOGICAL_TIME,   // limit messages to their rates measured in logical time
+        WALL_CLOCK      // limit messages to their rates measured in wall clock time
+    }
+    
+    public enum PacingPolicy {
+        QUEUE,          // hold interactions that exceed the rate and send them as the rate allows, rejecting new
+                        // interactions when maxQueued are held
+        DROP_OLDEST,    // same as QUEUE, but discard the oldest held interaction when maxQueued are held
+        REJECT          // discard interactions that exceed the rate
+    }
+    
+    public enum SendQueuePolicy {
+        BLOCK,          // wait for space in the queue; the thread that invoked run rejects instead
+        REJECT,         // reject the new message
+        DROP_OLDEST     // discard the oldest queued message
+    }
+    
+    public enum IndexType {
+        HASH,   // finds the instances with an attribute equal to a value
+        SORTED  // also finds the instances with an attribute in a range of values, with numbers ordered by value
+    }
+    
+    public enum StateLayout {
+        MAP,        // a HashMap of attribute names to values for each object instance
+        COLUMNAR    // a contiguous column of encoded values for each attribute of each object class
+    }
+    
+    public enum ValueEncoding {
+        ASCII,      // US-ASCII; unmappable characters are replaced with '?'
+        UTF_8,
+        UTF_16      // big-endian without a byte order mark
+    }
+    
+    // a token bucket for one interaction class: rate tokens are added per second up to burst, and each send uses one
+    public static class InteractionRateLimit {
+        private double rate;
+        private double burst = 1;
+        private PacingPolicy policy = PacingPolicy.QUEUE;
+        private int maxQueued = 1024;
+        
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+        
+        public double getRate() {
+            return rate;
+        }
+        
+        public void setBurst(double burst) {
+            this.burst = burst;
+        }
+        
+        public double getBurst() {
+            return burst;
+        }
+        
+        public void setPolicy(PacingPolicy policy) {
+            this.policy = policy;
+        }
+        
+        public PacingPolicy getPolicy() {
+            return policy;
+        }
+        
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+        
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+        
+        public String toString() {
+            return String.format("rate=%s burst=%s policy=%s maxQueued=%d", rate, burst, policy, maxQueued);
+        }
+    }
+    
     private String federateName = "InjectionFederate";
     
     private String federationId;
@@ -21,6 +114,51 @@ public class GatewayFederateConfig {
     
     private double stepSize = 0.1;
     
+    private ConflationMode conflationMode = ConflationMode.NONE;
+    
+    private BatchMode batchMode = BatchMode.TIME_STEP;
+    
+    private ValueEncoding valueEncoding = ValueEncoding.UTF_8;
+    
+    private boolean nullTerminatedValues = false;
+    
+    private boolean useDeltaUpdates = false;
+    
+    private int fullUpdateInterval = 0;
+    
+    private ThrottleMode updateThrottleMode = ThrottleMode.NONE;
+    
+    private boolean combineUpdates = false;
+    
+    private int dispatchThreads = 0;
+    
+    private boolean useReceivePipeline = false;
+    
+    private int receivePipelineCapacity = 1024;
+    
+    private int sendQueueCapacity = 4096;
+    
+    private SendQueuePolicy sendQueuePolicy = SendQueuePolicy.BLOCK;
+    
+    private StateLayout objectStateLayout = StateLayout.MAP;
+    
+    private boolean trackObjectChanges = false;
+    
+    private boolean publishStateSnapshots = false;
+    
+    private Map<String, Map<String, IndexType>> objectAttributeIndexes = new HashMap<String, Map<String, IndexType>>();
+    
+    private int maxObjectInstances = 0;
+    
+    private long maxObjectStateBytes = 0;
+    
+    private long objectIdleTimeoutMs = 0;
+    
+    private ThrottleMode interactionPacingMode = ThrottleMode.LOGICAL_TIME;
+    
+    // map from the full HLA interaction class name to its rate limit
+    private Map<String, InteractionRateLimit> interactionRateLimits = new HashMap<String, InteractionRateLimit>();
+    
     public void setFederateName(String federateName) {
         this.federateName = federateName;
     }
@@ -92,4 +230,180 @@ public class GatewayFederateConfig {
     public double getStepSize() {
         return stepSize;
     }
+
+    public void setConflationMode(ConflationMode conflationMode) {
+        this.conflationMode = conflationMode;
+    }
+
+    public ConflationMode getConflationMode() {
+        return conflationMode;
+    }
+
+    public void setValueEncoding(ValueEncoding valueEncoding) {
+        this.valueEncoding = valueEncoding;
+    }
+
+    public ValueEncoding getValueEncoding() {
+        return valueEncoding;
+    }
+
+    public void setNullTerminatedValues(boolean nullTerminatedValues) {
+        this.nullTerminatedValues = nullTerminatedValues;
+    }
+
+    public boolean getNullTerminatedValues() {
+        return nullTerminatedValues;
+    }
+
+    public void setUseDeltaUpdates(boolean useDeltaUpdates) {
+        this.useDeltaUpdates = useDeltaUpdates;
+    }
+
+    public boolean getUseDeltaUpdates() {
+        return useDeltaUpdates;
+    }
+
+    public void setFullUpdateInterval(int fullUpdateInterval) {
+        this.fullUpdateInterval = fullUpdateInterval;
+    }
+
+    public int getFullUpdateInterval() {
+        return fullUpdateInterval;
+    }
+
+    public void setUpdateThrottleMode(ThrottleMode updateThrottleMode) {
+        this.updateThrottleMode = updateThrottleMode;
+    }
+
+    public ThrottleMode getUpdateThrottleMode() {
+        return updateThrottleMode;
+    }
+
+    public void setCombineUpdates(boolean combineUpdates) {
+        this.combineUpdates = combineUpdates;
+    }
+
+    public boolean getCombineUpdates() {
+        return combineUpdates;
+    }
+
+    public void setBatchMode(BatchMode batchMode) {
+        this.batchMode = batchMode;
+    }
+
+    public BatchMode getBatchMode() {
+        return batchMode;
+    }
+
+    public void setDispatchThreads(int dispatchThreads) {
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    public int getDispatchThreads() {
+        return dispatchThreads;
+    }
+
+    public void setUseReceivePipeline(boolean useReceivePipeline) {
+        this.useReceivePipeline = useReceivePipeline;
+    }
+
+    public boolean getUseReceivePipeline() {
+        return useReceivePipeline;
+    }
+
+    public void setReceivePipelineCapacity(int receivePipelineCapacity) {
+        this.receivePipelineCapacity = receivePipelineCapacity;
+    }
+
+    public int getReceivePipelineCapacity() {
+        return receivePipelineCapacity;
+    }
+
+    public void setSendQueueCapacity(int sendQueueCapacity) {
+        this.sendQueueCapacity = sendQueueCapacity;
+    }
+
+    public int getSendQueueCapacity() {
+        return sendQueueCapacity;
+    }
+
+    public void setSendQueuePolicy(SendQueuePolicy sendQueuePolicy) {
+        this.sendQueuePolicy = sendQueuePolicy;
+    }
+
+    public SendQueuePolicy getSendQueuePolicy() {
+        return sendQueuePolicy;
+    }
+
+    public void setInteractionPacingMode(ThrottleMode interactionPacingMode) {
+        this.interactionPacingMode = interactionPacingMode;
+    }
+
+    public ThrottleMode getInteractionPacingMode() {
+        return interactionPacingMode;
+    }
+
+    public void setInteractionRateLimits(Map<String, InteractionRateLimit> interactionRateLimits) {
+        this.interactionRateLimits = interactionRateLimits;
+    }
+
+    public Map<String, InteractionRateLimit> getInteractionRateLimits() {
+        return interactionRateLimits;
+    }
+
+    public void setMaxObjectInstances(int maxObjectInstances) {
+        this.maxObjectInstances = maxObjectInstances;
+    }
+
+    public int getMaxObjectInstances() {
+        return maxObjectInstances;
+    }
+
+    public void setMaxObjectStateBytes(long maxObjectStateBytes) {
+        this.maxObjectStateBytes = maxObjectStateBytes;
+    }
+
+    public long getMaxObjectStateBytes() {
+        return maxObjectStateBytes;
+    }
+
+    public void setObjectIdleTimeoutMs(long objectIdleTimeoutMs) {
+        this.objectIdleTimeoutMs = objectIdleTimeoutMs;
+    }
+
+    public long getObjectIdleTimeoutMs() {
+        return objectIdleTimeoutMs;
+    }
+
+    public void setObjectStateLayout(StateLayout objectStateLayout) {
+        this.objectStateLayout = objectStateLayout;
+    }
+
+    public StateLayout getObjectStateLayout() {
+        return objectStateLayout;
+    }
+
+    public void setTrackObjectChanges(boolean trackObjectChanges) {
+        this.trackObjectChanges = trackObjectChanges;
+    }
+
+    public boolean getTrackObjectChanges() {
+        return trackObjectChanges;
+    }
+
+    public void setPublishStateSnapshots(boolean publishStateSnapshots) {
+        this.publishStateSnapshots = publishStateSnapshots;
+    }
+
+    public boolean getPublishStateSnapshots() {
+        return publishStateSnapshots;
+    }
+
+    public void setObjectAttributeIndexes(Map<String, Map<String, IndexType>> objectAttributeIndexes) {
+        this.objectAttributeIndexes = objectAttributeIndexes;
+    }
+
+    public Map<String, Map<String, IndexType>> getObjectAttributeIndexes() {
+        return objectAttributeIndexes;
+    }
 }
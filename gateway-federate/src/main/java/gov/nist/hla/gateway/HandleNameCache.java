@@ -0,0 +1,92 @@
+package gov.nist.hla.gateway;
+
+import java.util.Arrays;
+
+// dense lookup tables from RTI handles to HLA names, indexed directly by handle
+// Portico assigns small sequential integers to class, parameter, and attribute handles
+class HandleNameCache {
+    private static final String[] EMPTY = new String[0];
+
+    private String[] interactionClassNames = EMPTY;
+    private String[][] parameterNames = new String[0][];
+
+    private String[] objectClassNames = EMPTY;
+    private String[][] attributeNames = new String[0][];
+
+    public void putInteractionClass(int classHandle, String className) {
+        interactionClassNames = ensureCapacity(interactionClassNames, classHandle);
+        interactionClassNames[classHandle] = className;
+    }
+
+    public void putParameter(int classHandle, int parameterHandle, String parameterName) {
+        parameterNames = ensureCapacity(parameterNames, classHandle);
+        parameterNames[classHandle] = ensureCapacity(parameterNames[classHandle], parameterHandle);
+        parameterNames[classHandle][parameterHandle] = parameterName;
+    }
+
+    public void putObjectClass(int classHandle, String className) {
+        objectClassNames = ensureCapacity(objectClassNames, classHandle);
+        objectClassNames[classHandle] = className;
+    }
+
+    public void putAttribute(int classHandle, int attributeHandle, String attributeName) {
+        attributeNames = ensureCapacity(attributeNames, classHandle);
+        attributeNames[classHandle] = ensureCapacity(attributeNames[classHandle], attributeHandle);
+        attributeNames[classHandle][attributeHandle] = attributeName;
+    }
+
+    // the get methods return null when the handle has not been cached
+
+    public String getInteractionClassName(int classHandle) {
+        return lookup(interactionClassNames, classHandle);
+    }
+
+    public String getParameterName(int classHandle, int parameterHandle) {
+        if (classHandle < 0 || classHandle >= parameterNames.length) {
+            return null;
+        }
+        return lookup(parameterNames[classHandle], parameterHandle);
+    }
+
+    public String getObjectClassName(int classHandle) {
+        return lookup(objectClassNames, classHandle);
+    }
+
+    public String getAttributeName(int classHandle, int attributeHandle) {
+        if (classHandle < 0 || classHandle >= attributeNames.length) {
+            return null;
+        }
+        return lookup(attributeNames[classHandle], attributeHandle);
+    }
+
+    private static String lookup(String[] table, int handle) {
+        if (table == null || handle < 0 || handle >= table.length) {
+            return null;
+        }
+        return table[handle];
+    }
+
+    private static String[] ensureCapacity(String[] table, int handle) {
+        if (table == null) {
+            table = EMPTY;
+        }
+        if (handle < table.length) {
+            return table;
+        }
+        return Arrays.copyOf(table, newLength(table.length, handle));
+    }
+
+    private static String[][] ensureCapacity(String[][] table, int handle) {
+        if (handle < table.length) {
+            return table;
+        }
+        return Arrays.copyOf(table, newLength(table.length, handle));
+    }
+
+    private static int newLength(int length, int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("negative handle " + handle);
+        }
+        return Math.max(handle + 1, length * 2);
+    }
+}
@@ -0,0 +1,104 @@
+package gov.nist.hla.gateway;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+import org.ieee.standards.ieee1516._2010.InteractionClassType;
+import org.ieee.standards.ieee1516._2010.ObjectClassType;
+
+// maps RTI class handles to the handlers registered for the class and its ancestors
+// the handle tables are rebuilt on the RTI thread for each change, and are read-only for the dispatch threads
+class HandlerRegistry {
+    private static final InteractionHandler[] NO_INTERACTION_HANDLERS = new InteractionHandler[0];
+    private static final ObjectHandler[] NO_OBJECT_HANDLERS = new ObjectHandler[0];
+
+    private Map<InteractionClassType, List<InteractionHandler>> interactionHandlers =
+            new HashMap<InteractionClassType, List<InteractionHandler>>();
+    private Map<ObjectClassType, List<ObjectHandler>> objectHandlers =
+            new HashMap<ObjectClassType, List<ObjectHandler>>();
+
+    // the object model class for each known RTI class handle
+    private InteractionClassType[] interactionClasses = new InteractionClassType[0];
+    private ObjectClassType[] objectClasses = new ObjectClassType[0];
+
+    private volatile InteractionHandler[][] interactionTable = new InteractionHandler[0][];
+    private volatile ObjectHandler[][] objectTable = new ObjectHandler[0][];
+
+    public void addInteractionClass(int classHandle, InteractionClassType interaction) {
+        if (classHandle >= interactionClasses.length) {
+            interactionClasses = Arrays.copyOf(interactionClasses, classHandle + 1);
+        }
+        interactionClasses[classHandle] = interaction;
+        rebuildInteractionTable();
+    }
+
+    public void addObjectClass(int classHandle, ObjectClassType object) {
+        if (classHandle >= objectClasses.length) {
+            objectClasses = Arrays.copyOf(objectClasses, classHandle + 1);
+        }
+        objectClasses[classHandle] = object;
+        rebuildObjectTable();
+    }
+
+    public void addInteractionHandler(InteractionClassType interaction, InteractionHandler handler) {
+        interactionHandlers.computeIfAbsent(interaction, k -> new ArrayList<InteractionHandler>()).add(handler);
+        rebuildInteractionTable();
+    }
+
+    public void addObjectHandler(ObjectClassType object, ObjectHandler handler) {
+        objectHandlers.computeIfAbsent(object, k -> new ArrayList<ObjectHandler>()).add(handler);
+        rebuildObjectTable();
+    }
+
+    public InteractionHandler[] getInteractionHandlers(int classHandle) {
+        InteractionHandler[][] table = interactionTable;
+        if (classHandle < 0 || classHandle >= table.length) {
+            return NO_INTERACTION_HANDLERS;
+        }
+        return table[classHandle];
+    }
+
+    public ObjectHandler[] getObjectHandlers(int classHandle) {
+        ObjectHandler[][] table = objectTable;
+        if (classHandle < 0 || classHandle >= table.length) {
+            return NO_OBJECT_HANDLERS;
+        }
+        return table[classHandle];
+    }
+
+    private void rebuildInteractionTable() {
+        InteractionHandler[][] table = new InteractionHandler[interactionClasses.length][];
+        for (int i = 0; i < table.length; i++) {
+            List<InteractionHandler> handlers = new ArrayList<InteractionHandler>();
+            // handlers for the most derived class come first
+            for (EObject c = interactionClasses[i]; c instanceof InteractionClassType; c = c.eContainer()) {
+                List<InteractionHandler> classHandlers = interactionHandlers.get(c);
+                if (classHandlers != null) {
+                    handlers.addAll(classHandlers);
+                }
+            }
+            table[i] = handlers.isEmpty() ? NO_INTERACTION_HANDLERS : handlers.toArray(NO_INTERACTION_HANDLERS);
+        }
+        interactionTable = table;
+    }
+
+    private void rebuildObjectTable() {
+        ObjectHandler[][] table = new ObjectHandler[objectClasses.length][];
+        for (int i = 0; i < table.length; i++) {
+            List<ObjectHandler> handlers = new ArrayList<ObjectHandler>();
+            // handlers for the most derived class come first
+            for (EObject c = objectClasses[i]; c instanceof ObjectClassType; c = c.eContainer()) {
+                List<ObjectHandler> classHandlers = objectHandlers.get(c);
+                if (classHandlers != null) {
+                    handlers.addAll(classHandlers);
+                }
+            }
+            table[i] = handlers.isEmpty() ? NO_OBJECT_HANDLERS : handlers.toArray(NO_OBJECT_HANDLERS);
+        }
+        objectTable = table;
+    }
+}
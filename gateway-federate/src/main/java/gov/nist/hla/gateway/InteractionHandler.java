@@ -0,0 +1,22 @@
+package gov.nist.hla.gateway;
+
+import java.util.Map;
+
+/**
+ * A callback for the interactions of one HLA interaction class and its subclasses. Handlers are registered using
+ * {@link GatewayFederate#addInteractionHandler} and are invoked with the same arguments, on the same thread, and
+ * immediately before {@link GatewayCallback#receiveInteraction}.
+ *
+ * @author Thomas Roth
+ */
+@FunctionalInterface
+public interface InteractionHandler {
+    /**
+     * This callback is invoked once per received interaction of the registered class or one of its subclasses.
+     *
+     * @param timeStep The last requested logical time
+     * @param className The HLA class name of the received interaction
+     * @param parameters A map of parameter names to their received values
+     */
+    void receiveInteraction(Double timeStep, String className, Map<String, String> parameters);
+}
@@ -0,0 +1,162 @@
+package gov.nist.hla.gateway;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import gov.nist.hla.gateway.GatewayFederateConfig.InteractionRateLimit;
+import gov.nist.hla.gateway.GatewayFederateConfig.PacingPolicy;
+import hla.rti.SuppliedParameters;
+
+// limits the rate at which each configured interaction class is sent using one token bucket per class
+// interactions that exceed the rate are held in order and released as tokens become available, unless rejected
+// at most maxQueued interactions are held per class: QUEUE rejects new interactions and DROP_OLDEST discards old ones
+class InteractionPacer {
+    public static class PacedInteraction {
+        private final int classHandle;
+        private final SuppliedParameters parameters;
+        private final double timestamp; // NaN for a receive order interaction
+
+        public PacedInteraction(int classHandle, SuppliedParameters parameters, double timestamp) {
+            this.classHandle = classHandle;
+            this.parameters = parameters;
+            this.timestamp = timestamp;
+        }
+
+        public int getClassHandle() {
+            return classHandle;
+        }
+
+        public SuppliedParameters getParameters() {
+            return parameters;
+        }
+
+        public double getTimestamp() {
+            return timestamp;
+        }
+
+        public boolean isTimestamped() {
+            return !Double.isNaN(timestamp);
+        }
+    }
+
+    private static class Bucket {
+        private final String className;
+        private final double rate;
+        private final double burst;
+        private final PacingPolicy policy;
+        private final int maxQueued;
+
+        private double tokens;
+        private double lastRefillTime = Double.NaN;
+        private final ArrayDeque<PacedInteraction> queue = new ArrayDeque<PacedInteraction>();
+
+        private long sentCount = 0;
+        private long delayedCount = 0;
+        private long droppedCount = 0;
+        private long rejectedCount = 0;
+
+        public Bucket(String className, InteractionRateLimit limit) {
+            this.className = className;
+            this.rate = limit.getRate();
+            this.burst = Math.max(1, limit.getBurst());
+            this.policy = limit.getPolicy();
+            this.maxQueued = Math.max(1, limit.getMaxQueued());
+            this.tokens = burst;
+        }
+
+        public void refill(double now) {
+            if (!Double.isNaN(lastRefillTime) && now > lastRefillTime) {
+                tokens = Math.min(burst, tokens + rate * (now - lastRefillTime));
+            }
+            lastRefillTime = now;
+        }
+
+        public boolean takeToken() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            sentCount++;
+            return true;
+        }
+    }
+
+    private Bucket[] buckets = new Bucket[0]; // indexed by class handle; null when the class has no limit
+    private final Set<Bucket> bucketsWithQueued = new LinkedHashSet<Bucket>();
+
+    public boolean hasClass(int classHandle) {
+        return classHandle < buckets.length && buckets[classHandle] != null;
+    }
+
+    public void putClass(int classHandle, String className, InteractionRateLimit limit) {
+        if (classHandle >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(classHandle + 1, buckets.length * 2));
+        }
+        buckets[classHandle] = new Bucket(className, limit);
+    }
+
+    // returns true when the interaction can be sent now; otherwise it was held or discarded
+    public boolean acquire(int classHandle, SuppliedParameters parameters, double timestamp, double now) {
+        Bucket bucket = buckets[classHandle];
+        bucket.refill(now);
+        // held interactions are sent first to preserve the order of the class
+        if (bucket.queue.isEmpty() && bucket.takeToken()) {
+            return true;
+        }
+        switch (bucket.policy) {
+            case REJECT:
+                bucket.rejectedCount++;
+                return false;
+            case DROP_OLDEST:
+                if (bucket.queue.size() >= bucket.maxQueued) {
+                    bucket.queue.poll();
+                    bucket.droppedCount++;
+                }
+                break;
+            case QUEUE:
+            default:
+                if (bucket.queue.size() >= bucket.maxQueued) {
+                    bucket.rejectedCount++;
+                    return false;
+                }
+                break;
+        }
+        bucket.queue.add(new PacedInteraction(classHandle, parameters, timestamp));
+        bucket.delayedCount++;
+        bucketsWithQueued.add(bucket);
+        return false;
+    }
+
+    public boolean hasQueued() {
+        return !bucketsWithQueued.isEmpty();
+    }
+
+    // adds the held interactions that can be sent at time now to released, in the order they were held per class
+    public void release(double now, List<PacedInteraction> released) {
+        Iterator<Bucket> iterator = bucketsWithQueued.iterator();
+        while (iterator.hasNext()) {
+            Bucket bucket = iterator.next();
+            bucket.refill(now);
+            while (!bucket.queue.isEmpty() && bucket.takeToken()) {
+                released.add(bucket.queue.poll());
+            }
+            if (bucket.queue.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // null when the class has no limit
+    public InteractionPacingStatistics getStatistics(int classHandle) {
+        if (!hasClass(classHandle)) {
+            return null;
+        }
+        Bucket bucket = buckets[classHandle];
+        return new InteractionPacingStatistics(bucket.className, bucket.sentCount, bucket.delayedCount,
+                bucket.droppedCount, bucket.rejectedCount, bucket.queue.size());
+    }
+}
@@ -0,0 +1,88 @@
+package gov.nist.hla.gateway;
+
+/**
+ * The counters for one rate limited interaction class, returned from
+ * {@link GatewayFederate#getInteractionPacingStatistics}. Each counter starts at zero when the gateway federate is
+ * constructed. The values are a snapshot and do not change after they are returned.
+ *
+ * @author Thomas Roth
+ */
+public class InteractionPacingStatistics {
+    private final String className;
+    private final long sentCount;
+    private final long delayedCount;
+    private final long droppedCount;
+    private final long rejectedCount;
+    private final int queuedCount;
+
+    InteractionPacingStatistics(String className, long sentCount, long delayedCount, long droppedCount,
+            long rejectedCount, int queuedCount) {
+        this.className = className;
+        this.sentCount = sentCount;
+        this.delayedCount = delayedCount;
+        this.droppedCount = droppedCount;
+        this.rejectedCount = rejectedCount;
+        this.queuedCount = queuedCount;
+    }
+
+    /**
+     * Get the interaction class the counters apply to.
+     *
+     * @return The full HLA interaction class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Get the number of interactions sent to the RTI, including the interactions that were delayed.
+     *
+     * @return The number of sent interactions
+     */
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Get the number of interactions that exceeded the rate and were held to be sent later.
+     *
+     * @return The number of delayed interactions
+     */
+    public long getDelayedCount() {
+        return delayedCount;
+    }
+
+    /**
+     * Get the number of held interactions discarded to make room for newer interactions.
+     *
+     * @return The number of dropped interactions
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Get the number of interactions discarded because they exceeded the rate, either because the policy is REJECT or
+     * because the policy is QUEUE and the most interactions that can be held are already held.
+     *
+     * @return The number of rejected interactions
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Get the number of interactions currently held.
+     *
+     * @return The number of interactions waiting to be sent
+     */
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s sent=%d delayed=%d dropped=%d rejected=%d queued=%d", className, sentCount,
+                delayedCount, droppedCount, rejectedCount, queuedCount);
+    }
+}
@@ -0,0 +1,158 @@
+package gov.nist.hla.gateway;
+
+import hla.rti.NameNotFound;
+
+/**
+ * A reusable interaction for a single HLA interaction class, created using {@link GatewayFederate#prepareInteraction}.
+ * The interaction class and parameter handles are resolved once when the template is prepared, and each parameter
+ * defined in the object model for the class is assigned a fixed slot index. Values are assigned by slot index and
+ * retained between calls to {@link GatewayFederate#sendInteraction(InteractionTemplate)} until they are overwritten
+ * or {@link #clear} is invoked. Only the parameters with a value are sent.
+ * <p>
+ * The parameters of the C2WInteractionRoot class are assigned the same default values used by
+ * {@link GatewayFederate#sendInteraction(String, java.util.Map)}. A template is not thread safe, and it can only be
+ * used with the {@link GatewayFederate} that prepared it.
+ *
+ * @author Thomas Roth
+ */
+public class InteractionTemplate {
+    private final GatewayFederate owner;
+    private final String className;
+    private final int classHandle;
+    private final TemplateSlots parameters;
+
+    InteractionTemplate(GatewayFederate owner, String className, int classHandle, TemplateSlots parameters) {
+        this.owner = owner;
+        this.className = className;
+        this.classHandle = classHandle;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Get the HLA interaction class this template sends.
+     *
+     * @return The full HLA interaction class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Get the number of parameter slots, which includes the parameters inherited from parent interaction classes.
+     *
+     * @return The number of parameters defined for the interaction class
+     */
+    public int getSlotCount() {
+        return parameters.size();
+    }
+
+    /**
+     * Get the slot index for a parameter. The index does not change for the lifetime of the template.
+     *
+     * @param parameterName The name of a parameter of the interaction class
+     * @return A value in the range [0, {@link #getSlotCount})
+     * @throws NameNotFound if parameterName is not a parameter of the interaction class
+     */
+    public int getSlot(String parameterName)
+            throws NameNotFound {
+        return parameters.indexOf(parameterName);
+    }
+
+    /**
+     * Get the parameter name assigned to a slot.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @return The parameter name as defined in the object model
+     */
+    public String getSlotName(int slot) {
+        return parameters.getName(slot);
+    }
+
+    /**
+     * Set the value of a parameter. The value is encoded immediately.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new parameter value
+     */
+    public void setValue(int slot, String value) {
+        parameters.setValue(slot, value);
+    }
+
+    /**
+     * Set the value of a parameter to a double. The value is sent as the same text as {@link Double#toString(double)},
+     * but it is encoded without creating an intermediate string.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new parameter value
+     */
+    public void setDouble(int slot, double value) {
+        parameters.setDouble(slot, value);
+    }
+
+    /**
+     * Set the value of a parameter to a long. The value is sent as the same text as {@link Long#toString(long)}, but
+     * it is encoded without creating an intermediate string.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new parameter value
+     */
+    public void setLong(int slot, long value) {
+        parameters.setLong(slot, value);
+    }
+
+    /**
+     * Set the value of a parameter to a boolean. The value is sent as the text true or false.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new parameter value
+     */
+    public void setBoolean(int slot, boolean value) {
+        parameters.setBoolean(slot, value);
+    }
+
+    /**
+     * Set the value of a parameter to bytes that are sent without conversion. The array is not copied, and it must
+     * not be modified while this template holds it. {@link #getValue} decodes the bytes using the configured value
+     * encoding.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new parameter value as it will be sent
+     */
+    public void setBytes(int slot, byte[] value) {
+        parameters.setBytes(slot, value);
+    }
+
+    /**
+     * Get the value of a parameter.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @return The current parameter value, or null if the parameter has no value
+     */
+    public String getValue(int slot) {
+        return parameters.getValue(slot);
+    }
+
+    /**
+     * Remove all parameter values, except the default values of the C2WInteractionRoot parameters.
+     */
+    public void clear() {
+        parameters.clear();
+    }
+
+    GatewayFederate getOwner() {
+        return owner;
+    }
+
+    int getClassHandle() {
+        return classHandle;
+    }
+
+    TemplateSlots getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String toString() {
+        return className + " " + parameters.toString();
+    }
+}
@@ -0,0 +1,220 @@
+package gov.nist.hla.gateway;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import gov.nist.hla.ValueCodec;
+
+// stores the values of each instance in its own HashMap keyed by attribute name
+// a value received or sent as bytes encoded with the codec of the table is kept as bytes until it is first read
+class MapObjectStateTable implements ObjectStateTable {
+    // rough heap cost of an instance and of one attribute entry, excluding the characters of the value
+    private static final long INSTANCE_OVERHEAD_BYTES = 128;
+    private static final long ATTRIBUTE_OVERHEAD_BYTES = 64;
+
+    // the number of entries a HashMap created without an initial capacity holds before it rehashes
+    static final int DEFAULT_CAPACITY = 12;
+
+    // one attribute value, which is either a string or the bytes it is decoded from on its first read
+    // the estimate of its size is kept when it is decoded, so the change in size of a later put is consistent
+    private static class StoredValue {
+        private String value;
+        private byte[] encodedValue; // null once decoded
+        private long estimatedBytes;
+    }
+
+    // a read-only view of the values of one instance
+    private class InstanceState extends AbstractMap<String, String> {
+        private final Map<String, StoredValue> values;
+
+        public InstanceState(Map<String, StoredValue> values) {
+            this.values = values;
+        }
+
+        @Override
+        public String get(Object key) {
+            StoredValue storedValue = values.get(key);
+            return storedValue == null ? null : decode(storedValue);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    Iterator<Map.Entry<String, StoredValue>> iterator = values.entrySet().iterator();
+                    return new Iterator<Map.Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, String> next() {
+                            Map.Entry<String, StoredValue> entry = iterator.next();
+                            return new AbstractMap.SimpleImmutableEntry<String, String>(
+                                    entry.getKey(), decode(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return values.size();
+                }
+            };
+        }
+    }
+
+    private final ValueCodec codec; // decodes the values stored as bytes
+
+    private Map<String, InstanceState> instances = new HashMap<String, InstanceState>();
+
+    // the number of instances the map holds before it rehashes
+    private int capacity = DEFAULT_CAPACITY;
+
+    public MapObjectStateTable() {
+        this(ValueCodec.DEFAULT);
+    }
+
+    public MapObjectStateTable(ValueCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public long add(String instanceName, int classHandle, int expectedAttributes) {
+        Map<String, StoredValue> values = expectedAttributes > 0
+                ? new HashMap<String, StoredValue>(capacityFor(expectedAttributes))
+                : new HashMap<String, StoredValue>();
+        instances.put(instanceName, new InstanceState(values));
+        if (instances.size() > capacity) {
+            capacity *= 2; // the map doubled its table
+        }
+        return INSTANCE_OVERHEAD_BYTES;
+    }
+
+    @Override
+    public boolean contains(String instanceName) {
+        return instances.containsKey(instanceName);
+    }
+
+    // the values of an unchanged ReceivedValueMap are stored without decoding them
+    @Override
+    public long putAll(String instanceName, Map<String, String> values) {
+        Map<String, StoredValue> state = instances.get(instanceName).values;
+        long delta = 0;
+        if (values instanceof ReceivedValueMap && !((ReceivedValueMap) values).isChanged()
+                && ((ReceivedValueMap) values).getCodec() == codec) {
+            ReceivedValueMap receivedValues = (ReceivedValueMap) values;
+            for (int i = 0; i < receivedValues.size(); i++) {
+                delta += put(state, receivedValues.getName(i), receivedValues.getDecodedValue(i),
+                        receivedValues.getBytes(i));
+            }
+            return delta;
+        }
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            delta += put(state, entry.getKey(), entry.getValue(), null);
+        }
+        return delta;
+    }
+
+    // the values of a template update that were set as bytes or typed values are stored without decoding them
+    @Override
+    public long putAll(AttributeUpdate update) {
+        Map<String, StoredValue> state = instances.get(update.getInstanceName()).values;
+        long delta = 0;
+        for (int i = 0; i < update.size(); i++) {
+            if (update.getCodec() == codec) {
+                delta += put(state, update.getName(i), update.getDecodedValue(i), update.getEncodedValue(i));
+            } else {
+                delta += put(state, update.getName(i), update.getValue(i), null);
+            }
+        }
+        return delta;
+    }
+
+    @Override
+    public Map<String, String> get(String instanceName) {
+        return instances.get(instanceName);
+    }
+
+    @Override
+    public void remove(String instanceName) {
+        instances.remove(instanceName);
+    }
+
+    // grows the map once for count new instances rather than rehashing as each one is added, unless it has room
+    @Override
+    public void reserve(int count) {
+        int required = instances.size() + count;
+        if (required > capacity) {
+            Map<String, InstanceState> resized = new HashMap<String, InstanceState>(capacityFor(required));
+            resized.putAll(instances);
+            instances = resized;
+            capacity = thresholdFor(required);
+        }
+    }
+
+    @Override
+    public boolean scanEqual(int classHandle, String attributeName, String value, Collection<String> result) {
+        return false;
+    }
+
+    @Override
+    public boolean scan(int classHandle, String attributeName, Predicate<String> matches, Collection<String> result) {
+        return false;
+    }
+
+    // value is null when the value is only stored as encodedValue
+    private static long put(Map<String, StoredValue> state, String name, String value, byte[] encodedValue) {
+        StoredValue storedValue = state.get(name);
+        long oldBytes = 0;
+        if (storedValue == null) {
+            storedValue = new StoredValue();
+            state.put(name, storedValue);
+        } else {
+            oldBytes = storedValue.estimatedBytes;
+        }
+        storedValue.value = value;
+        storedValue.encodedValue = value == null ? encodedValue : null;
+        storedValue.estimatedBytes = ATTRIBUTE_OVERHEAD_BYTES
+                + (value == null ? encodedValue.length : 2L * value.length());
+        return storedValue.estimatedBytes - oldBytes;
+    }
+
+    private String decode(StoredValue storedValue) {
+        if (storedValue.value == null) {
+            storedValue.value = codec.decode(storedValue.encodedValue);
+            storedValue.encodedValue = null;
+        }
+        return storedValue.value;
+    }
+
+    // the initial capacity of a HashMap that holds size entries without resizing
+    static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    // the number of entries, at least size, that a HashMap created with capacityFor(size) holds before it rehashes
+    // the map rounds its table up to a power of two
+    static int thresholdFor(int size) {
+        int tableSize = Integer.highestOneBit(Math.max(capacityFor(size) - 1, 1)) << 1;
+        return (int) (tableSize * 0.75f);
+    }
+}
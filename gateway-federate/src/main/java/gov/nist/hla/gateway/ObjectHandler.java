@@ -0,0 +1,23 @@
+package gov.nist.hla.gateway;
+
+import java.util.Map;
+
+/**
+ * A callback for the object reflections of one HLA object class and its subclasses. Handlers are registered using
+ * {@link GatewayFederate#addObjectHandler} and are invoked with the same arguments, on the same thread, and
+ * immediately before {@link GatewayCallback#receiveObject}.
+ *
+ * @author Thomas Roth
+ */
+@FunctionalInterface
+public interface ObjectHandler {
+    /**
+     * This callback is invoked once per received object reflection of the registered class or one of its subclasses.
+     *
+     * @param timeStep The last requested logical time
+     * @param className The HLA class name of the updated object
+     * @param instanceName The unique instance name of the updated object
+     * @param attributes A map of attribute names to their received values
+     */
+    void receiveObject(Double timeStep, String className, String instanceName, Map<String, String> attributes);
+}
@@ -0,0 +1,280 @@
+package gov.nist.hla.gateway;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import gov.nist.hla.gateway.GatewayFederateConfig.IndexType;
+
+// the known object instances of each object class, and the instances of each attribute value for declared attributes
+// both are updated incrementally as instances are added, updated, and removed from the object state
+class ObjectIndex {
+    // orders numeric values by number before the other values, which are ordered as strings
+    static final class SortKey implements Comparable<SortKey> {
+        private final String value;
+        private final boolean numeric;
+        private final double number;
+
+        // -1 for the lowest and 1 for the highest key of a number, so a range bound includes every string of it
+        private final int boundOrder;
+
+        public SortKey(String value) {
+            this(value, 0);
+        }
+
+        private SortKey(String value, int boundOrder) {
+            this.value = value;
+            double number = 0;
+            boolean numeric = false;
+            try {
+                number = Double.parseDouble(value) + 0.0; // -0 and 0 are the same number
+                numeric = !Double.isNaN(number);
+            } catch (NumberFormatException e) {
+                // ordered as a string
+            }
+            this.number = number;
+            this.numeric = numeric;
+            this.boundOrder = numeric ? boundOrder : 0;
+        }
+
+        // the key that orders before every key with the same number, such as 10 and 10.0, or value when it is not
+        // a number
+        public static SortKey lowerBound(String value) {
+            return new SortKey(value, -1);
+        }
+
+        // the key that orders after every key with the same number, or value when it is not a number
+        public static SortKey upperBound(String value) {
+            return new SortKey(value, 1);
+        }
+
+        // a null bound is unbounded
+        public static boolean isInRange(SortKey key, SortKey lowerBound, SortKey upperBound) {
+            return (lowerBound == null || key.compareTo(lowerBound) >= 0)
+                    && (upperBound == null || key.compareTo(upperBound) <= 0);
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            if (numeric != other.numeric) {
+                return numeric ? -1 : 1;
+            }
+            if (numeric) {
+                int result = Double.compare(number, other.number);
+                if (result != 0) {
+                    return result;
+                }
+                if (boundOrder != other.boundOrder) {
+                    return Integer.compare(boundOrder, other.boundOrder);
+                }
+            }
+            return value.compareTo(other.value); // distinct strings such as 1 and 1.0 are distinct keys
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SortKey && value.equals(((SortKey) other).value)
+                    && boundOrder == ((SortKey) other).boundOrder;
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+
+    private static class AttributeIndex {
+        private final IndexType type;
+        private final Map<String, String> values = new HashMap<String, String>(); // instance name to indexed value
+        private final Map<Object, Set<String>> instancesByValue; // a TreeMap of SortKey when the index is sorted
+
+        public AttributeIndex(IndexType type) {
+            this.type = type;
+            if (type == IndexType.SORTED) {
+                instancesByValue = new TreeMap<Object, Set<String>>();
+            } else {
+                instancesByValue = new HashMap<Object, Set<String>>();
+            }
+        }
+
+        public void put(String instanceName, String value) {
+            String oldValue = values.put(instanceName, value);
+            if (value.equals(oldValue)) {
+                return;
+            }
+            if (oldValue != null) {
+                removeInstance(instanceName, oldValue);
+            }
+            Object key = toKey(value);
+            Set<String> instances = instancesByValue.get(key);
+            if (instances == null) {
+                instances = new LinkedHashSet<String>();
+                instancesByValue.put(key, instances);
+            }
+            instances.add(instanceName);
+        }
+
+        public void remove(String instanceName) {
+            String oldValue = values.remove(instanceName);
+            if (oldValue != null) {
+                removeInstance(instanceName, oldValue);
+            }
+        }
+
+        public Set<String> find(String value) {
+            Set<String> instances = instancesByValue.get(toKey(value));
+            if (instances == null) {
+                return new LinkedHashSet<String>();
+            }
+            return new LinkedHashSet<String>(instances);
+        }
+
+        // the index must be sorted; a null bound is unbounded
+        @SuppressWarnings("unchecked")
+        public Set<String> findRange(String fromValue, String toValue) {
+            NavigableMap<Object, Set<String>> range = (NavigableMap<Object, Set<String>>) instancesByValue;
+            if (fromValue != null) {
+                range = range.tailMap(SortKey.lowerBound(fromValue), true);
+            }
+            if (toValue != null) {
+                range = range.headMap(SortKey.upperBound(toValue), true);
+            }
+            Set<String> result = new LinkedHashSet<String>();
+            for (Set<String> instances : range.values()) {
+                result.addAll(instances);
+            }
+            return result;
+        }
+
+        private void removeInstance(String instanceName, String value) {
+            Object key = toKey(value);
+            Set<String> instances = instancesByValue.get(key);
+            instances.remove(instanceName);
+            if (instances.isEmpty()) {
+                instancesByValue.remove(key);
+            }
+        }
+
+        private Object toKey(String value) {
+            return type == IndexType.SORTED ? new SortKey(value) : value;
+        }
+    }
+
+    private final IntFunction<String> classNames;
+    private final Map<String, Map<String, IndexType>> declaredIndexes; // by class name then attribute name
+
+    private final Map<Integer, Set<String>> instancesByClass = new HashMap<Integer, Set<String>>();
+    private final Map<String, Integer> instanceClasses = new HashMap<String, Integer>();
+
+    // the attribute indexes of each class handle, resolved from declaredIndexes when the class is first seen
+    private final Map<Integer, Map<String, AttributeIndex>> attributeIndexes =
+            new HashMap<Integer, Map<String, AttributeIndex>>();
+
+    public ObjectIndex(IntFunction<String> classNames, Map<String, Map<String, IndexType>> declaredIndexes) {
+        this.classNames = classNames;
+        this.declaredIndexes = declaredIndexes;
+    }
+
+    public void add(String instanceName, int classHandle) {
+        Integer oldClassHandle = instanceClasses.put(instanceName, classHandle);
+        if (oldClassHandle != null) {
+            if (oldClassHandle == classHandle) {
+                return;
+            }
+            removeFromClass(instanceName, oldClassHandle); // the name was reused by an instance of a new class
+        }
+        getClassInstances(classHandle).add(instanceName);
+    }
+
+    // the instance must have been added with classHandle
+    public void update(String instanceName, int classHandle, Map<String, String> attributes) {
+        for (Map.Entry<String, AttributeIndex> entry : getAttributeIndexes(classHandle).entrySet()) {
+            String value = attributes.get(entry.getKey());
+            if (value != null) {
+                entry.getValue().put(instanceName, value);
+            }
+        }
+    }
+
+    // the instance must have been added with the class handle of the update
+    public void update(AttributeUpdate update) {
+        Map<String, AttributeIndex> indexes = getAttributeIndexes(update.getClassHandle());
+        if (indexes.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < update.size(); i++) {
+            AttributeIndex index = indexes.get(update.getName(i));
+            if (index != null) {
+                index.put(update.getInstanceName(), update.getValue(i));
+            }
+        }
+    }
+
+    public void remove(String instanceName) {
+        Integer classHandle = instanceClasses.remove(instanceName);
+        if (classHandle != null) {
+            removeFromClass(instanceName, classHandle);
+        }
+    }
+
+    // an unmodifiable view that reflects later changes
+    public Set<String> getInstances(int classHandle) {
+        return Collections.unmodifiableSet(getClassInstances(classHandle));
+    }
+
+    // null when the attribute is not indexed
+    public IndexType getIndexType(int classHandle, String attributeName) {
+        AttributeIndex index = getAttributeIndexes(classHandle).get(attributeName);
+        return index == null ? null : index.type;
+    }
+
+    // the attribute must be indexed
+    public Set<String> find(int classHandle, String attributeName, String value) {
+        return getAttributeIndexes(classHandle).get(attributeName).find(value);
+    }
+
+    // the attribute must have a sorted index
+    public Set<String> findRange(int classHandle, String attributeName, String fromValue, String toValue) {
+        return getAttributeIndexes(classHandle).get(attributeName).findRange(fromValue, toValue);
+    }
+
+    private void removeFromClass(String instanceName, int classHandle) {
+        instancesByClass.get(classHandle).remove(instanceName);
+        for (AttributeIndex index : getAttributeIndexes(classHandle).values()) {
+            index.remove(instanceName);
+        }
+    }
+
+    // the set is kept once created, so a view of it reflects later instances of the class
+    private Set<String> getClassInstances(int classHandle) {
+        Set<String> instances = instancesByClass.get(classHandle);
+        if (instances == null) {
+            instances = new LinkedHashSet<String>();
+            instancesByClass.put(classHandle, instances);
+        }
+        return instances;
+    }
+
+    private Map<String, AttributeIndex> getAttributeIndexes(int classHandle) {
+        Map<String, AttributeIndex> indexes = attributeIndexes.get(classHandle);
+        if (indexes == null) {
+            Map<String, IndexType> declared =
+                    declaredIndexes.isEmpty() ? null : declaredIndexes.get(classNames.apply(classHandle));
+            if (declared == null || declared.isEmpty()) {
+                indexes = Collections.emptyMap();
+            } else {
+                indexes = new HashMap<String, AttributeIndex>();
+                for (Map.Entry<String, IndexType> entry : declared.entrySet()) {
+                    indexes.put(entry.getKey(), new AttributeIndex(entry.getValue()));
+                }
+            }
+            attributeIndexes.put(classHandle, indexes);
+        }
+        return indexes;
+    }
+}
@@ -20,6 +20,9 @@ import org.ieee.standards.ieee1516._2010.ObjectModelType;
 import org.ieee.standards.ieee1516._2010.ParameterType;
 import org.ieee.standards.ieee1516._2010.SharingEnumerations;
 import org.ieee.standards.ieee1516._2010.SharingType;
+import org.ieee.standards.ieee1516._2010.UpdateEnumerations;
+import org.ieee.standards.ieee1516._2010.UpdateRateType;
+import org.ieee.standards.ieee1516._2010.UpdateRatesType;
 import org.ieee.standards.ieee1516._2010._2010Package;
 import org.ieee.standards.ieee1516._2010.util._2010ResourceFactoryImpl;
 
@@ -99,6 +102,8 @@ public class ObjectModel {
     private Map<ObjectClassType, Set<AttributeType>> subscribedAttributes =
             new HashMap<ObjectClassType, Set<AttributeType>>();
     
+    private Map<String, Double> updateRates = new HashMap<String, Double>();
+    
     /**
      * Constructs a new document tree that mirrors the structure of the passed FOM file.
      * 
@@ -109,6 +114,7 @@ public class ObjectModel {
         this.objectModel = readObjectModel(filepath);
         initializeInteractionVariables();
         initializeObjectVariables();
+        initializeUpdateRates();
     }
     
     /**
@@ -308,6 +314,33 @@ public class ObjectModel {
         return null;
     }
     
+    /**
+     * Get the maximum rate at which the value of an attribute should be updated. An attribute has a maximum rate
+     * when its update type is Periodic and its update condition names an entry in the update rates table of the FOM.
+     * 
+     * @param attribute The attribute whose update rate should be retrieved
+     * @return The maximum update rate in Hz, or null if the FOM does not define an update rate for the attribute
+     */
+    public Double getUpdateRate(AttributeType attribute) {
+        if (attribute.getUpdateType() == null || attribute.getUpdateType().getValue() != UpdateEnumerations.PERIODIC) {
+            return null;
+        }
+        if (attribute.getUpdateCondition() == null || attribute.getUpdateCondition().getValue() == null) {
+            return null;
+        }
+        String updateCondition = attribute.getUpdateCondition().getValue().trim();
+        if (updateRates.containsKey(updateCondition)) {
+            return updateRates.get(updateCondition);
+        }
+        // allow the rate name to appear within a longer description
+        for (String token : updateCondition.split("\\s+")) {
+            if (updateRates.containsKey(token)) {
+                return updateRates.get(token);
+            }
+        }
+        return null;
+    }
+    
     /**
      * Checks if the passed object class is used in the {@link GatewayFederate} implementation. The gateway may in the
      * future handle some core objects to communicate with federates generated from UCEF. These objects might not be
@@ -494,6 +527,32 @@ public class ObjectModel {
         return object.getName().getValue(); // no parent object class
     }
     
+    private void initializeUpdateRates() {
+        log.trace("initializeUpdateRates");
+        
+        UpdateRatesType updateRatesTable = objectModel.getUpdateRates();
+        if (updateRatesTable == null) {
+            log.debug("no update rates table");
+            return;
+        }
+        
+        for (UpdateRateType updateRate : updateRatesTable.getUpdateRate()) {
+            if (updateRate.getName() == null || updateRate.getRate() == null
+                    || updateRate.getRate().getValue() == null) {
+                log.warn("ignored incomplete update rate definition");
+                continue;
+            }
+            String rateName = updateRate.getName().getValue();
+            double rate = updateRate.getRate().getValue().doubleValue();
+            if (rate <= 0) {
+                log.warn("ignored update rate " + rateName + " with non-positive rate " + rate);
+                continue;
+            }
+            updateRates.put(rateName, rate);
+            log.debug("processed update rate " + rateName + " of " + rate + " Hz");
+        }
+    }
+    
     private Set<AttributeType> expandAttributes(ObjectClassType object) {
         Set<AttributeType> attributes = new HashSet<AttributeType>(object.getAttribute());
         Set<String> definedAttributeNames = attributes.stream().
@@ -0,0 +1,95 @@
+package gov.nist.hla.gateway;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable, point-in-time copy of the state of every known object instance, returned from
+ * {@link GatewayFederate#getObjectStateSnapshot}. A new snapshot is published at the start of each logical time step,
+ * once the messages received for the time step have been processed. Unlike the other gateway classes, a snapshot can
+ * be read from any thread, and it does not change after it is published.
+ * <p>
+ * The state of an object instance is the same map returned by {@link GatewayFederate#getObjectState} at the time the
+ * snapshot was published. The state of an object instance that was not updated since the previous snapshot is shared
+ * between the two snapshots, and publishing a snapshot only copies the parts of each class that changed.
+ *
+ * @author Thomas Roth
+ */
+public class ObjectStateSnapshot {
+    static final ObjectStateSnapshot EMPTY = new ObjectStateSnapshot(0,
+            Collections.<String, SegmentedMap<Map<String, String>>>emptyMap(), SegmentedMap.<String>empty());
+
+    private final double time;
+
+    // map from object class name to instance name to attribute values; every nested map is unmodifiable
+    private final Map<String, SegmentedMap<Map<String, String>>> classes;
+
+    // map from instance name to object class name
+    private final SegmentedMap<String> instanceClasses;
+
+    ObjectStateSnapshot(double time, Map<String, SegmentedMap<Map<String, String>>> classes,
+            SegmentedMap<String> instanceClasses) {
+        this.time = time;
+        this.classes = classes;
+        this.instanceClasses = instanceClasses;
+    }
+
+    /**
+     * Get the logical time of the time step that this snapshot was published for.
+     *
+     * @return The logical time of the gateway federate when the snapshot was published
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Get the state of one object instance.
+     *
+     * @param instanceName The instance name of a discovered or registered object instance
+     * @return An unmodifiable map of attributes and their values, or null if the object instance was not known
+     */
+    public Map<String, String> getObjectState(String instanceName) {
+        String className = instanceClasses.get(instanceName);
+        if (className == null) {
+            return null;
+        }
+        return classes.get(className).get(instanceName);
+    }
+
+    /**
+     * Get the state of the known object instances of one object class. Instances of subclasses are not included.
+     *
+     * @param className The full HLA object class name
+     * @return An unmodifiable map from instance name to the instance state, which is empty if there are no instances
+     */
+    public Map<String, Map<String, String>> getClassState(String className) {
+        SegmentedMap<Map<String, String>> instances = classes.get(className);
+        if (instances == null) {
+            return Collections.emptyMap();
+        }
+        return instances;
+    }
+
+    /**
+     * Get the state of every known object instance, grouped by object class.
+     *
+     * @return An unmodifiable map from the full HLA object class name to the result of {@link #getClassState}
+     */
+    public Map<String, Map<String, Map<String, String>>> getObjectStates() {
+        return Collections.<String, Map<String, Map<String, String>>>unmodifiableMap(classes);
+    }
+
+    Map<String, SegmentedMap<Map<String, String>>> getClasses() {
+        return classes;
+    }
+
+    SegmentedMap<String> getInstanceClasses() {
+        return instanceClasses;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("object state snapshot t=%s classes=%d", time, classes.size());
+    }
+}
@@ -0,0 +1,103 @@
+package gov.nist.hla.gateway;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// publishes ObjectStateSnapshot instances built from the object state changed since the previous snapshot
+// the class maps are segmented maps copied on write: only the segments with a changed instance are copied for a new
+// snapshot, along with the segments of the instance to class map that gained or lost an instance
+class ObjectStateSnapshotBuilder {
+    private final IntFunction<String> classNames;
+
+    // the class handle of each instance in the next snapshot; only used by the thread that updates the state
+    private final Map<String, Integer> instanceClasses = new HashMap<String, Integer>();
+
+    private final Set<String> changedInstances = new LinkedHashSet<String>();
+    private final Map<String, Integer> removedInstances = new HashMap<String, Integer>();
+
+    // written by the thread that updates the state and read by any thread
+    private volatile ObjectStateSnapshot latest = ObjectStateSnapshot.EMPTY;
+
+    public ObjectStateSnapshotBuilder(IntFunction<String> classNames) {
+        this.classNames = classNames;
+    }
+
+    public void markChanged(String instanceName, int classHandle) {
+        Integer oldClassHandle = instanceClasses.put(instanceName, classHandle);
+        if (oldClassHandle != null && oldClassHandle != classHandle) {
+            removedInstances.put(instanceName, oldClassHandle); // the name was reused by an instance of a new class
+        }
+        changedInstances.add(instanceName);
+    }
+
+    public void markRemoved(String instanceName) {
+        Integer classHandle = instanceClasses.remove(instanceName);
+        if (classHandle != null) {
+            changedInstances.remove(instanceName);
+            removedInstances.put(instanceName, classHandle);
+        }
+    }
+
+    // states returns the current values of an instance, or null if it has none
+    public void publish(double time, Function<String, Map<String, String>> states) {
+        Map<String, SegmentedMap<Map<String, String>>> classes = latest.getClasses();
+        SegmentedMap<String> instanceClassNames = latest.getInstanceClasses();
+        if (!changedInstances.isEmpty() || !removedInstances.isEmpty()) {
+            Map<String, SegmentedMap.Editor<Map<String, String>>> editors =
+                    new HashMap<String, SegmentedMap.Editor<Map<String, String>>>();
+            SegmentedMap.Editor<String> instanceClassEditor = instanceClassNames.edit();
+            for (Map.Entry<String, Integer> entry : removedInstances.entrySet()) {
+                editClass(classes, editors, entry.getValue()).remove(entry.getKey());
+                instanceClassEditor.remove(entry.getKey());
+            }
+            for (String instanceName : changedInstances) {
+                Map<String, String> values = states.apply(instanceName);
+                Map<String, String> copy = values == null
+                        ? Collections.<String, String>emptyMap()
+                        : Collections.unmodifiableMap(new HashMap<String, String>(values));
+                int classHandle = instanceClasses.get(instanceName);
+                editClass(classes, editors, classHandle).put(instanceName, copy);
+                String className = classNames.apply(classHandle);
+                if (removedInstances.containsKey(instanceName)
+                        || !className.equals(instanceClassNames.get(instanceName))) {
+                    instanceClassEditor.put(instanceName, className);
+                }
+            }
+            classes = new HashMap<String, SegmentedMap<Map<String, String>>>(classes);
+            for (Map.Entry<String, SegmentedMap.Editor<Map<String, String>>> entry : editors.entrySet()) {
+                SegmentedMap<Map<String, String>> instances = entry.getValue().build();
+                if (instances.isEmpty()) {
+                    classes.remove(entry.getKey());
+                } else {
+                    classes.put(entry.getKey(), instances);
+                }
+            }
+            instanceClassNames = instanceClassEditor.build();
+            changedInstances.clear();
+            removedInstances.clear();
+        }
+        latest = new ObjectStateSnapshot(time, classes, instanceClassNames);
+    }
+
+    public ObjectStateSnapshot getLatest() {
+        return latest;
+    }
+
+    // the edit of a class map for the next snapshot, started on the first change to the class
+    private SegmentedMap.Editor<Map<String, String>> editClass(Map<String, SegmentedMap<Map<String, String>>> classes,
+            Map<String, SegmentedMap.Editor<Map<String, String>>> editors, int classHandle) {
+        String className = classNames.apply(classHandle);
+        SegmentedMap.Editor<Map<String, String>> editor = editors.get(className);
+        if (editor == null) {
+            SegmentedMap<Map<String, String>> published = classes.get(className);
+            editor = published == null ? SegmentedMap.<Map<String, String>>empty().edit() : published.edit();
+            editors.put(className, editor);
+        }
+        return editor;
+    }
+}
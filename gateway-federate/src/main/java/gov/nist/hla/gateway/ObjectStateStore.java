@@ -0,0 +1,295 @@
+package gov.nist.hla.gateway;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import gov.nist.hla.gateway.GatewayFederateConfig.IndexType;
+
+// the latest attribute values of each known object instance
+// registered instances are kept until they are deleted; discovered instances are kept until they are removed, or
+// until they are evicted as the least recently used instance when a limit is exceeded or after an idle timeout
+class ObjectStateStore {
+    private static final Logger log = LogManager.getLogger();
+
+    private static class DiscoveredInstance {
+        private long estimatedBytes;
+        private long lastUpdateNanos;
+    }
+
+    private final ObjectStateTable table;
+    private final ObjectIndex index;
+    private final ChangeIndex changeIndex; // null when changes are not tracked
+    private ObjectStateSnapshotBuilder snapshots = null; // null when snapshots are not published
+
+    // each update moves an instance to the end, so the first entry is the least recently updated
+    private final LinkedHashMap<String, DiscoveredInstance> discoveredInstances =
+            new LinkedHashMap<String, DiscoveredInstance>();
+
+    private final int maxDiscoveredInstances; // 0 when unlimited
+    private final long maxDiscoveredBytes; // 0 when unlimited
+    private final long idleTimeoutNanos; // 0 when discovered instances are never idle
+
+    private long discoveredBytes = 0;
+
+    public ObjectStateStore(ObjectStateTable table, ObjectIndex index, ChangeIndex changeIndex,
+            int maxDiscoveredInstances, long maxDiscoveredBytes, long idleTimeoutNanos) {
+        this.table = table;
+        this.index = index;
+        this.changeIndex = changeIndex;
+        this.maxDiscoveredInstances = maxDiscoveredInstances;
+        this.maxDiscoveredBytes = maxDiscoveredBytes;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+    }
+
+    // a read-only view, or null when the instance is not known or was evicted
+    public Map<String, String> get(String instanceName) {
+        return table.get(instanceName);
+    }
+
+    public void putRegistered(String instanceName, int classHandle) {
+        putRegistered(instanceName, classHandle, 0);
+    }
+
+    public void putRegistered(String instanceName, int classHandle, int expectedAttributes) {
+        table.add(instanceName, classHandle, expectedAttributes);
+        index.add(instanceName, classHandle);
+        if (snapshots != null) {
+            snapshots.markChanged(instanceName, classHandle);
+        }
+    }
+
+    public void reserveRegistered(int count) {
+        table.reserve(count);
+    }
+
+    // records the values sent for an instance registered by this federate
+    public void updateRegistered(AttributeUpdate update, double time) {
+        if (!table.contains(update.getInstanceName())) {
+            log.debug("tracking state for the new object instance {}", update.getInstanceName());
+            table.add(update.getInstanceName(), update.getClassHandle(), update.size());
+            index.add(update.getInstanceName(), update.getClassHandle());
+        }
+        table.putAll(update);
+        index.update(update);
+        if (changeIndex != null) {
+            changeIndex.record(update, time);
+        }
+        if (snapshots != null) {
+            snapshots.markChanged(update.getInstanceName(), update.getClassHandle());
+        }
+    }
+
+    // tracks an instance with no values when it is discovered, so it is known before its first reflection
+    public void addDiscovered(String instanceName, int classHandle, long now) {
+        if (discoveredInstances.containsKey(instanceName)) {
+            return;
+        }
+        DiscoveredInstance instance = addDiscoveredInstance(instanceName, classHandle, 0);
+        instance.lastUpdateNanos = now;
+        discoveredInstances.put(instanceName, instance);
+        if (snapshots != null) {
+            snapshots.markChanged(instanceName, classHandle);
+        }
+        evictOverLimit(instanceName);
+    }
+
+    public void updateDiscovered(String instanceName, int classHandle, Map<String, String> attributes, double time,
+            long now) {
+        DiscoveredInstance instance = discoveredInstances.remove(instanceName);
+        if (instance == null) {
+            instance = addDiscoveredInstance(instanceName, classHandle, attributes.size());
+        }
+        discoveredInstances.put(instanceName, instance);
+        long delta = table.putAll(instanceName, attributes);
+        instance.estimatedBytes += delta;
+        discoveredBytes += delta;
+        index.update(instanceName, classHandle, attributes);
+        instance.lastUpdateNanos = now;
+        if (changeIndex != null) {
+            changeIndex.record(instanceName, attributes, time);
+        }
+        if (snapshots != null) {
+            snapshots.markChanged(instanceName, classHandle);
+        }
+        evictOverLimit(instanceName);
+    }
+
+    public void remove(String instanceName) {
+        table.remove(instanceName);
+        index.remove(instanceName);
+        if (changeIndex != null) {
+            changeIndex.remove(instanceName);
+        }
+        if (snapshots != null) {
+            snapshots.markRemoved(instanceName);
+        }
+        DiscoveredInstance instance = discoveredInstances.remove(instanceName);
+        if (instance != null) {
+            discoveredBytes -= instance.estimatedBytes;
+        }
+    }
+
+    // an unmodifiable view of the known instances of exactly classHandle
+    public Set<String> getInstances(int classHandle) {
+        return index.getInstances(classHandle);
+    }
+
+    // null when the attribute is not indexed
+    public IndexType getIndexType(int classHandle, String attributeName) {
+        return index.getIndexType(classHandle, attributeName);
+    }
+
+    // uses the attribute index when there is one, and otherwise scans the values of the class in the table, or looks
+    // up each instance of the class when the table cannot scan by class
+    public Set<String> find(int classHandle, String attributeName, String value) {
+        if (index.getIndexType(classHandle, attributeName) != null) {
+            return index.find(classHandle, attributeName, value);
+        }
+        Set<String> result = new LinkedHashSet<String>();
+        if (table.scanEqual(classHandle, attributeName, value, result)) {
+            return result;
+        }
+        for (String instanceName : index.getInstances(classHandle)) {
+            if (value.equals(table.get(instanceName).get(attributeName))) {
+                result.add(instanceName);
+            }
+        }
+        return result;
+    }
+
+    // uses the attribute index when it is sorted, and otherwise scans the instances of the class like find
+    public Set<String> findRange(int classHandle, String attributeName, String fromValue, String toValue) {
+        if (index.getIndexType(classHandle, attributeName) == IndexType.SORTED) {
+            return index.findRange(classHandle, attributeName, fromValue, toValue);
+        }
+        ObjectIndex.SortKey from = fromValue == null ? null : ObjectIndex.SortKey.lowerBound(fromValue);
+        ObjectIndex.SortKey to = toValue == null ? null : ObjectIndex.SortKey.upperBound(toValue);
+        Predicate<String> isInRange = value -> ObjectIndex.SortKey.isInRange(new ObjectIndex.SortKey(value), from, to);
+        Set<String> result = new LinkedHashSet<String>();
+        if (table.scan(classHandle, attributeName, isInRange, result)) {
+            return result;
+        }
+        for (String instanceName : index.getInstances(classHandle)) {
+            String value = table.get(instanceName).get(attributeName);
+            if (value != null && isInRange.test(value)) {
+                result.add(instanceName);
+            }
+        }
+        return result;
+    }
+
+    // must be set before the first instance is added
+    public void setSnapshotBuilder(ObjectStateSnapshotBuilder snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    public boolean isPublishingSnapshots() {
+        return snapshots != null;
+    }
+
+    public void publishSnapshot(double time) {
+        if (snapshots != null) {
+            snapshots.publish(time, table::get);
+        }
+    }
+
+    // safe to call from any thread; the snapshots must be published
+    public ObjectStateSnapshot getSnapshot() {
+        return snapshots.getLatest();
+    }
+
+    public boolean isTrackingChanges() {
+        return changeIndex != null;
+    }
+
+    // the changes must be tracked
+    public long getVersion() {
+        return changeIndex.getVersion();
+    }
+
+    // the changes must be tracked
+    public List<AttributeChange> getChangesSinceVersion(long version) {
+        return toAttributeChanges(changeIndex.getChangesSinceVersion(version));
+    }
+
+    // the changes must be tracked
+    public List<AttributeChange> getChangesSinceTime(double time) {
+        return toAttributeChanges(changeIndex.getChangesSinceTime(time));
+    }
+
+    // evicts the discovered instances that were not updated within the idle timeout
+    public void evictIdle(long now) {
+        if (idleTimeoutNanos <= 0) {
+            return;
+        }
+        Iterator<Map.Entry<String, DiscoveredInstance>> iterator = discoveredInstances.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, DiscoveredInstance> entry = iterator.next();
+            if (now - entry.getValue().lastUpdateNanos < idleTimeoutNanos) {
+                break; // the later entries were updated more recently
+            }
+            log.debug("evicted idle object instance {}", entry.getKey());
+            evict(iterator, entry);
+        }
+    }
+
+    // keeps the most recently updated instance, so a single instance larger than maxDiscoveredBytes is still kept
+    private void evictOverLimit(String updatedInstanceName) {
+        Iterator<Map.Entry<String, DiscoveredInstance>> iterator = discoveredInstances.entrySet().iterator();
+        while (isOverLimit() && iterator.hasNext()) {
+            Map.Entry<String, DiscoveredInstance> entry = iterator.next();
+            if (entry.getKey().equals(updatedInstanceName)) {
+                break;
+            }
+            log.debug("evicted least recently used object instance {}", entry.getKey());
+            evict(iterator, entry);
+        }
+    }
+
+    private DiscoveredInstance addDiscoveredInstance(String instanceName, int classHandle, int expectedAttributes) {
+        log.debug("tracking state for the new object instance {}", instanceName);
+        DiscoveredInstance instance = new DiscoveredInstance();
+        instance.estimatedBytes = table.add(instanceName, classHandle, expectedAttributes);
+        discoveredBytes += instance.estimatedBytes;
+        index.add(instanceName, classHandle);
+        return instance;
+    }
+
+    private void evict(Iterator<Map.Entry<String, DiscoveredInstance>> iterator,
+            Map.Entry<String, DiscoveredInstance> entry) {
+        table.remove(entry.getKey());
+        index.remove(entry.getKey());
+        if (changeIndex != null) {
+            changeIndex.remove(entry.getKey());
+        }
+        if (snapshots != null) {
+            snapshots.markRemoved(entry.getKey());
+        }
+        discoveredBytes -= entry.getValue().estimatedBytes;
+        iterator.remove();
+    }
+
+    private List<AttributeChange> toAttributeChanges(List<ChangeIndex.Change> changes) {
+        List<AttributeChange> attributeChanges = new ArrayList<AttributeChange>(changes.size());
+        for (ChangeIndex.Change change : changes) {
+            String value = table.get(change.getInstanceName()).get(change.getAttributeName());
+            attributeChanges.add(new AttributeChange(change.getInstanceName(), change.getAttributeName(), value,
+                    change.getVersion(), change.getTime()));
+        }
+        return attributeChanges;
+    }
+
+    private boolean isOverLimit() {
+        return (maxDiscoveredInstances > 0 && discoveredInstances.size() > maxDiscoveredInstances)
+                || (maxDiscoveredBytes > 0 && discoveredBytes > maxDiscoveredBytes);
+    }
+}
@@ -0,0 +1,36 @@
+package gov.nist.hla.gateway;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// stores the attribute values of the object instances tracked by the ObjectStateStore
+// the sizes returned are estimates of the heap used, which the store uses to enforce its memory limit
+interface ObjectStateTable {
+    // adds an instance with no values, replacing any instance with the same name, and returns its size
+    long add(String instanceName, int classHandle, int expectedAttributes);
+
+    boolean contains(String instanceName);
+
+    // the instance must have been added; returns the change in size
+    long putAll(String instanceName, Map<String, String> values);
+
+    // the instance must have been added; returns the change in size
+    long putAll(AttributeUpdate update);
+
+    // a read-only view of the values that reflects later changes, or null if the instance was not added
+    Map<String, String> get(String instanceName);
+
+    void remove(String instanceName);
+
+    // prepares for count more instances to be added
+    void reserve(int count);
+
+    // adds the instances of exactly classHandle with the value for attributeName to result
+    // returns false without scanning when the table does not store the instances of each class together
+    boolean scanEqual(int classHandle, String attributeName, String value, Collection<String> result);
+
+    // adds the instances of exactly classHandle with a value for attributeName that matches to result
+    // returns false without scanning when the table does not store the instances of each class together
+    boolean scan(int classHandle, String attributeName, Predicate<String> matches, Collection<String> result);
+}
@@ -0,0 +1,175 @@
+package gov.nist.hla.gateway;
+
+import hla.rti.NameNotFound;
+
+/**
+ * A reusable attribute update for a single HLA object instance, created using
+ * {@link GatewayFederate#prepareObjectUpdate}. The object instance, object class, and attribute handles are resolved
+ * once when the template is prepared, and each attribute defined in the object model for the class is assigned a
+ * fixed slot index. Values are assigned by slot index and retained between calls to
+ * {@link GatewayFederate#updateObject(ObjectUpdateTemplate)} until they are overwritten or {@link #clear} is invoked.
+ * Only the attributes with a value are sent.
+ * <p>
+ * A template is not thread safe, and it can only be used with the {@link GatewayFederate} that prepared it.
+ *
+ * @author Thomas Roth
+ */
+public class ObjectUpdateTemplate {
+    private final GatewayFederate owner;
+    private final String instanceName;
+    private final int instanceHandle;
+    private final String className;
+    private final int classHandle;
+    private final TemplateSlots attributes;
+
+    ObjectUpdateTemplate(GatewayFederate owner, String instanceName, int instanceHandle, String className,
+            int classHandle, TemplateSlots attributes) {
+        this.owner = owner;
+        this.instanceName = instanceName;
+        this.instanceHandle = instanceHandle;
+        this.className = className;
+        this.classHandle = classHandle;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Get the object instance this template updates.
+     *
+     * @return The unique object instance name
+     */
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    /**
+     * Get the HLA object class of the object instance.
+     *
+     * @return The full HLA object class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Get the number of attribute slots, which includes the attributes inherited from parent object classes.
+     *
+     * @return The number of attributes defined for the object class
+     */
+    public int getSlotCount() {
+        return attributes.size();
+    }
+
+    /**
+     * Get the slot index for an attribute. The index does not change for the lifetime of the template.
+     *
+     * @param attributeName The name of an attribute of the object class
+     * @return A value in the range [0, {@link #getSlotCount})
+     * @throws NameNotFound if attributeName is not an attribute of the object class
+     */
+    public int getSlot(String attributeName)
+            throws NameNotFound {
+        return attributes.indexOf(attributeName);
+    }
+
+    /**
+     * Get the attribute name assigned to a slot.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @return The attribute name as defined in the object model
+     */
+    public String getSlotName(int slot) {
+        return attributes.getName(slot);
+    }
+
+    /**
+     * Set the value of an attribute. The value is encoded immediately.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new attribute value
+     */
+    public void setValue(int slot, String value) {
+        attributes.setValue(slot, value);
+    }
+
+    /**
+     * Set the value of an attribute to a double. The value is sent as the same text as {@link Double#toString(double)},
+     * but it is encoded without creating an intermediate string.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new attribute value
+     */
+    public void setDouble(int slot, double value) {
+        attributes.setDouble(slot, value);
+    }
+
+    /**
+     * Set the value of an attribute to a long. The value is sent as the same text as {@link Long#toString(long)}, but
+     * it is encoded without creating an intermediate string.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new attribute value
+     */
+    public void setLong(int slot, long value) {
+        attributes.setLong(slot, value);
+    }
+
+    /**
+     * Set the value of an attribute to a boolean. The value is sent as the text true or false.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new attribute value
+     */
+    public void setBoolean(int slot, boolean value) {
+        attributes.setBoolean(slot, value);
+    }
+
+    /**
+     * Set the value of an attribute to bytes that are sent without conversion. The array is not copied, and it must
+     * not be modified after it is set, as the object state keeps the array that was sent. {@link #getValue} decodes
+     * the bytes using the configured value encoding.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @param value The new attribute value as it will be sent
+     */
+    public void setBytes(int slot, byte[] value) {
+        attributes.setBytes(slot, value);
+    }
+
+    /**
+     * Get the value of an attribute.
+     *
+     * @param slot A value in the range [0, {@link #getSlotCount})
+     * @return The current attribute value, or null if the attribute has no value
+     */
+    public String getValue(int slot) {
+        return attributes.getValue(slot);
+    }
+
+    /**
+     * Remove all attribute values.
+     */
+    public void clear() {
+        attributes.clear();
+    }
+
+    GatewayFederate getOwner() {
+        return owner;
+    }
+
+    int getInstanceHandle() {
+        return instanceHandle;
+    }
+
+    int getClassHandle() {
+        return classHandle;
+    }
+
+    TemplateSlots getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public String toString() {
+        return instanceName + " " + attributes.toString();
+    }
+}
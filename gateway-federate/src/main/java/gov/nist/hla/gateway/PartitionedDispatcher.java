@@ -0,0 +1,81 @@
+package gov.nist.hla.gateway;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// runs callback tasks on a fixed set of single threaded partitions
+// tasks with the same partition key run in the order they were dispatched
+class PartitionedDispatcher {
+    private static final Logger log = LogManager.getLogger();
+
+    private final ExecutorService[] partitions;
+
+    // the most recent task for each partition; a single threaded executor completes its tasks in order
+    private final Future<?>[] lastTasks;
+
+    // first exception thrown by a task since the last call to awaitCompletion
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+    public PartitionedDispatcher(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("invalid number of dispatch threads " + threads);
+        }
+        this.partitions = new ExecutorService[threads];
+        this.lastTasks = new Future<?>[threads];
+        for (int i = 0; i < threads; i++) {
+            final String threadName = "gateway-dispatch-" + i;
+            partitions[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        log.info("dispatching callbacks on {} threads", threads);
+    }
+
+    public void dispatch(int partitionKey, Runnable task) {
+        int partition = (partitionKey & Integer.MAX_VALUE) % partitions.length;
+        lastTasks[partition] = partitions[partition].submit(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("exception in callback on " + Thread.currentThread().getName(), e);
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    // blocks until every dispatched task has completed, and rethrows the first exception thrown by a task
+    public void awaitCompletion() {
+        for (int i = 0; i < partitions.length; i++) {
+            if (lastTasks[i] == null) {
+                continue;
+            }
+            try {
+                lastTasks[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while waiting for callbacks to complete", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause()); // unreachable code
+            }
+            lastTasks[i] = null;
+        }
+        RuntimeException e = failure.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+    }
+}
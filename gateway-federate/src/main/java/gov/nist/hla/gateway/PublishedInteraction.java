@@ -0,0 +1,37 @@
+package gov.nist.hla.gateway;
+
+import java.util.Map;
+
+import hla.rti.SuppliedParameters;
+
+// the class handle of an interaction class this federate sends, and the encoded default values of its
+// C2WInteractionRoot parameters when the class derives from C2WInteractionRoot
+class PublishedInteraction {
+    private final int classHandle;
+
+    // parallel arrays that are empty when the class does not derive from C2WInteractionRoot
+    private final String[] rootParameterNames;
+    private final int[] rootParameterHandles;
+    private final byte[][] rootParameterValues;
+
+    public PublishedInteraction(int classHandle, String[] rootParameterNames, int[] rootParameterHandles,
+            byte[][] rootParameterValues) {
+        this.classHandle = classHandle;
+        this.rootParameterNames = rootParameterNames;
+        this.rootParameterHandles = rootParameterHandles;
+        this.rootParameterValues = rootParameterValues;
+    }
+
+    public int getClassHandle() {
+        return classHandle;
+    }
+
+    // adds the default value of each root parameter that is not a key in parameters
+    public void addRootParameters(SuppliedParameters suppliedParameters, Map<String, String> parameters) {
+        for (int i = 0; i < rootParameterNames.length; i++) {
+            if (!parameters.containsKey(rootParameterNames[i])) {
+                suppliedParameters.add(rootParameterHandles[i], rootParameterValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package gov.nist.hla.gateway;
+
+/**
+ * An optional extension of {@link GatewayCallback} for applications that forward received values without
+ * interpreting them. When the {@link GatewayFederate} is constructed with an implementation of this interface, it
+ * invokes {@link #receiveRawInteraction} and {@link #receiveRawObject} in place of
+ * {@link GatewayCallback#receiveInteraction} and {@link GatewayCallback#receiveObject}. The received values are never
+ * decoded into strings and are not copied into a map.
+ * <p>
+ * The {@link GatewayFederate} does not decode reflected attributes for an implementation of this interface, and so
+ * {@link GatewayFederate#getObjectState} only contains the values sent by this federate.
+ *
+ * @author Thomas Roth
+ */
+public interface RawGatewayCallback extends GatewayCallback {
+    /**
+     * This callback is invoked once per received interaction in place of {@link GatewayCallback#receiveInteraction}.
+     * It is invoked at the same points of the life cycle.
+     *
+     * @param timeStep The last requested logical time
+     * @param classHandle The RTI handle of the received interaction class
+     * @param className The HLA class name of the received interaction
+     * @param parameters A view of the received parameters that is only valid for the duration of this call
+     */
+    void receiveRawInteraction(Double timeStep, int classHandle, String className, RawValues parameters);
+
+    /**
+     * This callback is invoked once per received object reflection in place of {@link GatewayCallback#receiveObject}.
+     * It is invoked at the same points of the life cycle.
+     *
+     * @param timeStep The last requested logical time
+     * @param classHandle The RTI handle of the updated object's class
+     * @param className The HLA class name of the updated object
+     * @param instanceName The unique instance name of the updated object
+     * @param attributes A view of the received attributes that is only valid for the duration of this call
+     */
+    void receiveRawObject(Double timeStep, int classHandle, String className, String instanceName,
+            RawValues attributes);
+}
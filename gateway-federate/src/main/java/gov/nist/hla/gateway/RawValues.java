@@ -0,0 +1,45 @@
+package gov.nist.hla.gateway;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only, indexed view of the parameter or attribute values of a single received message. The values are the
+ * undecoded bytes received from the RTI. This view is passed to the methods of {@link RawGatewayCallback} and is only
+ * valid for the duration of that call; the gateway reuses the same instance for the next message.
+ *
+ * @author Thomas Roth
+ */
+public interface RawValues {
+    /**
+     * Get the number of values in the received message.
+     *
+     * @return The number of parameters or attributes in the message
+     */
+    int size();
+
+    /**
+     * Get the RTI handle for the parameter or attribute at the given index.
+     *
+     * @param index A value in the range [0, {@link #size})
+     * @return The RTI parameter or attribute handle
+     */
+    int getHandle(int index);
+
+    /**
+     * Get the name of the parameter or attribute at the given index.
+     *
+     * @param index A value in the range [0, {@link #size})
+     * @return The parameter or attribute name as defined in the object model
+     */
+    String getName(int index);
+
+    /**
+     * Get the raw value of the parameter or attribute at the given index. The returned buffer is a read-only view of
+     * the bytes received from the RTI, with its position at the first byte and its limit after the last byte. The
+     * bytes are not copied, so they must be copied if the value is needed after the callback returns.
+     *
+     * @param index A value in the range [0, {@link #size})
+     * @return A read-only buffer of the bytes received from the RTI for the parameter or attribute
+     */
+    ByteBuffer getValue(int index);
+}
@@ -0,0 +1,63 @@
+package gov.nist.hla.gateway;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// reusable implementation of RawValues that is refilled for each received message
+class RawValuesBuffer implements RawValues {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size = 0;
+    private int[] handles = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private byte[][] values = new byte[INITIAL_CAPACITY][];
+
+    public void clear() {
+        // drop references so received buffers can be collected
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    public void add(int handle, String name, byte[] value) {
+        if (size == handles.length) {
+            int capacity = handles.length * 2;
+            handles = Arrays.copyOf(handles, capacity);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        handles[size] = handle;
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getHandle(int index) {
+        checkIndex(index);
+        return handles[index];
+    }
+
+    @Override
+    public String getName(int index) {
+        checkIndex(index);
+        return names[index];
+    }
+
+    @Override
+    public ByteBuffer getValue(int index) {
+        checkIndex(index);
+        return ByteBuffer.wrap(values[index]).asReadOnlyBuffer();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + size);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package gov.nist.hla.gateway;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import gov.nist.hla.Interaction;
+import gov.nist.hla.ObjectReflection;
+import gov.nist.hla.RingBuffer;
+
+// three stage receive path: the RTI thread submits undecoded events, a decode thread converts their values into maps,
+// and a dispatch thread invokes the callback. Events move between stages in a fixed set of preallocated slots, and
+// completed slots are handed back to the RTI thread so it remains the only thread that touches the object state and
+// the event pools of the federate ambassador. The parameter and attribute names are resolved on the RTI thread when
+// an event is submitted, because the name cache is not thread safe and is still written to by the RTI thread.
+class ReceivePipeline {
+    private static final Logger log = LogManager.getLogger();
+
+    private static final int INITIAL_NAME_CAPACITY = 8;
+
+    // invoked on the dispatch thread for each decoded event
+    public interface Delivery {
+        void deliverInteraction(Double timeStep, int classHandle, String className, Map<String, String> parameters);
+
+        void deliverObject(Double timeStep, int classHandle, String className, String instanceName,
+                Map<String, String> attributes);
+    }
+
+    // invoked on the RTI thread for each event after its callback has completed
+    public interface CompletionHandler {
+        void interactionCompleted(Interaction interaction);
+
+        // the values of the object reflection were decoded by the pipeline and are cached in the object reflection
+        void objectReflectionCompleted(ObjectReflection objectReflection);
+    }
+
+    private static class Slot {
+        private Double timeStep;
+        private String className;
+        private Interaction interaction;
+        private ObjectReflection objectReflection;
+        private String[] names = new String[INITIAL_NAME_CAPACITY]; // by parameter or attribute index
+        private Map<String, String> values;
+
+        public void setNameCount(int count) {
+            if (count > names.length) {
+                names = new String[Math.max(count, names.length * 2)];
+            }
+        }
+
+        public void clear() {
+            timeStep = null;
+            className = null;
+            interaction = null;
+            objectReflection = null;
+            Arrays.fill(names, null);
+            values = null;
+        }
+    }
+
+    private final HandleNameCache nameCache; // only accessed by the RTI thread
+    private final Delivery delivery;
+    private final CompletionHandler completionHandler;
+
+    private final RingBuffer<Slot> freeSlots; // only accessed by the RTI thread
+    private final BlockingQueue<Slot> decodeQueue;
+    private final BlockingQueue<Slot> dispatchQueue;
+    private final BlockingQueue<Slot> completedQueue;
+    private int slotsInFlight = 0;
+
+    private final Thread decodeThread;
+    private final Thread dispatchThread;
+
+    // first exception thrown by a stage since the last call to awaitCompletion
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+    public ReceivePipeline(int capacity, HandleNameCache nameCache, Delivery delivery,
+            CompletionHandler completionHandler) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("invalid pipeline capacity " + capacity);
+        }
+        this.nameCache = nameCache;
+        this.delivery = delivery;
+        this.completionHandler = completionHandler;
+
+        this.freeSlots = new RingBuffer<Slot>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            freeSlots.add(new Slot());
+        }
+        this.decodeQueue = new ArrayBlockingQueue<Slot>(capacity);
+        this.dispatchQueue = new ArrayBlockingQueue<Slot>(capacity);
+        this.completedQueue = new ArrayBlockingQueue<Slot>(capacity);
+
+        this.decodeThread = new Thread(this::runDecodeStage, "gateway-decode");
+        this.dispatchThread = new Thread(this::runDispatchStage, "gateway-dispatch");
+        decodeThread.setDaemon(true);
+        dispatchThread.setDaemon(true);
+        decodeThread.start();
+        dispatchThread.start();
+        log.info("receive pipeline started with capacity {}", capacity);
+    }
+
+    // the parameter names of the interaction must be in the name cache before this call
+    public void submit(Double timeStep, String className, Interaction interaction) {
+        Slot slot = acquireSlot();
+        slot.timeStep = timeStep;
+        slot.className = className;
+        slot.interaction = interaction;
+        slot.setNameCount(interaction.getParameterCount());
+        for (int i = 0; i < interaction.getParameterCount(); i++) {
+            slot.names[i] = nameCache.getParameterName(interaction.getClassHandle(), interaction.getParameterHandle(i));
+        }
+        submit(slot);
+    }
+
+    // the attribute names of the object reflection must be in the name cache before this call
+    public void submit(Double timeStep, String className, ObjectReflection objectReflection) {
+        Slot slot = acquireSlot();
+        slot.timeStep = timeStep;
+        slot.className = className;
+        slot.objectReflection = objectReflection;
+        slot.setNameCount(objectReflection.getAttributeCount());
+        for (int i = 0; i < objectReflection.getAttributeCount(); i++) {
+            slot.names[i] = nameCache.getAttributeName(
+                    objectReflection.getClassHandle(), objectReflection.getAttributeHandle(i));
+        }
+        submit(slot);
+    }
+
+    // returns completed slots to the RTI thread without blocking
+    public void processCompleted() {
+        Slot slot;
+        while ((slot = completedQueue.poll()) != null) {
+            complete(slot);
+        }
+        rethrowFailure();
+    }
+
+    // blocks until every submitted event has completed, and rethrows the first exception thrown by a stage
+    public void awaitCompletion() {
+        while (slotsInFlight > 0) {
+            complete(takeCompleted());
+        }
+        rethrowFailure();
+    }
+
+    public void shutdown() {
+        decodeThread.interrupt();
+        dispatchThread.interrupt();
+    }
+
+    private Slot acquireSlot() {
+        processCompleted();
+        while (freeSlots.isEmpty()) {
+            complete(takeCompleted()); // back pressure when the pipeline is full
+        }
+        return freeSlots.poll();
+    }
+
+    private void submit(Slot slot) {
+        slotsInFlight++;
+        if (!decodeQueue.offer(slot)) {
+            throw new IllegalStateException("decode queue full"); // unreachable code
+        }
+    }
+
+    private Slot takeCompleted() {
+        try {
+            return completedQueue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for the receive pipeline", e);
+        }
+    }
+
+    private void complete(Slot slot) {
+        if (slot.interaction != null) {
+            completionHandler.interactionCompleted(slot.interaction);
+        } else {
+            completionHandler.objectReflectionCompleted(slot.objectReflection);
+        }
+        slot.clear();
+        freeSlots.add(slot);
+        slotsInFlight--;
+    }
+
+    private void rethrowFailure() {
+        RuntimeException e = failure.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void runDecodeStage() {
+        try {
+            while (true) {
+                Slot slot = decodeQueue.take();
+                try {
+                    slot.values = decode(slot);
+                } catch (RuntimeException e) {
+                    log.error("exception while decoding " + slot.className, e);
+                    failure.compareAndSet(null, e);
+                    slot.values = new HashMap<String, String>();
+                }
+                dispatchQueue.put(slot);
+            }
+        } catch (InterruptedException e) {
+            log.debug("decode stage stopped");
+        }
+    }
+
+    private void runDispatchStage() {
+        try {
+            while (true) {
+                Slot slot = dispatchQueue.take();
+                try {
+                    dispatch(slot);
+                } catch (RuntimeException e) {
+                    log.error("exception in callback for " + slot.className, e);
+                    failure.compareAndSet(null, e);
+                }
+                completedQueue.put(slot);
+            }
+        } catch (InterruptedException e) {
+            log.debug("dispatch stage stopped");
+        }
+    }
+
+    private Map<String, String> decode(Slot slot) {
+        Map<String, String> values = new HashMap<String, String>();
+        if (slot.interaction != null) {
+            Interaction interaction = slot.interaction;
+            for (int i = 0; i < interaction.getParameterCount(); i++) {
+                values.put(slot.names[i], interaction.getParameterValue(i));
+            }
+        } else {
+            ObjectReflection objectReflection = slot.objectReflection;
+            for (int i = 0; i < objectReflection.getAttributeCount(); i++) {
+                values.put(slot.names[i], objectReflection.getAttributeValue(i));
+            }
+        }
+        return values;
+    }
+
+    private void dispatch(Slot slot) {
+        if (slot.interaction != null) {
+            delivery.deliverInteraction(slot.timeStep, slot.interaction.getClassHandle(), slot.className, slot.values);
+        } else {
+            ObjectReflection objectReflection = slot.objectReflection;
+            delivery.deliverObject(slot.timeStep, objectReflection.getClassHandle(), slot.className,
+                    objectReflection.getInstanceName(), slot.values);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package gov.nist.hla.gateway;
+
+import java.util.Map;
+
+/**
+ * A read-only, indexed collection of the interactions and object reflections received by the {@link GatewayFederate}
+ * during one tick or one logical time step. Messages are grouped by HLA class, and the messages within each class are
+ * in the order they were received. This collection is passed to {@link BatchGatewayCallback#receiveBatch} and is only
+ * valid for the duration of that call; the gateway reuses the same instance for the next batch.
+ *
+ * @author Thomas Roth
+ */
+public interface ReceivedBatch {
+    /**
+     * Check whether the batch contains any messages.
+     *
+     * @return True if the batch contains no interactions and no object reflections
+     */
+    boolean isEmpty();
+
+    /**
+     * Get the number of distinct interaction classes in this batch.
+     *
+     * @return The number of interaction class groups
+     */
+    int getInteractionClassCount();
+
+    /**
+     * Get the HLA class name for a group of interactions.
+     *
+     * @param classIndex A value in the range [0, {@link #getInteractionClassCount})
+     * @return The HLA class name of every interaction in the group
+     */
+    String getInteractionClassName(int classIndex);
+
+    /**
+     * Get the number of interactions received for an interaction class.
+     *
+     * @param classIndex A value in the range [0, {@link #getInteractionClassCount})
+     * @return The number of interactions in the group
+     */
+    int getInteractionCount(int classIndex);
+
+    /**
+     * Get the parameters of a received interaction.
+     *
+     * @param classIndex A value in the range [0, {@link #getInteractionClassCount})
+     * @param index A value in the range [0, {@link #getInteractionCount})
+     * @return An unmodifiable map of parameter names to their received values
+     */
+    Map<String, String> getParameters(int classIndex, int index);
+
+    /**
+     * Get the number of distinct object classes in this batch.
+     *
+     * @return The number of object class groups
+     */
+    int getObjectClassCount();
+
+    /**
+     * Get the HLA class name for a group of object reflections.
+     *
+     * @param classIndex A value in the range [0, {@link #getObjectClassCount})
+     * @return The HLA class name of every object reflection in the group
+     */
+    String getObjectClassName(int classIndex);
+
+    /**
+     * Get the number of object reflections received for an object class.
+     *
+     * @param classIndex A value in the range [0, {@link #getObjectClassCount})
+     * @return The number of object reflections in the group
+     */
+    int getObjectCount(int classIndex);
+
+    /**
+     * Get the instance name of the object updated by a received object reflection.
+     *
+     * @param classIndex A value in the range [0, {@link #getObjectClassCount})
+     * @param index A value in the range [0, {@link #getObjectCount})
+     * @return The unique instance name of the updated object
+     */
+    String getInstanceName(int classIndex, int index);
+
+    /**
+     * Get the attributes of a received object reflection.
+     *
+     * @param classIndex A value in the range [0, {@link #getObjectClassCount})
+     * @param index A value in the range [0, {@link #getObjectCount})
+     * @return An unmodifiable map of attribute names to their received values
+     */
+    Map<String, String> getAttributes(int classIndex, int index);
+}
@@ -0,0 +1,116 @@
+package gov.nist.hla.gateway;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// reusable implementation of ReceivedBatch that groups messages by class in order of first arrival
+class ReceivedBatchBuffer implements ReceivedBatch {
+    private static class ClassGroup {
+        private final String className;
+        private final List<String> instanceNames = new ArrayList<String>(); // unused for interactions
+        private final List<Map<String, String>> values = new ArrayList<Map<String, String>>();
+
+        public ClassGroup(String className) {
+            this.className = className;
+        }
+
+        public void clear() {
+            instanceNames.clear();
+            values.clear();
+        }
+    }
+
+    // groups are kept across batches so a class does not allocate a new group each batch
+    private Map<String, ClassGroup> interactionGroups = new HashMap<String, ClassGroup>();
+    private Map<String, ClassGroup> objectGroups = new HashMap<String, ClassGroup>();
+
+    private List<ClassGroup> activeInteractionGroups = new ArrayList<ClassGroup>();
+    private List<ClassGroup> activeObjectGroups = new ArrayList<ClassGroup>();
+
+    public void addInteraction(String className, Map<String, String> parameters) {
+        ClassGroup group = activate(className, interactionGroups, activeInteractionGroups);
+        group.values.add(Collections.unmodifiableMap(parameters));
+    }
+
+    public void addObject(String className, String instanceName, Map<String, String> attributes) {
+        ClassGroup group = activate(className, objectGroups, activeObjectGroups);
+        group.instanceNames.add(instanceName);
+        group.values.add(Collections.unmodifiableMap(attributes));
+    }
+
+    public void clear() {
+        for (ClassGroup group : activeInteractionGroups) {
+            group.clear();
+        }
+        for (ClassGroup group : activeObjectGroups) {
+            group.clear();
+        }
+        activeInteractionGroups.clear();
+        activeObjectGroups.clear();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return activeInteractionGroups.isEmpty() && activeObjectGroups.isEmpty();
+    }
+
+    @Override
+    public int getInteractionClassCount() {
+        return activeInteractionGroups.size();
+    }
+
+    @Override
+    public String getInteractionClassName(int classIndex) {
+        return activeInteractionGroups.get(classIndex).className;
+    }
+
+    @Override
+    public int getInteractionCount(int classIndex) {
+        return activeInteractionGroups.get(classIndex).values.size();
+    }
+
+    @Override
+    public Map<String, String> getParameters(int classIndex, int index) {
+        return activeInteractionGroups.get(classIndex).values.get(index);
+    }
+
+    @Override
+    public int getObjectClassCount() {
+        return activeObjectGroups.size();
+    }
+
+    @Override
+    public String getObjectClassName(int classIndex) {
+        return activeObjectGroups.get(classIndex).className;
+    }
+
+    @Override
+    public int getObjectCount(int classIndex) {
+        return activeObjectGroups.get(classIndex).values.size();
+    }
+
+    @Override
+    public String getInstanceName(int classIndex, int index) {
+        return activeObjectGroups.get(classIndex).instanceNames.get(index);
+    }
+
+    @Override
+    public Map<String, String> getAttributes(int classIndex, int index) {
+        return activeObjectGroups.get(classIndex).values.get(index);
+    }
+
+    private ClassGroup activate(String className, Map<String, ClassGroup> groups, List<ClassGroup> activeGroups) {
+        ClassGroup group = groups.get(className);
+        if (group == null) {
+            group = new ClassGroup(className);
+            groups.put(className, group);
+        }
+        if (group.values.isEmpty()) {
+            activeGroups.add(group); // first message for this class in the current batch
+        }
+        return group;
+    }
+}
@@ -0,0 +1,182 @@
+package gov.nist.hla.gateway;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import gov.nist.hla.ValueCodec;
+
+// the values of one received interaction or object reflection by name, where each value is decoded on its first read
+// the map refers to the received bytes rather than to the reused Interaction or ObjectReflection, so it can be kept
+// after the callback returns; the first change decodes every value into a HashMap that backs the map from then on
+final class ReceivedValueMap extends AbstractMap<String, String> {
+    // a lookup by name scans the names of smaller maps
+    private static final int MAX_SCANNED_SIZE = 8;
+
+    private final ValueCodec codec;
+    private final String[] names;
+    private final byte[][] values;
+    private final String[] decodedValues; // null until the value is read
+    private int size = 0;
+
+    private Map<String, Integer> indexes = null; // built on the first lookup in a larger map
+    private Map<String, String> changed = null; // null until the map is changed
+
+    public ReceivedValueMap(ValueCodec codec, int capacity) {
+        this.codec = codec;
+        this.names = new String[capacity];
+        this.values = new byte[capacity][];
+        this.decodedValues = new String[capacity];
+    }
+
+    // the names must be unique; decodedValue can be null when the value has not been decoded
+    public void add(String name, byte[] value, String decodedValue) {
+        names[size] = name;
+        values[size] = value;
+        decodedValues[size] = decodedValue;
+        size++;
+    }
+
+    // the values of an unchanged map can be stored without decoding them
+    public boolean isChanged() {
+        return changed != null;
+    }
+
+    public ValueCodec getCodec() {
+        return codec;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public byte[] getBytes(int index) {
+        return values[index]; // not a copy
+    }
+
+    // null when the value has not been decoded
+    public String getDecodedValue(int index) {
+        return decodedValues[index];
+    }
+
+    @Override
+    public String get(Object key) {
+        if (changed != null) {
+            return changed.get(key);
+        }
+        int index = indexOf(key);
+        return index == -1 ? null : decode(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return changed != null ? changed.containsKey(key) : indexOf(key) != -1;
+    }
+
+    @Override
+    public int size() {
+        return changed != null ? changed.size() : size;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return change().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        return change().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        change().clear();
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (changed != null) {
+            return changed.entrySet();
+        }
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return changed != null ? changed.entrySet().iterator() : new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ReceivedValueMap.this.size();
+            }
+        };
+    }
+
+    // decodes each value as it is returned; removing an entry changes the map
+    private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+        private int nextIndex = 0;
+        private int lastIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastIndex = nextIndex++;
+            return new AbstractMap.SimpleImmutableEntry<String, String>(names[lastIndex], decode(lastIndex));
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex == -1) {
+                throw new IllegalStateException();
+            }
+            change().remove(names[lastIndex]); // the remaining entries are still read from the arrays
+            lastIndex = -1;
+        }
+    }
+
+    private int indexOf(Object key) {
+        if (size > MAX_SCANNED_SIZE) {
+            if (indexes == null) {
+                indexes = new HashMap<String, Integer>(MapObjectStateTable.capacityFor(size));
+                for (int i = 0; i < size; i++) {
+                    indexes.put(names[i], i);
+                }
+            }
+            Integer index = indexes.get(key);
+            return index == null ? -1 : index;
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String decode(int index) {
+        if (decodedValues[index] == null) {
+            decodedValues[index] = codec.decode(values[index]);
+        }
+        return decodedValues[index];
+    }
+
+    private Map<String, String> change() {
+        if (changed == null) {
+            changed = new HashMap<String, String>(MapObjectStateTable.capacityFor(size));
+            for (int i = 0; i < size; i++) {
+                changed.put(names[i], decode(i));
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,191 @@
+package gov.nist.hla.gateway;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// an immutable map of string keys split by hash into segments, where an edit copies only the segments it changes
+// a new version shares every unchanged segment with the version it was edited from, so publishing k changes to a map
+// of n entries copies about k segments of at most MAX_SEGMENT_SIZE entries and an array of n / MAX_SEGMENT_SIZE refs
+final class SegmentedMap<V> extends AbstractMap<String, V> {
+    // a version is resegmented when its segments average more than this many entries
+    private static final int MAX_SEGMENT_SIZE = 32;
+
+    private static final SegmentedMap<Object> EMPTY = new SegmentedMap<Object>(newSegments(1), 0);
+
+    // the changes to one version of a map, made by the thread that builds the next version
+    public static final class Editor<V> {
+        private final SegmentedMap<V> base;
+        private final HashMap<String, V>[] segments;
+        private final boolean[] isCopied;
+        private int size;
+
+        private Editor(SegmentedMap<V> base) {
+            this.base = base;
+            this.segments = base.segments.clone();
+            this.isCopied = new boolean[segments.length];
+            this.size = base.size;
+        }
+
+        public void put(String key, V value) {
+            int index = indexFor(key, segments.length);
+            HashMap<String, V> segment = segments[index];
+            boolean isNew = segment == null || !segment.containsKey(key);
+            if (!isNew && segment.get(key) == value) {
+                return; // unchanged, so the segment can still be shared
+            }
+            copy(index).put(key, value);
+            if (isNew) {
+                size++;
+            }
+        }
+
+        public void remove(String key) {
+            int index = indexFor(key, segments.length);
+            HashMap<String, V> segment = segments[index];
+            if (segment != null && segment.containsKey(key)) {
+                copy(index).remove(key);
+                size--;
+            }
+        }
+
+        // the editor must not be used after this call
+        public SegmentedMap<V> build() {
+            if (size == 0) {
+                return empty();
+            }
+            if (size > segments.length * MAX_SEGMENT_SIZE) {
+                return resegment();
+            }
+            for (int i = 0; i < segments.length; i++) {
+                if (isCopied[i] && segments[i].isEmpty()) {
+                    segments[i] = null;
+                }
+            }
+            return new SegmentedMap<V>(segments, size);
+        }
+
+        // copies every entry into twice as many segments as needed to stay under MAX_SEGMENT_SIZE on average
+        private SegmentedMap<V> resegment() {
+            int count = segments.length;
+            while (size * 2 > count * MAX_SEGMENT_SIZE) {
+                count *= 2;
+            }
+            HashMap<String, V>[] resegmented = newSegments(count);
+            for (HashMap<String, V> segment : segments) {
+                if (segment == null) {
+                    continue;
+                }
+                for (Map.Entry<String, V> entry : segment.entrySet()) {
+                    int index = indexFor(entry.getKey(), count);
+                    if (resegmented[index] == null) {
+                        resegmented[index] = new HashMap<String, V>();
+                    }
+                    resegmented[index].put(entry.getKey(), entry.getValue());
+                }
+            }
+            return new SegmentedMap<V>(resegmented, size);
+        }
+
+        // the copy of a segment that is modified for the next version, made on its first change
+        private HashMap<String, V> copy(int index) {
+            if (!isCopied[index]) {
+                HashMap<String, V> published = base.segments[index];
+                segments[index] = published == null ? new HashMap<String, V>() : new HashMap<String, V>(published);
+                isCopied[index] = true;
+            }
+            return segments[index];
+        }
+    }
+
+    // null for an empty segment; a published segment is never modified
+    private final HashMap<String, V>[] segments;
+    private final int size;
+
+    private SegmentedMap(HashMap<String, V>[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> SegmentedMap<V> empty() {
+        return (SegmentedMap<V>) EMPTY;
+    }
+
+    public Editor<V> edit() {
+        return new Editor<V>(this);
+    }
+
+    @Override
+    public V get(Object key) {
+        HashMap<String, V> segment = segments[indexFor(key, segments.length)];
+        return segment == null ? null : segment.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        HashMap<String, V> segment = segments[indexFor(key, segments.length)];
+        return segment != null && segment.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // the entries of each segment in turn; the entries cannot be modified
+    private class EntryIterator implements Iterator<Map.Entry<String, V>> {
+        private int nextSegment = 0;
+        private Iterator<Map.Entry<String, V>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && nextSegment < segments.length) {
+                HashMap<String, V> segment = segments[nextSegment++];
+                if (segment != null) {
+                    current = Collections.unmodifiableMap(segment).entrySet().iterator();
+                }
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+
+    // segment counts are powers of two
+    private static int indexFor(Object key, int segmentCount) {
+        int hash = key == null ? 0 : key.hashCode();
+        return (hash ^ (hash >>> 16)) & (segmentCount - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> HashMap<String, V>[] newSegments(int count) {
+        return (HashMap<String, V>[]) new HashMap<?, ?>[count];
+    }
+}
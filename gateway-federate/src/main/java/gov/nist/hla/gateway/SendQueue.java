@@ -0,0 +1,183 @@
+package gov.nist.hla.gateway;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import gov.nist.hla.gateway.GatewayFederateConfig.SendQueuePolicy;
+
+// a bounded queue of messages enqueued by any thread and sent by the thread that invoked run
+// a producer reserves one of the capacity slots with a compare-and-set before it adds its message, so REJECT and
+// DROP_OLDEST never take a lock; the lock only parks the producers that wait for space under BLOCK, which are
+// signalled when a message is polled or the queue is closed
+class SendQueue {
+    public static class Message {
+        private final boolean isInteraction;
+        private final String name; // the interaction class name or object instance name
+        private final Map<String, String> values;
+        private final double timestamp; // NaN for a receive order message
+
+        public Message(boolean isInteraction, String name, Map<String, String> values, double timestamp) {
+            this.isInteraction = isInteraction;
+            this.name = name;
+            this.values = values;
+            this.timestamp = timestamp;
+        }
+
+        public boolean isInteraction() {
+            return isInteraction;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, String> getValues() {
+            return values;
+        }
+
+        public double getTimestamp() {
+            return timestamp;
+        }
+
+        public boolean isTimestamped() {
+            return !Double.isNaN(timestamp);
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<Message>();
+
+    // the number of reserved slots, which includes the messages being added by producers
+    private final AtomicInteger reservedCount = new AtomicInteger();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile boolean isOpen = false;
+
+    // parks the producers waiting for space under BLOCK
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    private final int capacity;
+    private final SendQueuePolicy policy;
+
+    public SendQueue(int capacity, SendQueuePolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("send queue capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    // messages are only accepted between open and close
+    public void open() {
+        isOpen = true;
+    }
+
+    // rejects new messages and wakes the threads waiting for space; queued messages can still be polled
+    // a message offered while the queue closes can still be accepted
+    public void close() {
+        isOpen = false;
+        signalWaiting();
+    }
+
+    // returns false when the message was rejected, when the queue is closed, or when this thread was interrupted
+    // while waiting for space
+    // canWait is false for the thread that drains the queue, which treats BLOCK as REJECT
+    public boolean offer(Message message, boolean canWait) {
+        while (isOpen) {
+            int reserved = reservedCount.get();
+            if (reserved < capacity) {
+                if (reservedCount.compareAndSet(reserved, reserved + 1)) {
+                    queue.add(message);
+                    return true;
+                }
+                continue; // another thread took or released a slot
+            }
+            switch (policy) {
+                case DROP_OLDEST:
+                    if (queue.poll() != null) {
+                        droppedCount.incrementAndGet();
+                        queue.add(message); // takes over the slot of the dropped message
+                        return true;
+                    }
+                    Thread.yield(); // every slot is reserved by a producer that has not added its message yet
+                    break;
+                case BLOCK:
+                    if (!canWait || !awaitSpace()) {
+                        return false;
+                    }
+                    break;
+                case REJECT:
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    // returns false if this thread was interrupted
+    private boolean awaitSpace() {
+        lock.lock();
+        try {
+            // the count is raised before the slots are checked, and poll releases a slot before it reads the count,
+            // so either this thread sees the released slot or poll signals it
+            waitingCount.incrementAndGet();
+            while (isOpen && reservedCount.get() >= capacity) {
+                notFull.await();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waitingCount.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    // every waiting thread is signalled, as a thread that was signalled and then interrupted does not pass the signal
+    // on; the waiting threads compete for the released slots with the producers that are not waiting
+    private void signalWaiting() {
+        if (waitingCount.get() > 0) {
+            lock.lock();
+            try {
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // only called by the thread that drains the queue
+    public Message poll() {
+        Message message = queue.poll();
+        if (message != null) {
+            reservedCount.decrementAndGet();
+            signalWaiting();
+        }
+        return message;
+    }
+
+    public int size() {
+        return reservedCount.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // the number of messages discarded by DROP_OLDEST since the last call
+    public long takeDroppedCount() {
+        return droppedCount.getAndSet(0);
+    }
+
+    public void clear() {
+        while (queue.poll() != null) {
+            reservedCount.decrementAndGet();
+        }
+        signalWaiting();
+    }
+}
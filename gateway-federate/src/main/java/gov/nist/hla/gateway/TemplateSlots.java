@@ -0,0 +1,214 @@
+package gov.nist.hla.gateway;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import gov.nist.hla.ValueCodec;
+import hla.rti.NameNotFound;
+import hla.rti.RTIinternalError;
+import hla.rti.SuppliedParameters;
+import hla.rti.jlc.RtiFactoryFactory;
+
+// the parameter or attribute values of a send template, stored by slot index with their handles resolved
+// values are encoded when they are set so that each send only copies references into the supplied values
+// typed values are formatted and encoded into reused per-slot buffers, and their strings are decoded on request
+// the RTI takes each value as a whole array, so a typed value is copied out of its buffer once when it is first sent
+class TemplateSlots {
+    private static final int MIN_BUFFER_LENGTH = 32; // fits any formatted double or long in a single byte encoding
+
+    private final ValueCodec codec;
+
+    private final StringBuilder scratch = new StringBuilder(32);
+    private final byte[] encodedTrue;
+    private final byte[] encodedFalse;
+
+    private final String[] names;
+    private final int[] handles;
+
+    private final String[] defaultValues;
+    private final byte[][] encodedDefaultValues;
+
+    private final String[] values; // null until requested for a value that was set from bytes
+    private final byte[][] encodedValues; // null for a typed value that has not been copied out of its buffer
+
+    private final byte[][] buffers; // null until a typed value is set; only replaced to grow
+    private final int[] bufferLengths; // -1 when the buffer does not hold the value of the slot
+
+    public TemplateSlots(ValueCodec codec, String[] names, int[] handles, Map<String, String> defaults) {
+        this.codec = codec;
+        this.names = names;
+        this.handles = handles;
+        this.defaultValues = new String[names.length];
+        this.encodedDefaultValues = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            String defaultValue = defaults.get(names[i]);
+            if (defaultValue != null) {
+                defaultValues[i] = defaultValue;
+                encodedDefaultValues[i] = codec.encode(defaultValue);
+            }
+        }
+        this.values = Arrays.copyOf(defaultValues, names.length);
+        this.encodedValues = Arrays.copyOf(encodedDefaultValues, names.length);
+        this.buffers = new byte[names.length][];
+        this.bufferLengths = new int[names.length];
+        Arrays.fill(bufferLengths, -1);
+        this.encodedTrue = codec.encode(Boolean.TRUE.toString());
+        this.encodedFalse = codec.encode(Boolean.FALSE.toString());
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public int indexOf(String name)
+            throws NameNotFound {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new NameNotFound(name);
+    }
+
+    public String getName(int slot) {
+        checkSlot(slot);
+        return names[slot];
+    }
+
+    public int getHandle(int slot) {
+        checkSlot(slot);
+        return handles[slot];
+    }
+
+    public void setValue(int slot, String value) {
+        checkSlot(slot);
+        if (value == null) {
+            throw new NullPointerException("value for " + names[slot]);
+        }
+        values[slot] = value;
+        encodedValues[slot] = codec.encode(value);
+        bufferLengths[slot] = -1;
+    }
+
+    // the text written matches Double.toString, which is what the receiving federates parse
+    public void setDouble(int slot, double value) {
+        checkSlot(slot);
+        scratch.setLength(0);
+        encodeToBuffer(slot, scratch.append(value));
+    }
+
+    public void setLong(int slot, long value) {
+        checkSlot(slot);
+        scratch.setLength(0);
+        encodeToBuffer(slot, scratch.append(value));
+    }
+
+    public void setBoolean(int slot, boolean value) {
+        checkSlot(slot);
+        setEncodedValue(slot, value ? encodedTrue : encodedFalse); // never modified, so safe to share
+    }
+
+    // the array is not copied
+    public void setBytes(int slot, byte[] value) {
+        checkSlot(slot);
+        if (value == null) {
+            throw new NullPointerException("value for " + names[slot]);
+        }
+        setEncodedValue(slot, value);
+    }
+
+    // null when the slot has no value
+    public String getValue(int slot) {
+        checkSlot(slot);
+        return decodedValue(slot);
+    }
+
+    public boolean isSet(int slot) {
+        checkSlot(slot);
+        return encodedValues[slot] != null || bufferLengths[slot] != -1;
+    }
+
+    public void clear() {
+        System.arraycopy(defaultValues, 0, values, 0, names.length);
+        System.arraycopy(encodedDefaultValues, 0, encodedValues, 0, names.length);
+        Arrays.fill(bufferLengths, -1);
+    }
+
+    public SuppliedParameters toSuppliedParameters()
+            throws RTIinternalError {
+        SuppliedParameters suppliedParameters = RtiFactoryFactory.getRtiFactory().createSuppliedParameters();
+        for (int i = 0; i < names.length; i++) {
+            if (isSet(i)) {
+                suppliedParameters.add(handles[i], encodedValue(i));
+            }
+        }
+        return suppliedParameters;
+    }
+
+    // adds the set values to update with their encoded values; values that have not been decoded are not decoded
+    public void copyTo(AttributeUpdate update) {
+        for (int i = 0; i < names.length; i++) {
+            if (isSet(i)) {
+                update.add(handles[i], names[i], values[i], encodedValue(i));
+            }
+        }
+    }
+
+    private void setEncodedValue(int slot, byte[] encodedValue) {
+        values[slot] = null;
+        encodedValues[slot] = encodedValue;
+        bufferLengths[slot] = -1;
+    }
+
+    private void encodeToBuffer(int slot, CharSequence value) {
+        byte[] buffer = buffers[slot] == null ? new byte[MIN_BUFFER_LENGTH] : buffers[slot];
+        int length = codec.encode(value, buffer);
+        if (length > buffer.length) {
+            buffer = new byte[Math.max(length, 2 * buffer.length)];
+            codec.encode(value, buffer);
+        }
+        buffers[slot] = buffer;
+        values[slot] = null;
+        encodedValues[slot] = null;
+        bufferLengths[slot] = length;
+    }
+
+    // copies a typed value out of its buffer, as sent values are kept by the filters and the object state
+    private byte[] encodedValue(int slot) {
+        if (encodedValues[slot] == null && bufferLengths[slot] != -1) {
+            encodedValues[slot] = Arrays.copyOf(buffers[slot], bufferLengths[slot]);
+            bufferLengths[slot] = -1;
+        }
+        return encodedValues[slot];
+    }
+
+    private String decodedValue(int slot) {
+        if (values[slot] == null) {
+            if (encodedValues[slot] != null) {
+                values[slot] = codec.decode(encodedValues[slot]);
+            } else if (bufferLengths[slot] != -1) {
+                values[slot] = codec.decode(buffers[slot], 0, bufferLengths[slot]);
+            }
+        }
+        return values[slot];
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= names.length) {
+            throw new IndexOutOfBoundsException("slot " + slot + " size " + names.length);
+        }
+    }
+
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (isSet(i)) {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(names[i]).append('=').append(decodedValue(i));
+            }
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,78 @@
+package gov.nist.hla.gateway;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// merges the updates of each object instance into a single update until the combined updates are cleared
+// the latest value of each attribute and the latest timestamp are kept
+class UpdateCombiner {
+    private final Map<Integer, Integer> indexByInstance = new HashMap<Integer, Integer>();
+
+    // parallel lists in the order each instance was first updated; NaN timestamps for receive order updates
+    private final List<AttributeUpdate> updates = new ArrayList<AttributeUpdate>();
+    private final List<Double> timestamps = new ArrayList<Double>();
+
+    // cleared updates that can be reused
+    private final List<AttributeUpdate> pool = new ArrayList<AttributeUpdate>();
+
+    public void add(AttributeUpdate update, double timestamp) {
+        Integer index = indexByInstance.get(update.getInstanceHandle());
+        AttributeUpdate combined;
+        if (index == null) {
+            combined = pool.isEmpty() ? new AttributeUpdate() : pool.remove(pool.size() - 1);
+            combined.reset(update);
+            indexByInstance.put(update.getInstanceHandle(), updates.size());
+            updates.add(combined);
+            timestamps.add(timestamp);
+        } else {
+            combined = updates.get(index);
+            if (update.isTimestamped()) {
+                combined.setTimestamped(true);
+                double previous = timestamps.get(index);
+                if (Double.isNaN(previous) || timestamp > previous) {
+                    timestamps.set(index, timestamp);
+                }
+            }
+        }
+        for (int i = 0; i < update.size(); i++) {
+            combined.put(update, i);
+        }
+    }
+
+    public int size() {
+        return updates.size();
+    }
+
+    public boolean isEmpty() {
+        return updates.isEmpty();
+    }
+
+    public AttributeUpdate getUpdate(int index) {
+        return updates.get(index);
+    }
+
+    // NaN for a receive order update
+    public double getTimestamp(int index) {
+        return timestamps.get(index);
+    }
+
+    public void remove(int instanceHandle) {
+        Integer index = indexByInstance.remove(instanceHandle);
+        if (index != null) {
+            // keep the remaining indexes valid by leaving an empty update that is skipped when sent
+            updates.get(index).clear();
+        }
+    }
+
+    public void clear() {
+        for (AttributeUpdate update : updates) {
+            update.clear();
+            pool.add(update);
+        }
+        indexByInstance.clear();
+        updates.clear();
+        timestamps.clear();
+    }
+}
@@ -0,0 +1,151 @@
+package gov.nist.hla.gateway;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// limits how often each attribute of an object instance is sent to the minimum interval declared in the FOM
+// an attribute sent again within its interval is held, and the latest held value is released once the interval ends
+// held values keep the latest timestamp of the updates they came from, so a released update is not sent earlier
+class UpdateRateThrottle {
+    private static final double[] UNTHROTTLED = new double[0];
+
+    // minimum seconds between updates indexed by [classHandle][attributeHandle]; 0 when the attribute has no limit
+    private double[][] minimumIntervals = new double[0][];
+
+    private final Map<Integer, ThrottledInstance> instances = new HashMap<Integer, ThrottledInstance>();
+    private final Set<ThrottledInstance> instancesWithHeldValues = new LinkedHashSet<ThrottledInstance>();
+
+    private static class ThrottledInstance {
+        private double[] lastSendTimes = new double[0]; // indexed by attribute handle; NaN when never sent
+        private final AttributeUpdate heldValues = new AttributeUpdate();
+
+        public double getLastSendTime(int attributeHandle) {
+            return attributeHandle < lastSendTimes.length ? lastSendTimes[attributeHandle] : Double.NaN;
+        }
+
+        public void setLastSendTime(int attributeHandle, double time) {
+            if (attributeHandle >= lastSendTimes.length) {
+                int length = lastSendTimes.length;
+                lastSendTimes = Arrays.copyOf(lastSendTimes, Math.max(attributeHandle + 1, length * 2));
+                Arrays.fill(lastSendTimes, length, lastSendTimes.length, Double.NaN);
+            }
+            lastSendTimes[attributeHandle] = time;
+        }
+    }
+
+    public boolean hasClass(int classHandle) {
+        return classHandle < minimumIntervals.length && minimumIntervals[classHandle] != null;
+    }
+
+    // intervals is indexed by attribute handle, and can be null when the class has no limits
+    public void putClass(int classHandle, double[] intervals) {
+        if (classHandle >= minimumIntervals.length) {
+            minimumIntervals = Arrays.copyOf(minimumIntervals, Math.max(classHandle + 1, minimumIntervals.length * 2));
+        }
+        minimumIntervals[classHandle] = intervals == null ? UNTHROTTLED : intervals;
+    }
+
+    // removes and holds the attributes of update that were sent less than their minimum interval before now
+    // timestamp is NaN for a receive order update
+    public void filter(AttributeUpdate update, double now, double timestamp) {
+        double[] intervals = minimumIntervals[update.getClassHandle()];
+        if (intervals.length == 0) {
+            return;
+        }
+        ThrottledInstance instance = instances.get(update.getInstanceHandle());
+        if (instance == null) {
+            instance = new ThrottledInstance();
+            instances.put(update.getInstanceHandle(), instance);
+        }
+        for (int i = update.size() - 1; i >= 0; i--) {
+            int attributeHandle = update.getHandle(i);
+            double interval = attributeHandle < intervals.length ? intervals[attributeHandle] : 0;
+            if (interval <= 0) {
+                continue;
+            }
+            double lastSendTime = instance.getLastSendTime(attributeHandle);
+            AttributeUpdate heldValues = instance.heldValues;
+            int heldIndex = heldValues.indexOf(attributeHandle);
+            if (Double.isNaN(lastSendTime) || now - lastSendTime >= interval) {
+                instance.setLastSendTime(attributeHandle, now);
+                if (heldIndex != -1) {
+                    heldValues.remove(heldIndex); // superseded by the value in update
+                }
+            } else {
+                if (heldValues.isEmpty()) {
+                    heldValues.reset(update);
+                    heldValues.setTimestamp(timestamp);
+                    instancesWithHeldValues.add(instance);
+                } else if (update.isTimestamped()) {
+                    double heldTimestamp = heldValues.getTimestamp();
+                    heldValues.setTimestamped(true);
+                    heldValues.setTimestamp(
+                            Double.isNaN(heldTimestamp) ? timestamp : Math.max(heldTimestamp, timestamp));
+                }
+                heldValues.put(update, i);
+                update.remove(i);
+            }
+        }
+    }
+
+    public boolean hasHeldValues() {
+        return !instancesWithHeldValues.isEmpty();
+    }
+
+    // moves the held values whose interval has ended at now into released, with one update per object instance
+    public void releaseHeldValues(double now, List<AttributeUpdate> released) {
+        Iterator<ThrottledInstance> iterator = instancesWithHeldValues.iterator();
+        while (iterator.hasNext()) {
+            ThrottledInstance instance = iterator.next();
+            AttributeUpdate heldValues = instance.heldValues;
+            double[] intervals = minimumIntervals[heldValues.getClassHandle()];
+            AttributeUpdate update = null;
+            for (int i = heldValues.size() - 1; i >= 0; i--) {
+                int attributeHandle = heldValues.getHandle(i);
+                if (now - instance.getLastSendTime(attributeHandle) >= intervals[attributeHandle]) {
+                    if (update == null) {
+                        update = new AttributeUpdate();
+                        update.reset(heldValues);
+                        update.setTimestamp(heldValues.getTimestamp());
+                    }
+                    instance.setLastSendTime(attributeHandle, now);
+                    update.add(heldValues, i);
+                    heldValues.remove(i);
+                }
+            }
+            if (heldValues.isEmpty()) {
+                iterator.remove();
+            }
+            if (update != null) {
+                released.add(update);
+            }
+        }
+    }
+
+    // drops the held value of an attribute, which an update with the value last sent has superseded
+    public void discardHeld(int instanceHandle, int attributeHandle) {
+        ThrottledInstance instance = instances.get(instanceHandle);
+        if (instance == null) {
+            return;
+        }
+        int heldIndex = instance.heldValues.indexOf(attributeHandle);
+        if (heldIndex != -1) {
+            instance.heldValues.remove(heldIndex);
+            if (instance.heldValues.isEmpty()) {
+                instancesWithHeldValues.remove(instance);
+            }
+        }
+    }
+
+    public void remove(int instanceHandle) {
+        ThrottledInstance instance = instances.remove(instanceHandle);
+        if (instance != null) {
+            instancesWithHeldValues.remove(instance);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package gov.nist.hla;
+
+import static gov.nist.hla.TestMessages.reflected;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ObjectReflectionTest {
+    @Test
+    public void mergeOverwritesKnownAttributesAndAppendsNewOnes() {
+        ObjectReflection reflection = new ObjectReflection();
+        reflection.set(1, 10, "car", reflected(100, "a", 101, "b"));
+        assertEquals("a", reflection.getAttributeValue(0)); // decoded before the merge
+
+        reflection.merge(reflected(101, "c", 102, "d"));
+
+        assertEquals(3, reflection.getAttributeCount());
+        assertEquals(100, reflection.getAttributeHandle(0));
+        assertEquals("a", reflection.getAttributeValue(0));
+        assertEquals(101, reflection.getAttributeHandle(1));
+        assertEquals("c", reflection.getAttributeValue(1));
+        assertEquals(102, reflection.getAttributeHandle(2));
+        assertEquals("d", reflection.getAttributeValue(2));
+    }
+
+    @Test
+    public void mergeReplacesCachedDecodedValue() {
+        ObjectReflection reflection = new ObjectReflection();
+        reflection.set(1, 10, "car", reflected(100, "old"));
+        assertEquals("old", reflection.getAttributeValue(0));
+        reflection.merge(reflected(100, "new"));
+        assertEquals(1, reflection.getAttributeCount());
+        assertEquals("new", reflection.getAttributeValue(0));
+    }
+
+    @Test
+    public void mergeGrowsPastInitialCapacity() {
+        ObjectReflection reflection = new ObjectReflection();
+        reflection.set(1, 10, "car", reflected(0, "0"));
+        for (int i = 1; i < 20; i++) {
+            reflection.merge(reflected(i, Integer.toString(i)));
+        }
+        assertEquals(20, reflection.getAttributeCount());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, reflection.getAttributeHandle(i));
+            assertEquals(Integer.toString(i), reflection.getAttributeValue(i));
+        }
+    }
+
+    @Test
+    public void clearDropsValues() {
+        ObjectReflection reflection = new ObjectReflection();
+        reflection.set(1, 10, "car", reflected(100, "a"));
+        reflection.clear();
+        assertEquals(0, reflection.getAttributeCount());
+        assertNull(reflection.getInstanceName());
+    }
+
+    @Test
+    public void federateAmbassadorConflatesQueuedReflections() throws Exception {
+        FederateAmbassador fedAmb = new FederateAmbassador();
+        fedAmb.setConflateReflections(true);
+        fedAmb.discoverObjectInstance(10, 1, "car");
+        fedAmb.discoverObjectInstance(11, 1, "truck");
+
+        fedAmb.reflectAttributeValues(10, reflected(100, "1"), null);
+        fedAmb.reflectAttributeValues(11, reflected(100, "x"), null);
+        fedAmb.reflectAttributeValues(10, reflected(100, "2", 101, "y"), null);
+
+        ObjectReflection car = fedAmb.nextObjectReflection();
+        assertEquals("car", car.getInstanceName());
+        assertEquals(2, car.getAttributeCount());
+        assertEquals("2", car.getAttributeValue(0));
+        assertEquals("y", car.getAttributeValue(1));
+
+        // the car reflection was dequeued, so a new reflection starts a new queue entry
+        fedAmb.reflectAttributeValues(10, reflected(100, "3"), null);
+        assertEquals("truck", fedAmb.nextObjectReflection().getInstanceName());
+        ObjectReflection next = fedAmb.nextObjectReflection();
+        assertEquals("3", next.getAttributeValue(0));
+        assertNull(fedAmb.nextObjectReflection());
+    }
+
+    @Test
+    public void federateAmbassadorQueuesEachReflectionWithoutConflation() throws Exception {
+        FederateAmbassador fedAmb = new FederateAmbassador();
+        fedAmb.discoverObjectInstance(10, 1, "car");
+        fedAmb.reflectAttributeValues(10, reflected(100, "1"), null);
+        fedAmb.reflectAttributeValues(10, reflected(100, "2"), null);
+        assertEquals("1", fedAmb.nextObjectReflection().getAttributeValue(0));
+        assertEquals("2", fedAmb.nextObjectReflection().getAttributeValue(0));
+    }
+
+    @Test
+    public void recycledReflectionIsReused() throws Exception {
+        FederateAmbassador fedAmb = new FederateAmbassador();
+        fedAmb.discoverObjectInstance(10, 1, "car");
+        fedAmb.reflectAttributeValues(10, reflected(100, "1"), null);
+        ObjectReflection first = fedAmb.nextObjectReflection();
+        fedAmb.recycle(first);
+        fedAmb.reflectAttributeValues(10, reflected(100, "2"), null);
+        ObjectReflection second = fedAmb.nextObjectReflection();
+        assertSame(first, second);
+        assertEquals("2", second.getAttributeValue(0));
+    }
+}
@@ -0,0 +1,62 @@
+package gov.nist.hla;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RingBufferTest {
+    @Test
+    public void pollReturnsElementsInInsertionOrder() {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(4);
+        for (int i = 0; i < 3; i++) {
+            buffer.add(i);
+        }
+        assertEquals(Integer.valueOf(0), buffer.peek());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void growPreservesOrderAfterWrapAround() {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(4);
+        int next = 0;
+        int expected = 0;
+        // move the head so the elements wrap around the end of the array before it grows
+        for (int i = 0; i < 3; i++) {
+            buffer.add(next++);
+        }
+        for (int i = 0; i < 2; i++) {
+            assertEquals(Integer.valueOf(expected++), buffer.poll());
+        }
+        for (int i = 0; i < 20; i++) {
+            buffer.add(next++);
+        }
+        assertEquals(next - expected, buffer.size());
+        while (!buffer.isEmpty()) {
+            assertEquals(Integer.valueOf(expected++), buffer.poll());
+        }
+        assertEquals(next, expected);
+    }
+
+    @Test
+    public void clearRemovesAllElements() {
+        RingBuffer<String> buffer = new RingBuffer<String>();
+        buffer.add("a");
+        buffer.add("b");
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertNull(buffer.peek());
+        buffer.add("c");
+        assertEquals("c", buffer.poll());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void addRejectsNull() {
+        new RingBuffer<String>().add(null);
+    }
+}
@@ -0,0 +1,51 @@
+package gov.nist.hla;
+
+import java.lang.reflect.Proxy;
+
+import hla.rti.ReceivedInteraction;
+import hla.rti.ReflectedAttributes;
+
+// builds the RTI message types delivered to the federate ambassador without a running RTI
+public final class TestMessages {
+    private TestMessages() {
+    }
+
+    // handlesAndValues alternates an Integer handle with a String value encoded using ValueCodec.DEFAULT
+    public static ReflectedAttributes reflected(Object... handlesAndValues) {
+        return (ReflectedAttributes) create(ReflectedAttributes.class, handlesAndValues);
+    }
+
+    // handlesAndValues alternates an Integer handle with a String value encoded using ValueCodec.DEFAULT
+    public static ReceivedInteraction received(Object... handlesAndValues) {
+        return (ReceivedInteraction) create(ReceivedInteraction.class, handlesAndValues);
+    }
+
+    // a proxy avoids depending on the methods of the RTI interface that the gateway does not call
+    private static Object create(Class<?> type, Object[] handlesAndValues) {
+        int size = handlesAndValues.length / 2;
+        int[] handles = new int[size];
+        byte[][] values = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            handles[i] = (Integer) handlesAndValues[2 * i];
+            values[i] = ValueCodec.DEFAULT.encode((String) handlesAndValues[2 * i + 1]);
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "size":
+                return size;
+            case "getAttributeHandle":
+            case "getParameterHandle":
+                return handles[(Integer) args[0]];
+            case "getValue":
+            case "getValueReference":
+                return values[(Integer) args[0]];
+            case "getValueLength":
+                return values[(Integer) args[0]].length;
+            case "toString":
+                return type.getSimpleName() + " size=" + size;
+            default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package gov.nist.hla;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ValueCodecTest {
+    private static final String ASCII_TEXT = "speed=12.5";
+    private static final String NON_ASCII_TEXT = "vitesse \u00e9lev\u00e9e \u2192 \u6771\u4eac";
+
+    private static void assertRoundTrip(ValueCodec codec, String value) {
+        assertEquals(value, codec.decode(codec.encode(value)));
+        assertEquals(value, codec.decode(codec.encode(new StringBuilder(value))));
+    }
+
+    @Test
+    public void asciiValuesRoundTripInEveryEncoding() {
+        for (boolean isNullTerminated : new boolean[] {false, true}) {
+            assertRoundTrip(new ValueCodec(StandardCharsets.US_ASCII, isNullTerminated), ASCII_TEXT);
+            assertRoundTrip(new ValueCodec(StandardCharsets.UTF_8, isNullTerminated), ASCII_TEXT);
+            assertRoundTrip(new ValueCodec(StandardCharsets.UTF_16BE, isNullTerminated), ASCII_TEXT);
+            assertRoundTrip(new ValueCodec(StandardCharsets.UTF_8, isNullTerminated), "");
+        }
+    }
+
+    @Test
+    public void nonAsciiValuesRoundTripInUnicodeEncodings() {
+        for (boolean isNullTerminated : new boolean[] {false, true}) {
+            assertRoundTrip(new ValueCodec(StandardCharsets.UTF_8, isNullTerminated), NON_ASCII_TEXT);
+            assertRoundTrip(new ValueCodec(StandardCharsets.UTF_16BE, isNullTerminated), NON_ASCII_TEXT);
+        }
+        assertArrayEquals(NON_ASCII_TEXT.getBytes(StandardCharsets.UTF_8), ValueCodec.DEFAULT.encode(NON_ASCII_TEXT));
+    }
+
+    @Test
+    public void nonAsciiCharactersAreReplacedInAscii() {
+        ValueCodec codec = new ValueCodec(StandardCharsets.US_ASCII, false);
+        assertEquals("caf?", codec.decode(codec.encode("caf\u00e9")));
+        // bytes outside ASCII from another federate are replaced rather than passed through
+        assertEquals("caf\ufffd", codec.decode(new byte[] {'c', 'a', 'f', (byte) 0xe9}));
+    }
+
+    @Test
+    public void nullTerminatedEncodeAppendsOneTerminator() {
+        ValueCodec utf8 = new ValueCodec(StandardCharsets.UTF_8, true);
+        assertArrayEquals(new byte[] {'a', 'b', 0}, utf8.encode("ab"));
+        assertArrayEquals(new byte[] {'a', (byte) 0xc3, (byte) 0xa9, 0}, utf8.encode("a\u00e9"));
+        assertArrayEquals(new byte[] {0}, utf8.encode(""));
+
+        ValueCodec ascii = new ValueCodec(StandardCharsets.US_ASCII, true);
+        assertArrayEquals(new byte[] {'a', 'b', 0}, ascii.encode("ab"));
+        assertArrayEquals(new byte[] {'a', 'b'}, ValueCodec.DEFAULT.encode("ab"));
+    }
+
+    @Test
+    public void encodeIntoABufferOnlyWritesWhenTheValueFits() {
+        ValueCodec[] codecs = {ValueCodec.DEFAULT, new ValueCodec(StandardCharsets.US_ASCII, true),
+                new ValueCodec(StandardCharsets.UTF_16BE, true), new ValueCodec(StandardCharsets.UTF_8, true)};
+        for (ValueCodec codec : codecs) {
+            for (String value : new String[] {ASCII_TEXT, NON_ASCII_TEXT}) {
+                byte[] expected = codec.encode(value);
+                byte[] buffer = new byte[64];
+                assertEquals(expected.length, codec.encode(new StringBuilder(value), buffer));
+                assertArrayEquals(expected, Arrays.copyOf(buffer, expected.length));
+
+                byte[] small = new byte[2];
+                assertEquals(expected.length, codec.encode(value, small));
+                assertArrayEquals(new byte[2], small);
+            }
+        }
+    }
+
+    @Test
+    public void trailingTerminatorIsDroppedFromASubRange() {
+        byte[] buffer = {'x', 'a', 'b', 0, 'y', 0};
+        assertEquals("ab", ValueCodec.DEFAULT.decode(buffer, 1, 3));
+        assertEquals("ab", new ValueCodec(StandardCharsets.UTF_8, true).decode(buffer, 1, 3));
+        assertEquals("ab\0y", ValueCodec.DEFAULT.decode(buffer, 1, 5)); // only the last byte of the range
+        assertEquals("xab", ValueCodec.DEFAULT.decode(buffer, 0, 3)); // no terminator inside the range
+        assertEquals("", ValueCodec.DEFAULT.decode(buffer, 3, 1));
+        assertEquals("", ValueCodec.DEFAULT.decode(buffer, 2, 0));
+
+        byte[] nonAscii = {'-', (byte) 0xc3, (byte) 0xa9, 0, '-'};
+        assertEquals("\u00e9", ValueCodec.DEFAULT.decode(nonAscii, 1, 3));
+    }
+
+    @Test
+    public void utf16TerminatorIsTwoBytes() {
+        ValueCodec codec = new ValueCodec(StandardCharsets.UTF_16BE, true);
+        assertArrayEquals(new byte[] {0, 'a', 0, 0}, codec.encode("a"));
+        assertEquals("a", codec.decode(new byte[] {0, 'a', 0, 0}));
+        assertEquals("a", codec.decode(new byte[] {0, 'a'}));
+        // a single zero byte ends the low half of a character rather than terminating the value
+        assertEquals("\u0100", codec.decode(new byte[] {1, 0}));
+        assertEquals("a", codec.decode(new byte[] {'-', 0, 'a', 0, 0, '-'}, 1, 4));
+    }
+
+    @Test
+    public void utf16IsEncodedBigEndianWithoutAByteOrderMark() {
+        ValueCodec codec = new ValueCodec(StandardCharsets.UTF_16, true);
+        assertEquals(StandardCharsets.UTF_16BE, codec.getCharset());
+        assertTrue(codec.isNullTerminated());
+        assertArrayEquals(new byte[] {0, 'a', 0, 0}, codec.encode("a"));
+        assertRoundTrip(codec, NON_ASCII_TEXT);
+        assertFalse(new ValueCodec(StandardCharsets.UTF_16, false).isNullTerminated());
+    }
+}
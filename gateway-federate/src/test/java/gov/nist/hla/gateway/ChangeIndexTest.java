@@ -0,0 +1,104 @@
+package gov.nist.hla.gateway;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ChangeIndexTest {
+    private static Map<String, String> attributes(String... names) {
+        Map<String, String> attributes = new HashMap<String, String>();
+        for (String name : names) {
+            attributes.put(name, "value");
+        }
+        return attributes;
+    }
+
+    // each change as instance.attribute@version
+    private static List<String> describe(List<ChangeIndex.Change> changes) {
+        List<String> descriptions = new ArrayList<String>();
+        for (ChangeIndex.Change change : changes) {
+            descriptions.add(change.getInstanceName() + "." + change.getAttributeName() + "@" + change.getVersion());
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void changesSinceVersionAreInVersionOrder() {
+        ChangeIndex index = new ChangeIndex();
+        index.record("a", attributes("x"), 1.0);
+        index.record("b", attributes("x"), 1.0);
+        index.record("a", attributes("y"), 2.0);
+        assertEquals(3, index.getVersion());
+
+        assertEquals(asList("a.x@1", "b.x@2", "a.y@3"), describe(index.getChangesSinceVersion(0)));
+        assertEquals(asList("b.x@2", "a.y@3"), describe(index.getChangesSinceVersion(1)));
+        assertEquals(asList("a.y@3"), describe(index.getChangesSinceVersion(2)));
+        assertTrue(index.getChangesSinceVersion(3).isEmpty());
+    }
+
+    @Test
+    public void laterChangeOfAnAttributeReplacesItsVersion() {
+        ChangeIndex index = new ChangeIndex();
+        index.record("a", attributes("x", "y"), 1.0);
+        index.record("a", attributes("x"), 2.0);
+
+        List<ChangeIndex.Change> changes = index.getChangesSinceVersion(0);
+        assertEquals(2, changes.size());
+        assertEquals("y", changes.get(0).getAttributeName());
+        assertEquals(1, changes.get(0).getVersion());
+        assertEquals("x", changes.get(1).getAttributeName());
+        assertEquals(2, changes.get(1).getVersion());
+        assertEquals(2.0, changes.get(1).getTime(), 0.0);
+    }
+
+    @Test
+    public void changesSinceTimeExcludeChangesAtThatTime() {
+        ChangeIndex index = new ChangeIndex();
+        index.record("a", attributes("x"), 1.0);
+        index.record("b", attributes("x"), 2.0);
+        index.record("c", attributes("x"), 3.0);
+        index.record("a", attributes("y"), 3.0);
+
+        assertEquals(asList("c.x@3", "a.y@4"), describe(index.getChangesSinceTime(2.0)));
+        assertEquals(asList("a.x@1", "b.x@2", "c.x@3", "a.y@4"), describe(index.getChangesSinceTime(0.0)));
+        assertTrue(index.getChangesSinceTime(3.0).isEmpty());
+    }
+
+    @Test
+    public void updateRecordsEveryAttributeWithOneVersion() {
+        ChangeIndex index = new ChangeIndex();
+        AttributeUpdate update = new AttributeUpdate();
+        update.reset("a", 10, 1, false);
+        update.add(0, "x", "1", null);
+        update.add(1, "y", "2", null);
+        index.record(update, 1.0);
+
+        List<ChangeIndex.Change> changes = index.getChangesSinceVersion(0);
+        assertEquals(2, changes.size());
+        assertEquals(1, changes.get(0).getVersion());
+        assertEquals(1, changes.get(1).getVersion());
+    }
+
+    @Test
+    public void removedInstanceHasNoChanges() {
+        ChangeIndex index = new ChangeIndex();
+        index.record("a", attributes("x"), 1.0);
+        index.record("b", attributes("x"), 2.0);
+        index.remove("a");
+        index.remove("unknown");
+
+        assertEquals(asList("b.x@2"), describe(index.getChangesSinceVersion(0)));
+        assertEquals(asList("b.x@2"), describe(index.getChangesSinceTime(0.0)));
+        assertEquals(2, index.getVersion()); // versions are not reused
+
+        index.record("a", attributes("y"), 3.0);
+        assertEquals(asList("b.x@2", "a.y@3"), describe(index.getChangesSinceVersion(0)));
+    }
+}
@@ -0,0 +1,160 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ColumnarObjectStateTableTest {
+    private static final int CLASS = 2;
+
+    private final ColumnarObjectStateTable table =
+            new ColumnarObjectStateTable(classHandle -> Arrays.asList("name", "speed"));
+
+    private static Map<String, String> values(String... namesAndValues) {
+        Map<String, String> values = new HashMap<String, String>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            values.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    @Test
+    public void valuesAreStoredPerInstance() {
+        table.add("a", CLASS, 2);
+        table.add("b", CLASS, 2);
+        table.putAll("a", values("name", "alpha", "speed", "10"));
+        table.putAll("b", values("speed", "20", "color", "red")); // color is not in the object model
+
+        assertEquals(values("name", "alpha", "speed", "10"), table.get("a"));
+        assertEquals(values("speed", "20", "color", "red"), table.get("b"));
+        assertNull(table.get("a").get("color"));
+        assertFalse(table.get("b").containsKey("name"));
+    }
+
+    @Test
+    public void replacedValuesOfAnyLengthAreKept() {
+        table.add("a", CLASS, 2);
+        table.add("b", CLASS, 2);
+        table.putAll("b", values("name", "bravo"));
+        table.putAll("a", values("name", "short"));
+        table.putAll("a", values("name", "a much longer value than before"));
+        table.putAll("a", values("name", "x"));
+        table.putAll("a", values("name", ""));
+        assertEquals("", table.get("a").get("name"));
+        assertEquals("bravo", table.get("b").get("name"));
+    }
+
+    @Test
+    public void manyReplacementsCompactTheColumn() {
+        Random random = new Random(5);
+        Map<String, String> expected = new HashMap<String, String>();
+        for (int i = 0; i < 50; i++) {
+            table.add("i" + i, CLASS, 2);
+        }
+        for (int n = 0; n < 20000; n++) {
+            String instanceName = "i" + random.nextInt(50);
+            char[] value = new char[random.nextInt(40)];
+            Arrays.fill(value, (char) ('a' + random.nextInt(26)));
+            table.putAll(instanceName, Collections.singletonMap("name", new String(value)));
+            expected.put(instanceName, new String(value));
+        }
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), table.get(entry.getKey()).get("name"));
+        }
+    }
+
+    @Test
+    public void removedInstanceViewIsEmptyAndItsSlotIsReused() {
+        table.add("a", CLASS, 2);
+        table.putAll("a", values("name", "alpha"));
+        Map<String, String> view = table.get("a");
+        table.remove("a");
+        assertTrue(view.isEmpty());
+        assertFalse(table.contains("a"));
+
+        table.add("b", CLASS, 2);
+        assertTrue(table.get("b").isEmpty()); // the reused slot has no values of the removed instance
+        table.putAll("b", values("name", "bravo"));
+        assertTrue(view.isEmpty());
+    }
+
+    @Test
+    public void scanFindsTheInstancesOfTheClassWithoutLookups() {
+        for (int i = 0; i < 40; i++) {
+            table.add("i" + i, CLASS, 2);
+            table.putAll("i" + i, values("speed", Integer.toString(i % 4)));
+        }
+        table.add("other", CLASS + 1, 2);
+        table.putAll("other", values("speed", "1"));
+        table.remove("i1");
+
+        Set<String> equal = new HashSet<String>();
+        assertTrue(table.scanEqual(CLASS, "speed", "1", equal));
+        Set<String> expected = new HashSet<String>();
+        for (int i = 5; i < 40; i += 4) {
+            expected.add("i" + i);
+        }
+        assertEquals(expected, equal);
+
+        List<String> matched = new ArrayList<String>();
+        assertTrue(table.scan(CLASS, "speed", value -> value.equals("3"), matched));
+        assertEquals(10, matched.size());
+
+        List<String> none = new ArrayList<String>();
+        assertTrue(table.scanEqual(CLASS, "unknown", "1", none));
+        assertTrue(table.scanEqual(CLASS + 5, "speed", "1", none));
+        assertTrue(none.isEmpty());
+    }
+
+    @Test
+    public void sizeEstimateCountsNewValues() {
+        table.add("a", CLASS, 2);
+        long first = table.putAll("a", values("name", "abc"));
+        long replaced = table.putAll("a", values("name", "abcde"));
+        assertTrue(first > 3);
+        assertEquals(2, replaced);
+    }
+
+    @Test
+    public void mapTableDoesNotScan() {
+        MapObjectStateTable mapTable = new MapObjectStateTable();
+        mapTable.add("a", CLASS, 1);
+        assertFalse(mapTable.scanEqual(CLASS, "name", "alpha", new ArrayList<String>()));
+    }
+
+    @Test
+    public void reserveKeepsTheStoredInstances() {
+        table.add("a", CLASS, 2);
+        table.putAll("a", values("name", "alpha"));
+        table.reserve(100);
+        for (int i = 0; i < 100; i++) {
+            table.add("i" + i, CLASS, 2);
+        }
+        table.reserve(1);
+        table.reserve(0);
+        assertEquals("alpha", table.get("a").get("name"));
+        assertTrue(table.contains("i99"));
+    }
+
+    @Test
+    public void reservedThresholdHoldsTheRequiredInstances() {
+        for (int size = 1; size < 5000; size++) {
+            int threshold = MapObjectStateTable.thresholdFor(size);
+            assertTrue(threshold >= size);
+            assertTrue(threshold < 2 * size + MapObjectStateTable.DEFAULT_CAPACITY);
+        }
+    }
+}
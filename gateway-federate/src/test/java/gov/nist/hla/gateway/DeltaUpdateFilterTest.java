@@ -0,0 +1,104 @@
+package gov.nist.hla.gateway;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class DeltaUpdateFilterTest {
+    // namesAndValues alternates an attribute name with its value
+    private static AttributeUpdate update(String... namesAndValues) {
+        AttributeUpdate update = new AttributeUpdate();
+        update.reset("car1", 10, 1, false);
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            update.add(i / 2, namesAndValues[i], namesAndValues[i + 1], null);
+        }
+        return update;
+    }
+
+    private static Map<String, String> state(String... namesAndValues) {
+        Map<String, String> state = new HashMap<String, String>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            state.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return state;
+    }
+
+    private static List<String> names(AttributeUpdate update) {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < update.size(); i++) {
+            names.add(update.getName(i));
+        }
+        return names;
+    }
+
+    @Test
+    public void zeroIntervalNeverForcesAFullUpdate() {
+        DeltaUpdateFilter filter = new DeltaUpdateFilter(0);
+        assertFalse(filter.beginUpdate("car1"));
+        filter.advanceStep();
+        assertFalse(filter.beginUpdate("car1"));
+    }
+
+    @Test
+    public void firstUpdateOfEachInstanceIsFull() {
+        DeltaUpdateFilter filter = new DeltaUpdateFilter(3);
+        assertTrue(filter.beginUpdate("car1"));
+        assertFalse(filter.beginUpdate("car1"));
+        assertTrue(filter.beginUpdate("car2"));
+
+        filter.remove("car1");
+        assertTrue(filter.beginUpdate("car1")); // a new instance with the same name
+    }
+
+    @Test
+    public void fullUpdateRepeatsEveryIntervalSteps() {
+        DeltaUpdateFilter filter = new DeltaUpdateFilter(3);
+        assertTrue(filter.beginUpdate("car1"));
+        filter.advanceStep();
+        assertFalse(filter.beginUpdate("car1"));
+        filter.advanceStep();
+        assertFalse(filter.beginUpdate("car1"));
+        filter.advanceStep();
+        assertTrue(filter.beginUpdate("car1"));
+        assertFalse(filter.beginUpdate("car1")); // once per interval, not for every update in the step
+
+        // the interval counts from the last full update rather than from a fixed schedule
+        for (int i = 0; i < 5; i++) {
+            filter.advanceStep();
+        }
+        assertTrue(filter.beginUpdate("car1"));
+        filter.advanceStep();
+        assertFalse(filter.beginUpdate("car1"));
+    }
+
+    @Test
+    public void filterRemovesOnlyUnchangedAttributes() {
+        DeltaUpdateFilter filter = new DeltaUpdateFilter(0);
+        AttributeUpdate update = update("a", "1", "b", "2", "c", "3", "d", "4");
+        filter.filter(update, state("a", "1", "b", "20", "d", "4", "e", "5"), null);
+
+        assertEquals(asList("b", "c"), names(update));
+        assertEquals("2", update.getValue(0));
+        assertEquals("3", update.getValue(1));
+    }
+
+    @Test
+    public void filterWithoutStateKeepsEveryAttribute() {
+        DeltaUpdateFilter filter = new DeltaUpdateFilter(0);
+        AttributeUpdate update = update("a", "1", "b", "2");
+        filter.filter(update, null, null);
+        filter.filter(update, state(), null);
+        assertEquals(asList("a", "b"), names(update));
+
+        filter.filter(update, state("a", "1", "b", "2"), null);
+        assertTrue(update.isEmpty());
+    }
+}
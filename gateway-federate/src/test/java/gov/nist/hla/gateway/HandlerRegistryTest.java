@@ -0,0 +1,100 @@
+package gov.nist.hla.gateway;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.ieee.standards.ieee1516._2010.InteractionClassType;
+import org.ieee.standards.ieee1516._2010.ObjectClassType;
+import org.junit.Test;
+
+public class HandlerRegistryTest {
+    private final List<String> calls = new ArrayList<String>();
+
+    // a proxy avoids depending on the methods of the object model types that the registry does not call
+    private static <T extends EObject> T modelClass(Class<T> type, EObject container) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "eContainer":
+                        return container;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                }));
+    }
+
+    private InteractionHandler interactionHandler(String name) {
+        return (timeStep, className, parameters) -> calls.add(name);
+    }
+
+    private ObjectHandler objectHandler(String name) {
+        return (timeStep, className, instanceName, attributes) -> calls.add(name);
+    }
+
+    private List<String> receiveInteraction(HandlerRegistry registry, int classHandle) {
+        calls.clear();
+        for (InteractionHandler handler : registry.getInteractionHandlers(classHandle)) {
+            handler.receiveInteraction(0.0, "", null);
+        }
+        return new ArrayList<String>(calls);
+    }
+
+    private List<String> receiveObject(HandlerRegistry registry, int classHandle) {
+        calls.clear();
+        for (ObjectHandler handler : registry.getObjectHandlers(classHandle)) {
+            handler.receiveObject(0.0, "", "", null);
+        }
+        return new ArrayList<String>(calls);
+    }
+
+    @Test
+    public void interactionHandlersOfTheMostDerivedClassComeFirst() {
+        InteractionClassType root = modelClass(InteractionClassType.class, null);
+        InteractionClassType base = modelClass(InteractionClassType.class, root);
+        InteractionClassType derived = modelClass(InteractionClassType.class, base);
+        InteractionClassType sibling = modelClass(InteractionClassType.class, base);
+
+        HandlerRegistry registry = new HandlerRegistry();
+        registry.addInteractionHandler(root, interactionHandler("root"));
+        registry.addInteractionHandler(base, interactionHandler("base1"));
+        registry.addInteractionClass(2, derived);
+        registry.addInteractionClass(3, sibling);
+        registry.addInteractionHandler(derived, interactionHandler("derived"));
+        registry.addInteractionHandler(base, interactionHandler("base2"));
+
+        assertEquals(asList("derived", "base1", "base2", "root"), receiveInteraction(registry, 2));
+        assertEquals(asList("base1", "base2", "root"), receiveInteraction(registry, 3));
+        assertEquals(0, registry.getInteractionHandlers(0).length); // a handle without a class
+        assertEquals(0, registry.getInteractionHandlers(7).length); // an unknown handle
+        assertEquals(0, registry.getInteractionHandlers(-1).length);
+    }
+
+    @Test
+    public void objectHandlersOfTheMostDerivedClassComeFirst() {
+        ObjectClassType root = modelClass(ObjectClassType.class, null);
+        ObjectClassType derived = modelClass(ObjectClassType.class, root);
+        // the registry stops at the first container that is not an object class
+        ObjectClassType detached = modelClass(ObjectClassType.class, modelClass(EObject.class, root));
+
+        HandlerRegistry registry = new HandlerRegistry();
+        registry.addObjectClass(1, derived);
+        registry.addObjectClass(4, detached);
+        registry.addObjectHandler(root, objectHandler("root"));
+        registry.addObjectHandler(derived, objectHandler("derived1"));
+        registry.addObjectHandler(derived, objectHandler("derived2"));
+        registry.addObjectHandler(detached, objectHandler("detached"));
+
+        assertEquals(asList("derived1", "derived2", "root"), receiveObject(registry, 1));
+        assertEquals(asList("detached"), receiveObject(registry, 4));
+        assertEquals(0, registry.getObjectHandlers(2).length);
+    }
+}
@@ -0,0 +1,104 @@
+package gov.nist.hla.gateway;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import gov.nist.hla.gateway.GatewayFederateConfig.InteractionRateLimit;
+import gov.nist.hla.gateway.GatewayFederateConfig.PacingPolicy;
+
+public class InteractionPacerTest {
+    private static final int CLASS = 3;
+
+    // one interaction per second with no burst
+    private static InteractionPacer pacer(PacingPolicy policy, int maxQueued) {
+        InteractionRateLimit limit = new InteractionRateLimit();
+        limit.setRate(1);
+        limit.setPolicy(policy);
+        limit.setMaxQueued(maxQueued);
+        InteractionPacer pacer = new InteractionPacer();
+        pacer.putClass(CLASS, "Count", limit);
+        return pacer;
+    }
+
+    private static List<Double> release(InteractionPacer pacer, double now) {
+        List<InteractionPacer.PacedInteraction> released = new ArrayList<InteractionPacer.PacedInteraction>();
+        pacer.release(now, released);
+        List<Double> timestamps = new ArrayList<Double>();
+        for (InteractionPacer.PacedInteraction interaction : released) {
+            timestamps.add(interaction.getTimestamp());
+        }
+        return timestamps;
+    }
+
+    @Test
+    public void queueHoldsAtMostMaxQueuedAndRejectsTheRest() {
+        InteractionPacer pacer = pacer(PacingPolicy.QUEUE, 2);
+        assertTrue(pacer.acquire(CLASS, null, 1.0, 0.0));
+        for (int i = 2; i <= 5; i++) {
+            assertFalse(pacer.acquire(CLASS, null, i, 0.0));
+        }
+
+        InteractionPacingStatistics statistics = pacer.getStatistics(CLASS);
+        assertEquals(1, statistics.getSentCount());
+        assertEquals(2, statistics.getDelayedCount());
+        assertEquals(2, statistics.getRejectedCount());
+        assertEquals(0, statistics.getDroppedCount());
+        assertEquals(2, statistics.getQueuedCount());
+
+        assertEquals(asList(2.0), release(pacer, 1.0));
+        assertEquals(asList(3.0), release(pacer, 2.0));
+        assertFalse(pacer.hasQueued());
+    }
+
+    @Test
+    public void dropOldestKeepsTheNewestHeldInteractions() {
+        InteractionPacer pacer = pacer(PacingPolicy.DROP_OLDEST, 2);
+        assertTrue(pacer.acquire(CLASS, null, 1.0, 0.0));
+        for (int i = 2; i <= 5; i++) {
+            assertFalse(pacer.acquire(CLASS, null, i, 0.0));
+        }
+
+        InteractionPacingStatistics statistics = pacer.getStatistics(CLASS);
+        assertEquals(4, statistics.getDelayedCount());
+        assertEquals(2, statistics.getDroppedCount());
+        assertEquals(0, statistics.getRejectedCount());
+        assertEquals(asList(4.0), release(pacer, 1.0));
+        assertEquals(asList(5.0), release(pacer, 2.0));
+    }
+
+    @Test
+    public void rejectHoldsNothing() {
+        InteractionPacer pacer = pacer(PacingPolicy.REJECT, 2);
+        assertTrue(pacer.acquire(CLASS, null, 1.0, 0.0));
+        assertFalse(pacer.acquire(CLASS, null, 2.0, 0.5));
+        assertFalse(pacer.hasQueued());
+        assertTrue(pacer.acquire(CLASS, null, 3.0, 1.0));
+        assertEquals(1, pacer.getStatistics(CLASS).getRejectedCount());
+    }
+
+    @Test
+    public void heldInteractionsAreSentBeforeNewOnes() {
+        InteractionPacer pacer = pacer(PacingPolicy.QUEUE, 10);
+        assertTrue(pacer.acquire(CLASS, null, 1.0, 0.0));
+        assertFalse(pacer.acquire(CLASS, null, 2.0, 0.0));
+        // a token is available, but the held interaction must be sent first
+        assertFalse(pacer.acquire(CLASS, null, 3.0, 1.0));
+        assertEquals(asList(2.0), release(pacer, 1.0));
+        assertEquals(asList(3.0), release(pacer, 2.0));
+    }
+
+    @Test
+    public void classWithoutLimitHasNoStatistics() {
+        InteractionPacer pacer = pacer(PacingPolicy.QUEUE, 1);
+        assertFalse(pacer.hasClass(CLASS + 1));
+        assertNull(pacer.getStatistics(CLASS + 1));
+    }
+}
@@ -0,0 +1,140 @@
+package gov.nist.hla.gateway;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import gov.nist.hla.gateway.GatewayFederateConfig.IndexType;
+
+public class ObjectIndexTest {
+    private static final int CAR = 1;
+    private static final int TRUCK = 2;
+
+    private static ObjectIndex index() {
+        Map<String, IndexType> carIndexes = new HashMap<String, IndexType>();
+        carIndexes.put("speed", IndexType.SORTED);
+        carIndexes.put("color", IndexType.HASH);
+        return new ObjectIndex(classHandle -> classHandle == CAR ? "Car" : "Truck",
+                Collections.singletonMap("Car", carIndexes));
+    }
+
+    private static void put(ObjectIndex index, String instanceName, String attributeName, String value) {
+        index.add(instanceName, CAR);
+        index.update(instanceName, CAR, Collections.singletonMap(attributeName, value));
+    }
+
+    @Test
+    public void instancesAreTrackedPerClass() {
+        ObjectIndex index = index();
+        index.add("car1", CAR);
+        index.add("truck1", TRUCK);
+        index.add("thing", CAR);
+        index.add("thing", TRUCK); // the name was reused by an instance of another class
+
+        assertEquals(new HashSet<String>(asList("car1")), index.getInstances(CAR));
+        assertEquals(new HashSet<String>(asList("truck1", "thing")), index.getInstances(TRUCK));
+
+        index.remove("car1");
+        assertTrue(index.getInstances(CAR).isEmpty());
+    }
+
+    @Test
+    public void hashIndexFindsEqualValues() {
+        ObjectIndex index = index();
+        put(index, "car1", "color", "red");
+        put(index, "car2", "color", "blue");
+        put(index, "car3", "color", "red");
+        assertEquals(IndexType.HASH, index.getIndexType(CAR, "color"));
+        assertNull(index.getIndexType(CAR, "position"));
+        assertNull(index.getIndexType(TRUCK, "color"));
+
+        assertEquals(new HashSet<String>(asList("car1", "car3")), index.find(CAR, "color", "red"));
+        put(index, "car1", "color", "blue");
+        assertEquals(new HashSet<String>(asList("car3")), index.find(CAR, "color", "red"));
+        index.remove("car3");
+        assertTrue(index.find(CAR, "color", "red").isEmpty());
+    }
+
+    @Test
+    public void sortedIndexOrdersNumbersBeforeStrings() {
+        ObjectIndex index = index();
+        put(index, "a", "speed", "fast");
+        put(index, "b", "speed", "100");
+        put(index, "c", "speed", "9.5");
+        put(index, "d", "speed", "-3");
+        put(index, "e", "speed", "abc");
+
+        assertEquals(asList("d", "c", "b", "e", "a"), new ArrayList<String>(index.findRange(CAR, "speed", null, null)));
+        assertEquals(asList("c", "b"), new ArrayList<String>(index.findRange(CAR, "speed", "0", "100")));
+        assertEquals(asList("e", "a"), new ArrayList<String>(index.findRange(CAR, "speed", "abc", null)));
+    }
+
+    @Test
+    public void numericBoundIncludesEveryStringOfTheNumber() {
+        ObjectIndex index = index();
+        put(index, "a", "speed", "10");
+        put(index, "b", "speed", "10.0");
+        put(index, "c", "speed", "1e1");
+        put(index, "d", "speed", "10.5");
+        put(index, "e", "speed", "-0");
+
+        assertEquals(new HashSet<String>(asList("a", "b", "c")), index.findRange(CAR, "speed", "10", "10"));
+        assertEquals(new HashSet<String>(asList("a", "b", "c")), index.findRange(CAR, "speed", "10.0", "10.00"));
+        assertEquals(new HashSet<String>(asList("a", "b", "c", "d")), index.findRange(CAR, "speed", "10.0", null));
+        assertEquals(new HashSet<String>(asList("e", "a", "b", "c")), index.findRange(CAR, "speed", null, "10"));
+        assertEquals(new HashSet<String>(asList("e")), index.findRange(CAR, "speed", "0", "0"));
+
+        // distinct strings of one number are still distinct values for an equality lookup
+        put(index, "f", "speed", "10");
+        assertEquals(new HashSet<String>(asList("a", "f")), index.find(CAR, "speed", "10"));
+    }
+
+    @Test
+    public void scanWithoutAnIndexUsesTheSameBounds() {
+        ObjectIndex index = new ObjectIndex(classHandle -> "Car", Collections.emptyMap());
+        ObjectStateStore store = new ObjectStateStore(new MapObjectStateTable(), index, null, 0, 0, 0);
+        store.updateDiscovered("a", CAR, Collections.singletonMap("speed", "10"), 0.0, 0);
+        store.updateDiscovered("b", CAR, Collections.singletonMap("speed", "10.0"), 0.0, 0);
+        store.updateDiscovered("c", CAR, Collections.singletonMap("speed", "11"), 0.0, 0);
+
+        assertEquals(new HashSet<String>(asList("a", "b")), store.findRange(CAR, "speed", "10", "10"));
+        assertEquals(new HashSet<String>(asList("a", "b")), store.findRange(CAR, "speed", "10.0", "10.0"));
+        assertEquals(new HashSet<String>(asList("a", "b", "c")), store.findRange(CAR, "speed", "10.0", null));
+    }
+
+    @Test
+    public void discoveredInstanceIsKnownBeforeItsFirstReflection() {
+        ObjectIndex index = index();
+        ObjectStateStore store = new ObjectStateStore(new MapObjectStateTable(), index, null, 0, 0, 0);
+        store.addDiscovered("car1", CAR, 0);
+        assertEquals(new HashSet<String>(asList("car1")), store.getInstances(CAR));
+        assertTrue(store.get("car1").isEmpty());
+
+        store.updateDiscovered("car1", CAR, Collections.singletonMap("color", "red"), 0.0, 0);
+        store.addDiscovered("car1", CAR, 0); // does not reset the known values
+        assertEquals("red", store.get("car1").get("color"));
+        assertEquals(new HashSet<String>(asList("car1")), store.find(CAR, "color", "red"));
+
+        store.remove("car1");
+        assertTrue(store.getInstances(CAR).isEmpty());
+    }
+
+    @Test
+    public void discoveredInstancesCountTowardTheInstanceLimit() {
+        ObjectStateStore store = new ObjectStateStore(new MapObjectStateTable(), index(), null, 1, 0, 0);
+        store.addDiscovered("car1", CAR, 0);
+        store.addDiscovered("car2", CAR, 0);
+        List<String> instances = new ArrayList<String>(store.getInstances(CAR));
+        assertEquals(asList("car2"), instances);
+    }
+}
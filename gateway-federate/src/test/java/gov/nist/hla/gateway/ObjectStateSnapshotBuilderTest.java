@@ -0,0 +1,101 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ObjectStateSnapshotBuilderTest {
+    private static final int CAR = 1;
+    private static final int TRUCK = 2;
+
+    private final Map<String, Map<String, String>> states = new HashMap<String, Map<String, String>>();
+    private final ObjectStateSnapshotBuilder builder =
+            new ObjectStateSnapshotBuilder(classHandle -> classHandle == CAR ? "Car" : "Truck");
+
+    private void change(String instanceName, int classHandle, String position) {
+        states.put(instanceName, Collections.singletonMap("position", position));
+        builder.markChanged(instanceName, classHandle);
+    }
+
+    private ObjectStateSnapshot publish(double time) {
+        builder.publish(time, states::get);
+        return builder.getLatest();
+    }
+
+    @Test
+    public void snapshotsAreNotChangedByLaterUpdates() {
+        change("car1", CAR, "1");
+        change("truck1", TRUCK, "1");
+        ObjectStateSnapshot first = publish(1.0);
+
+        change("car1", CAR, "2");
+        builder.markRemoved("truck1");
+        ObjectStateSnapshot second = publish(2.0);
+
+        assertEquals("1", first.getObjectState("car1").get("position"));
+        assertEquals("1", first.getObjectState("truck1").get("position"));
+        assertEquals("2", second.getObjectState("car1").get("position"));
+        assertNull(second.getObjectState("truck1"));
+        assertTrue(second.getClassState("Truck").isEmpty());
+        assertEquals(1, second.getObjectStates().size());
+        assertEquals(2.0, second.getTime(), 0.0);
+    }
+
+    @Test
+    public void unchangedStateIsShared() {
+        for (int i = 0; i < 500; i++) {
+            change("car" + i, CAR, "1");
+        }
+        change("truck1", TRUCK, "1");
+        ObjectStateSnapshot first = publish(1.0);
+
+        change("car7", CAR, "2");
+        ObjectStateSnapshot second = publish(2.0);
+
+        assertSame(first.getClassState("Truck"), second.getClassState("Truck"));
+        assertSame(first.getObjectState("car8"), second.getObjectState("car8"));
+        assertEquals(500, second.getClassState("Car").size());
+
+        ObjectStateSnapshot third = publish(3.0);
+        assertSame(second.getClassState("Car"), third.getClassState("Car"));
+    }
+
+    @Test
+    public void instanceNameReusedByAnotherClassMoves() {
+        change("thing", CAR, "1");
+        publish(1.0);
+        change("thing", TRUCK, "2");
+        ObjectStateSnapshot snapshot = publish(2.0);
+
+        assertEquals("2", snapshot.getObjectState("thing").get("position"));
+        assertTrue(snapshot.getClassState("Car").isEmpty());
+        assertEquals(1, snapshot.getClassState("Truck").size());
+    }
+
+    @Test
+    public void instanceRemovedAndAddedAgainIsKept() {
+        change("car1", CAR, "1");
+        publish(1.0);
+        builder.markRemoved("car1");
+        change("car1", CAR, "2");
+        ObjectStateSnapshot snapshot = publish(2.0);
+
+        assertEquals("2", snapshot.getObjectState("car1").get("position"));
+        assertEquals(1, snapshot.getClassState("Car").size());
+    }
+
+    @Test
+    public void emptySnapshotHasNoState() {
+        ObjectStateSnapshot snapshot = builder.getLatest();
+        assertNull(snapshot.getObjectState("car1"));
+        assertTrue(snapshot.getClassState("Car").isEmpty());
+        assertTrue(snapshot.getObjectStates().isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ObjectStateStoreTest {
+    private static final int CLASS = 1;
+    private static final long SECOND = 1000000000L;
+
+    private static ObjectStateStore store(int maxInstances, long maxBytes, long idleTimeoutNanos) {
+        ObjectIndex index = new ObjectIndex(classHandle -> "Car", Collections.emptyMap());
+        return new ObjectStateStore(new MapObjectStateTable(), index, new ChangeIndex(), maxInstances, maxBytes,
+                idleTimeoutNanos);
+    }
+
+    private static Map<String, String> values(String value) {
+        return Collections.singletonMap("position", value);
+    }
+
+    private static void discover(ObjectStateStore store, String instanceName, String value, long now) {
+        store.updateDiscovered(instanceName, CLASS, values(value), 0.0, now);
+    }
+
+    @Test
+    public void leastRecentlyUpdatedInstanceIsEvictedOverTheInstanceLimit() {
+        ObjectStateStore store = store(2, 0, 0);
+        discover(store, "a", "1", 0);
+        discover(store, "b", "1", 0);
+        discover(store, "a", "2", 0); // b is now the least recently updated
+        discover(store, "c", "1", 0);
+
+        assertNull(store.get("b"));
+        assertEquals("2", store.get("a").get("position"));
+        assertNotNull(store.get("c"));
+        assertEquals(new HashSet<String>(Arrays.asList("a", "c")), store.getInstances(CLASS));
+        assertTrue(store.getChangesSinceVersion(0).stream().noneMatch(c -> c.getInstanceName().equals("b")));
+    }
+
+    @Test
+    public void instancesAreEvictedOverTheByteLimit() {
+        // MapObjectStateTable estimates 128 bytes per instance and 64 bytes plus 2 per character per value
+        ObjectStateStore store = store(0, 500, 0);
+        discover(store, "a", "1", 0);
+        discover(store, "b", "1", 0);
+        assertNotNull(store.get("a"));
+
+        discover(store, "c", "1", 0); // 3 * 194 bytes
+        assertNull(store.get("a"));
+        assertNotNull(store.get("b"));
+        assertNotNull(store.get("c"));
+
+        // a growing value evicts the other instances, but never the updated instance itself
+        char[] large = new char[500];
+        Arrays.fill(large, 'x');
+        discover(store, "c", new String(large), 0);
+        assertNull(store.get("b"));
+        assertNotNull(store.get("c"));
+    }
+
+    @Test
+    public void idleInstancesAreEvicted() {
+        ObjectStateStore store = store(0, 0, 10 * SECOND);
+        discover(store, "a", "1", 0);
+        discover(store, "b", "1", 5 * SECOND);
+        discover(store, "a", "2", 6 * SECOND);
+
+        store.evictIdle(14 * SECOND);
+        assertNotNull(store.get("a"));
+        assertNotNull(store.get("b"));
+
+        store.evictIdle(15 * SECOND);
+        assertNull(store.get("b"));
+        assertNotNull(store.get("a"));
+
+        store.evictIdle(16 * SECOND);
+        assertNull(store.get("a"));
+        assertTrue(store.getInstances(CLASS).isEmpty());
+    }
+
+    @Test
+    public void registeredInstancesAreNeverEvicted() {
+        ObjectStateStore store = store(1, 1, SECOND);
+        store.putRegistered("mine", CLASS);
+        AttributeUpdate update = new AttributeUpdate();
+        update.reset("mine", 100, CLASS, false);
+        update.add(0, "position", "1", null);
+        store.updateRegistered(update, 0.0);
+
+        discover(store, "a", "1", 0);
+        discover(store, "b", "1", 0);
+        store.evictIdle(100 * SECOND);
+
+        assertEquals("1", store.get("mine").get("position"));
+        assertNull(store.get("a"));
+        assertNull(store.get("b"));
+    }
+
+    @Test
+    public void removedInstanceNoLongerCountsTowardTheLimit() {
+        ObjectStateStore store = store(2, 0, 0);
+        discover(store, "a", "1", 0);
+        discover(store, "b", "1", 0);
+        store.remove("a");
+        discover(store, "c", "1", 0);
+        assertNotNull(store.get("b"));
+        assertNotNull(store.get("c"));
+    }
+
+    @Test
+    public void findWithoutAnIndexGivesTheSameInstancesForEachLayout() {
+        ObjectStateTable[] tables = {
+            new MapObjectStateTable(),
+            new ColumnarObjectStateTable(classHandle -> Arrays.asList("position"))
+        };
+        for (ObjectStateTable table : tables) {
+            ObjectIndex index = new ObjectIndex(classHandle -> "Car", Collections.emptyMap());
+            ObjectStateStore store = new ObjectStateStore(table, index, null, 0, 0, 0);
+            for (int i = 0; i < 10; i++) {
+                discover(store, "car" + i, Integer.toString(i % 3), 0);
+            }
+            assertEquals(new HashSet<String>(Arrays.asList("car1", "car4", "car7")),
+                    store.find(CLASS, "position", "1"));
+            assertEquals(new HashSet<String>(Arrays.asList("car0", "car1", "car3", "car4", "car6", "car7", "car9")),
+                    store.findRange(CLASS, "position", null, "1"));
+        }
+    }
+}
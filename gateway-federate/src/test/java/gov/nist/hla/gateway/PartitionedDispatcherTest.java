@@ -0,0 +1,118 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PartitionedDispatcherTest {
+    private PartitionedDispatcher dispatcher;
+
+    @After
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void tasksWithTheSameKeyRunInDispatchOrder() {
+        dispatcher = new PartitionedDispatcher(4);
+        Map<Integer, List<Integer>> results = new HashMap<Integer, List<Integer>>();
+        for (int key = 0; key < 8; key++) {
+            results.put(key, Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+        for (int i = 0; i < 1000; i++) {
+            final int key = i % 8;
+            final int value = i;
+            dispatcher.dispatch(key, () -> results.get(key).add(value));
+        }
+        dispatcher.awaitCompletion();
+
+        for (int key = 0; key < 8; key++) {
+            List<Integer> values = results.get(key);
+            assertEquals(125, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(Integer.valueOf(key + 8 * i), values.get(i));
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void awaitCompletionWaitsForEveryPartition() {
+        dispatcher = new PartitionedDispatcher(3);
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < 30; i++) {
+            dispatcher.dispatch(i, () -> {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                completed.incrementAndGet();
+            });
+        }
+        dispatcher.awaitCompletion();
+        assertEquals(30, completed.get());
+    }
+
+    @Test(timeout = 10000)
+    public void negativeKeysAreDispatched() {
+        dispatcher = new PartitionedDispatcher(3);
+        AtomicInteger completed = new AtomicInteger();
+        dispatcher.dispatch(Integer.MIN_VALUE, completed::incrementAndGet);
+        dispatcher.dispatch(-7, completed::incrementAndGet);
+        dispatcher.awaitCompletion();
+        assertEquals(2, completed.get());
+    }
+
+    @Test(timeout = 10000)
+    public void awaitCompletionRethrowsFirstFailureOnce() throws InterruptedException {
+        dispatcher = new PartitionedDispatcher(2);
+        IllegalStateException first = new IllegalStateException("first");
+        CountDownLatch firstThrown = new CountDownLatch(1);
+        dispatcher.dispatch(0, () -> {
+            firstThrown.countDown();
+            throw first;
+        });
+        firstThrown.await();
+        dispatcher.dispatch(0, () -> {
+            throw new IllegalArgumentException("second");
+        });
+        AtomicInteger completed = new AtomicInteger();
+        dispatcher.dispatch(1, completed::incrementAndGet);
+        try {
+            dispatcher.awaitCompletion();
+            fail("expected the task failure to be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(first, e);
+        }
+        assertEquals(1, completed.get());
+
+        // the failure is cleared, and the partitions keep running tasks
+        dispatcher.dispatch(0, completed::incrementAndGet);
+        dispatcher.awaitCompletion();
+        assertEquals(2, completed.get());
+    }
+
+    @Test
+    public void awaitCompletionWithoutTasksReturns() {
+        dispatcher = new PartitionedDispatcher(2);
+        dispatcher.awaitCompletion(); // does not block
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroThreads() {
+        new PartitionedDispatcher(0);
+    }
+}
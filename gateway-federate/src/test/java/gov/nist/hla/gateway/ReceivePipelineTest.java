@@ -0,0 +1,193 @@
+package gov.nist.hla.gateway;
+
+import static gov.nist.hla.TestMessages.received;
+import static gov.nist.hla.TestMessages.reflected;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import gov.nist.hla.Interaction;
+import gov.nist.hla.ObjectReflection;
+
+public class ReceivePipelineTest {
+    private static class Delivered {
+        private final String className;
+        private final String instanceName; // null for interactions
+        private final Map<String, String> values;
+        private final Thread thread;
+
+        public Delivered(String className, String instanceName, Map<String, String> values) {
+            this.className = className;
+            this.instanceName = instanceName;
+            this.values = values;
+            this.thread = Thread.currentThread();
+        }
+    }
+
+    private class RecordingDelivery implements ReceivePipeline.Delivery {
+        @Override
+        public void deliverInteraction(Double timeStep, int classHandle, String className,
+                Map<String, String> parameters) {
+            delivered.add(new Delivered(className, null, parameters));
+        }
+
+        @Override
+        public void deliverObject(Double timeStep, int classHandle, String className, String instanceName,
+                Map<String, String> attributes) {
+            delivered.add(new Delivered(className, instanceName, attributes));
+        }
+    }
+
+    private class RecordingCompletion implements ReceivePipeline.CompletionHandler {
+        @Override
+        public void interactionCompleted(Interaction interaction) {
+            completionThreads.add(Thread.currentThread());
+            completedInteractions.add(interaction);
+        }
+
+        @Override
+        public void objectReflectionCompleted(ObjectReflection objectReflection) {
+            completionThreads.add(Thread.currentThread());
+            completedReflections.add(objectReflection);
+        }
+    }
+
+    private final List<Delivered> delivered = Collections.synchronizedList(new ArrayList<Delivered>());
+    private final List<Thread> completionThreads = new ArrayList<Thread>();
+    private final List<Interaction> completedInteractions = new ArrayList<Interaction>();
+    private final List<ObjectReflection> completedReflections = new ArrayList<ObjectReflection>();
+
+    private final HandleNameCache nameCache = new HandleNameCache();
+    private ReceivePipeline pipeline;
+
+    @After
+    public void shutdown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void eventsAreDeliveredInOrderAndCompletedOnTheSubmittingThread() {
+        pipeline = new ReceivePipeline(4, nameCache, new RecordingDelivery(), new RecordingCompletion());
+        nameCache.putParameter(1, 0, "count");
+        nameCache.putAttribute(2, 0, "position");
+        List<Interaction> interactions = new ArrayList<Interaction>();
+        List<ObjectReflection> reflections = new ArrayList<ObjectReflection>();
+        for (int i = 0; i < 50; i++) {
+            Interaction interaction = new Interaction(1, received(0, Integer.toString(i)));
+            interactions.add(interaction);
+            pipeline.submit(null, "Count", interaction);
+            ObjectReflection reflection = new ObjectReflection(2, "car" + i, reflected(0, "p" + i));
+            reflections.add(reflection);
+            pipeline.submit(null, "Car", reflection);
+        }
+        pipeline.awaitCompletion();
+
+        assertEquals(100, delivered.size());
+        for (int i = 0; i < 50; i++) {
+            Delivered interaction = delivered.get(2 * i);
+            assertEquals("Count", interaction.className);
+            assertEquals(Collections.singletonMap("count", Integer.toString(i)), interaction.values);
+            assertTrue(interaction.thread != Thread.currentThread());
+            Delivered object = delivered.get(2 * i + 1);
+            assertEquals("Car", object.className);
+            assertEquals("car" + i, object.instanceName);
+            assertEquals(Collections.singletonMap("position", "p" + i), object.values);
+        }
+        assertEquals(interactions, completedInteractions);
+        assertEquals(reflections, completedReflections);
+        for (Thread thread : completionThreads) {
+            assertSame(Thread.currentThread(), thread);
+        }
+        // the decoded values are cached in the completed reflection for the object state
+        assertEquals("p0", completedReflections.get(0).getAttributeValue(0));
+    }
+
+    @Test(timeout = 10000)
+    public void fullPipelineAppliesBackPressure() {
+        pipeline = new ReceivePipeline(1, nameCache, new RecordingDelivery(), new RecordingCompletion());
+        nameCache.putParameter(1, 0, "count");
+        for (int i = 0; i < 200; i++) {
+            pipeline.submit(null, "Count", new Interaction(1, received(0, Integer.toString(i))));
+            assertTrue(completedInteractions.size() >= i); // at most one event in flight
+        }
+        pipeline.awaitCompletion();
+        assertEquals(200, delivered.size());
+        assertEquals(200, completedInteractions.size());
+    }
+
+    @Test(timeout = 30000)
+    public void namesCachedWhileThePipelineRunsAreDelivered() {
+        pipeline = new ReceivePipeline(8, nameCache, new RecordingDelivery(), new RecordingCompletion());
+        final int classes = 500;
+        final int parameters = 6;
+        for (int classHandle = 0; classHandle < classes; classHandle++) {
+            // each new class grows the tables of the name cache while earlier events are being decoded
+            nameCache.putInteractionClass(classHandle, "Class" + classHandle);
+            for (int parameterHandle = 0; parameterHandle < parameters; parameterHandle++) {
+                nameCache.putParameter(classHandle, parameterHandle, "p" + classHandle + "." + parameterHandle);
+            }
+            Object[] values = new Object[2 * parameters];
+            for (int parameterHandle = 0; parameterHandle < parameters; parameterHandle++) {
+                values[2 * parameterHandle] = parameterHandle;
+                values[2 * parameterHandle + 1] = Integer.toString(parameterHandle);
+            }
+            pipeline.submit(null, "Class" + classHandle, new Interaction(classHandle, received(values)));
+            pipeline.processCompleted();
+        }
+        pipeline.awaitCompletion();
+
+        assertEquals(classes, delivered.size());
+        for (int classHandle = 0; classHandle < classes; classHandle++) {
+            Map<String, String> expected = new HashMap<String, String>();
+            for (int parameterHandle = 0; parameterHandle < parameters; parameterHandle++) {
+                expected.put("p" + classHandle + "." + parameterHandle, Integer.toString(parameterHandle));
+            }
+            assertEquals(expected, delivered.get(classHandle).values);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void deliveryFailureIsRethrownAfterEveryEventCompletes() {
+        RuntimeException failure = new IllegalStateException("callback failed");
+        ReceivePipeline.Delivery delivery = new RecordingDelivery() {
+            @Override
+            public void deliverInteraction(Double timeStep, int classHandle, String className,
+                    Map<String, String> parameters) {
+                super.deliverInteraction(timeStep, classHandle, className, parameters);
+                // the last submitted event fails, since submit also rethrows the failures of completed events
+                if (parameters.get("count").equals("2")) {
+                    throw failure;
+                }
+            }
+        };
+        pipeline = new ReceivePipeline(4, nameCache, delivery, new RecordingCompletion());
+        nameCache.putParameter(1, 0, "count");
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(null, "Count", new Interaction(1, received(0, Integer.toString(i))));
+        }
+        try {
+            pipeline.awaitCompletion();
+            fail("expected the delivery failure to be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        assertEquals(3, delivered.size());
+        assertEquals(3, completedInteractions.size());
+
+        pipeline.submit(null, "Count", new Interaction(1, received(0, "3")));
+        pipeline.awaitCompletion();
+        assertEquals(4, delivered.size());
+    }
+}
@@ -0,0 +1,141 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import gov.nist.hla.ValueCodec;
+
+public class ReceivedValueMapTest {
+    private static final int CAR = 1;
+
+    // namesAndValues alternates a name with a value encoded using codec
+    private static ReceivedValueMap received(ValueCodec codec, String... namesAndValues) {
+        ReceivedValueMap values = new ReceivedValueMap(codec, namesAndValues.length / 2);
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            values.add(namesAndValues[i], codec.encode(namesAndValues[i + 1]), null);
+        }
+        return values;
+    }
+
+    private static void assertNotDecoded(ReceivedValueMap values) {
+        for (int i = 0; i < values.size(); i++) {
+            assertNull(values.getName(i), values.getDecodedValue(i));
+        }
+    }
+
+    @Test
+    public void valuesAreDecodedOnlyWhenRead() {
+        ReceivedValueMap values = received(ValueCodec.DEFAULT, "a", "1", "b", "2");
+        assertEquals(2, values.size());
+        assertTrue(values.containsKey("b"));
+        assertFalse(values.containsKey("c"));
+        assertNotDecoded(values);
+
+        assertEquals("2", values.get("b"));
+        assertNull(values.getDecodedValue(0));
+        assertEquals("2", values.getDecodedValue(1));
+        assertNull(values.get("c"));
+    }
+
+    @Test
+    public void mapEqualsTheDecodedValues() {
+        Map<String, String> expected = new HashMap<String, String>();
+        for (int i = 0; i < 20; i++) {
+            expected.put("p" + i, "value " + i); // past the size that is scanned by name
+        }
+        ReceivedValueMap values = new ReceivedValueMap(ValueCodec.DEFAULT, expected.size());
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            values.add(entry.getKey(), ValueCodec.DEFAULT.encode(entry.getValue()), null);
+        }
+        assertEquals("value 17", values.get("p17"));
+        assertNull(values.get("p20"));
+        assertEquals(expected, values);
+        assertEquals(values, expected);
+        assertEquals(expected.hashCode(), values.hashCode());
+    }
+
+    @Test
+    public void changesAreMadeToADecodedCopy() {
+        ReceivedValueMap values = received(ValueCodec.DEFAULT, "a", "1", "b", "2", "c", "3");
+        assertFalse(values.isChanged());
+
+        assertNull(values.put("d", "4"));
+        assertEquals("1", values.remove("a"));
+        assertTrue(values.isChanged());
+        assertEquals(3, values.size());
+        assertNull(values.get("a"));
+        assertEquals("4", values.get("d"));
+
+        values.clear();
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    public void iteratorRemovesEntries() {
+        ReceivedValueMap values = received(ValueCodec.DEFAULT, "a", "1", "b", "2", "c", "3");
+        Iterator<Map.Entry<String, String>> iterator = values.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().equals("b")) {
+                iterator.remove();
+            }
+        }
+        Map<String, String> expected = new HashMap<String, String>();
+        expected.put("a", "1");
+        expected.put("c", "3");
+        assertEquals(expected, values);
+
+        values.keySet().retainAll(Collections.singleton("c"));
+        assertEquals(Collections.singletonMap("c", "3"), values);
+    }
+
+    @Test
+    public void stateStoreKeepsReceivedValuesEncoded() {
+        ValueCodec codec = new ValueCodec(StandardCharsets.UTF_16BE, true);
+        MapObjectStateTable table = new MapObjectStateTable(codec);
+        ObjectStateStore store = new ObjectStateStore(table, new ObjectIndex(classHandle -> "Car",
+                Collections.emptyMap()), null, 0, 0, 0);
+
+        ReceivedValueMap values = received(codec, "speed", "10", "color", "r\u00e9d");
+        store.updateDiscovered("car1", CAR, values, 0.0, 0);
+        assertNotDecoded(values);
+
+        assertEquals("r\u00e9d", store.get("car1").get("color"));
+        assertEquals(values, store.get("car1"));
+        store.updateDiscovered("car1", CAR, received(codec, "speed", "11"), 1.0, 0);
+        assertEquals("11", store.get("car1").get("speed"));
+    }
+
+    @Test
+    public void columnarTableStoresReceivedValuesWithoutTheirTerminator() {
+        ValueCodec codec = new ValueCodec(StandardCharsets.UTF_8, true);
+        ColumnarObjectStateTable table = new ColumnarObjectStateTable(classHandle -> Arrays.asList("speed", "color"));
+        table.add("car1", CAR, 2);
+
+        ReceivedValueMap values = received(codec, "speed", "10", "color", "r\u00e9d");
+        table.putAll("car1", values);
+        assertNull(values.getDecodedValue(0));
+
+        assertEquals(values, table.get("car1"));
+        assertEquals(Collections.singletonList("car1"), scanEqual(table, "speed", "10"));
+        assertEquals(Collections.singletonList("car1"), scanEqual(table, "color", "r\u00e9d"));
+    }
+
+    private static List<String> scanEqual(ColumnarObjectStateTable table, String name, String value) {
+        List<String> result = new ArrayList<String>();
+        table.scanEqual(CAR, name, value, result);
+        return result;
+    }
+}
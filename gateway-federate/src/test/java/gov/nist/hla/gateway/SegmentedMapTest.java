@@ -0,0 +1,101 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SegmentedMapTest {
+    private static SegmentedMap<Integer> build(int size) {
+        SegmentedMap.Editor<Integer> editor = SegmentedMap.<Integer>empty().edit();
+        for (int i = 0; i < size; i++) {
+            editor.put("k" + i, i);
+        }
+        return editor.build();
+    }
+
+    @Test
+    public void editsDoNotChangeThePreviousVersion() {
+        SegmentedMap<Integer> first = build(1000);
+        SegmentedMap.Editor<Integer> editor = first.edit();
+        editor.put("k1", -1);
+        editor.remove("k2");
+        editor.put("new", 5);
+        SegmentedMap<Integer> second = editor.build();
+
+        assertEquals(1000, first.size());
+        assertEquals(Integer.valueOf(1), first.get("k1"));
+        assertEquals(Integer.valueOf(2), first.get("k2"));
+        assertFalse(first.containsKey("new"));
+
+        assertEquals(1000, second.size());
+        assertEquals(Integer.valueOf(-1), second.get("k1"));
+        assertNull(second.get("k2"));
+        assertEquals(Integer.valueOf(5), second.get("new"));
+        assertEquals(Integer.valueOf(999), second.get("k999"));
+    }
+
+    @Test
+    public void behavesLikeAHashMapAcrossManyVersions() {
+        Random random = new Random(3);
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        SegmentedMap<Integer> map = SegmentedMap.empty();
+        for (int version = 0; version < 200; version++) {
+            SegmentedMap.Editor<Integer> editor = map.edit();
+            for (int i = 0; i < 50; i++) {
+                String key = "k" + random.nextInt(3000);
+                if (random.nextInt(4) == 0) {
+                    editor.remove(key);
+                    expected.remove(key);
+                } else {
+                    editor.put(key, version);
+                    expected.put(key, version);
+                }
+            }
+            map = editor.build();
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void unchangedPutReturnsAnEqualMap() {
+        SegmentedMap<Integer> first = build(10);
+        SegmentedMap.Editor<Integer> editor = first.edit();
+        editor.put("k3", first.get("k3"));
+        editor.remove("missing");
+        SegmentedMap<Integer> second = editor.build();
+        assertEquals(first, second);
+        assertEquals(10, second.size());
+    }
+
+    @Test
+    public void removingEveryEntryGivesTheEmptyMap() {
+        SegmentedMap.Editor<Integer> editor = build(100).edit();
+        for (int i = 0; i < 100; i++) {
+            editor.remove("k" + i);
+        }
+        SegmentedMap<Integer> map = editor.build();
+        assertTrue(map.isEmpty());
+        assertSame(SegmentedMap.empty(), map);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void mapCannotBeModified() {
+        build(3).put("k0", 1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void entriesCannotBeModified() {
+        build(3).entrySet().iterator().next().setValue(1);
+    }
+}
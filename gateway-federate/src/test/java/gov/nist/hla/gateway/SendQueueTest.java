@@ -0,0 +1,189 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import gov.nist.hla.gateway.GatewayFederateConfig.SendQueuePolicy;
+
+public class SendQueueTest {
+    private static final int PRODUCERS = 4;
+    private static final int MESSAGES_PER_PRODUCER = 5000;
+
+    private static SendQueue.Message message(int producer, int sequence) {
+        return new SendQueue.Message(true, Integer.toString(producer),
+                Collections.singletonMap("sequence", Integer.toString(sequence)), Double.NaN);
+    }
+
+    private static SendQueue openQueue(int capacity, SendQueuePolicy policy) {
+        SendQueue queue = new SendQueue(capacity, policy);
+        queue.open();
+        return queue;
+    }
+
+    // starts PRODUCERS threads that offer their messages in sequence, counting the accepted messages
+    private static List<Thread> startProducers(SendQueue queue, AtomicInteger acceptedCount) {
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < MESSAGES_PER_PRODUCER; i++) {
+                    if (queue.offer(message(producer, i), true)) {
+                        acceptedCount.incrementAndGet();
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        return producers;
+    }
+
+    // polls until every producer has finished and the queue is empty, checking the order of each producer
+    private static int consume(SendQueue queue, List<Thread> producers, int capacity) throws InterruptedException {
+        Map<String, Integer> lastSequence = new HashMap<String, Integer>();
+        int consumedCount = 0;
+        while (true) {
+            assertTrue(queue.size() <= capacity);
+            SendQueue.Message message = queue.poll();
+            if (message == null) {
+                boolean isFinished = true;
+                for (Thread producer : producers) {
+                    isFinished &= !producer.isAlive();
+                }
+                if (isFinished && queue.isEmpty()) {
+                    break;
+                }
+                Thread.yield();
+                continue;
+            }
+            int sequence = Integer.parseInt(message.getValues().get("sequence"));
+            Integer last = lastSequence.put(message.getName(), sequence);
+            assertTrue(last == null || last < sequence);
+            consumedCount++;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        return consumedCount;
+    }
+
+    @Test(timeout = 20000)
+    public void blockDeliversEveryMessageFromEachProducerInOrder() throws InterruptedException {
+        SendQueue queue = openQueue(16, SendQueuePolicy.BLOCK);
+        AtomicInteger acceptedCount = new AtomicInteger();
+        List<Thread> producers = startProducers(queue, acceptedCount);
+        int consumedCount = consume(queue, producers, 16);
+        assertEquals(PRODUCERS * MESSAGES_PER_PRODUCER, acceptedCount.get());
+        assertEquals(PRODUCERS * MESSAGES_PER_PRODUCER, consumedCount);
+    }
+
+    @Test(timeout = 20000)
+    public void rejectDeliversEveryAcceptedMessage() throws InterruptedException {
+        SendQueue queue = openQueue(16, SendQueuePolicy.REJECT);
+        AtomicInteger acceptedCount = new AtomicInteger();
+        List<Thread> producers = startProducers(queue, acceptedCount);
+        int consumedCount = consume(queue, producers, 16);
+        assertEquals(acceptedCount.get(), consumedCount);
+        assertEquals(0, queue.takeDroppedCount());
+    }
+
+    @Test(timeout = 20000)
+    public void dropOldestCountsEveryDiscardedMessage() throws InterruptedException {
+        SendQueue queue = openQueue(16, SendQueuePolicy.DROP_OLDEST);
+        AtomicInteger acceptedCount = new AtomicInteger();
+        List<Thread> producers = startProducers(queue, acceptedCount);
+        int consumedCount = consume(queue, producers, 16);
+        assertEquals(PRODUCERS * MESSAGES_PER_PRODUCER, acceptedCount.get());
+        assertEquals(acceptedCount.get(), consumedCount + queue.takeDroppedCount());
+    }
+
+    @Test
+    public void fullQueueFollowsThePolicy() {
+        SendQueue reject = openQueue(1, SendQueuePolicy.REJECT);
+        assertTrue(reject.offer(message(0, 0), true));
+        assertFalse(reject.offer(message(0, 1), true));
+
+        SendQueue drop = openQueue(1, SendQueuePolicy.DROP_OLDEST);
+        assertTrue(drop.offer(message(0, 0), true));
+        assertTrue(drop.offer(message(0, 1), true));
+        assertEquals(1, drop.takeDroppedCount());
+        assertEquals("1", drop.poll().getValues().get("sequence"));
+
+        // the draining thread cannot wait for space
+        SendQueue block = openQueue(1, SendQueuePolicy.BLOCK);
+        assertTrue(block.offer(message(0, 0), false));
+        assertFalse(block.offer(message(0, 1), false));
+    }
+
+    @Test
+    public void queueRejectsMessagesUntilOpenedAndAfterClosed() {
+        SendQueue queue = new SendQueue(4, SendQueuePolicy.BLOCK);
+        assertFalse(queue.offer(message(0, 0), true));
+        queue.open();
+        assertTrue(queue.offer(message(0, 1), true));
+        queue.close();
+        assertFalse(queue.offer(message(0, 2), true));
+
+        // accepted messages can still be polled after the queue is closed
+        assertEquals("1", queue.poll().getValues().get("sequence"));
+        assertNull(queue.poll());
+    }
+
+    @Test(timeout = 10000)
+    public void closeWakesBlockedProducers() throws InterruptedException {
+        SendQueue queue = openQueue(1, SendQueuePolicy.BLOCK);
+        assertTrue(queue.offer(message(0, 0), true));
+        CountDownLatch started = new CountDownLatch(PRODUCERS);
+        AtomicInteger rejectedCount = new AtomicInteger();
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                if (!queue.offer(message(producer, 1), true)) {
+                    rejectedCount.incrementAndGet();
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        started.await();
+        queue.close();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(PRODUCERS, rejectedCount.get());
+        assertEquals(1, queue.size());
+    }
+
+    @Test(timeout = 10000)
+    public void interruptedProducerStopsWaiting() throws InterruptedException {
+        SendQueue queue = openQueue(1, SendQueuePolicy.BLOCK);
+        assertTrue(queue.offer(message(0, 0), true));
+        AtomicBoolean isQueued = new AtomicBoolean(true);
+        AtomicBoolean isInterrupted = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            isQueued.set(queue.offer(message(1, 0), true));
+            isInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+        producer.start();
+        producer.interrupt();
+        producer.join();
+        assertFalse(isQueued.get());
+        assertTrue(isInterrupted.get());
+        assertEquals(1, queue.size());
+    }
+}
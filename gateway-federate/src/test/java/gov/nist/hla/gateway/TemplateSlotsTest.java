@@ -0,0 +1,106 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import gov.nist.hla.ValueCodec;
+
+public class TemplateSlotsTest {
+    private static final int SPEED = 0;
+    private static final int COUNT = 1;
+    private static final int COLOR = 2;
+
+    private static TemplateSlots slots(ValueCodec codec) {
+        return new TemplateSlots(codec, new String[] {"speed", "count", "color"}, new int[] {10, 11, 12},
+                Collections.singletonMap("color", "red"));
+    }
+
+    private static AttributeUpdate copy(TemplateSlots slots, ValueCodec codec) {
+        AttributeUpdate update = new AttributeUpdate(codec);
+        update.reset("car1", 1, 2, false);
+        slots.copyTo(update);
+        return update;
+    }
+
+    @Test
+    public void typedValuesMatchTheirStringForms() {
+        TemplateSlots slots = slots(ValueCodec.DEFAULT);
+        slots.setDouble(SPEED, 12.5);
+        slots.setLong(COUNT, -42L);
+        assertEquals(Double.toString(12.5), slots.getValue(SPEED));
+        assertEquals(Long.toString(-42L), slots.getValue(COUNT));
+
+        slots.setDouble(SPEED, 1e-300); // replaces the value in the same buffer
+        slots.setBoolean(COUNT, true);
+        assertEquals(Double.toString(1e-300), slots.getValue(SPEED));
+        assertEquals("true", slots.getValue(COUNT));
+    }
+
+    @Test
+    public void typedValuesAreEncodedWithTheCodec() {
+        ValueCodec codec = new ValueCodec(StandardCharsets.UTF_16BE, true);
+        TemplateSlots slots = slots(codec);
+        slots.setDouble(SPEED, 0.5);
+        slots.setLong(COUNT, Long.MIN_VALUE);
+
+        AttributeUpdate update = copy(slots, codec);
+        assertArrayEquals(codec.encode("0.5"), update.getEncodedValue(update.indexOf(10)));
+        assertArrayEquals(codec.encode(Long.toString(Long.MIN_VALUE)), update.getEncodedValue(update.indexOf(11)));
+        assertEquals(Long.toString(Long.MIN_VALUE), update.getValue(update.indexOf(11)));
+    }
+
+    @Test
+    public void typedValuesAreSentWithoutDecoding() {
+        TemplateSlots slots = slots(ValueCodec.DEFAULT);
+        slots.setLong(COUNT, 7L);
+        AttributeUpdate update = copy(slots, ValueCodec.DEFAULT);
+        int index = update.indexOf(11);
+        assertNull(update.getDecodedValue(index));
+        assertArrayEquals(new byte[] {'7'}, update.getEncodedValue(index));
+
+        // a sent array is never reused by a later value
+        byte[] sent = update.getEncodedValue(index);
+        slots.setLong(COUNT, 8L);
+        AttributeUpdate next = copy(slots, ValueCodec.DEFAULT);
+        assertArrayEquals(new byte[] {'7'}, sent);
+        assertArrayEquals(new byte[] {'8'}, next.getEncodedValue(next.indexOf(11)));
+        assertNotSame(sent, next.getEncodedValue(next.indexOf(11)));
+
+        // an unchanged value is copied out of its buffer only once
+        AttributeUpdate again = copy(slots, ValueCodec.DEFAULT);
+        assertSame(next.getEncodedValue(next.indexOf(11)), again.getEncodedValue(again.indexOf(11)));
+    }
+
+    @Test
+    public void clearRestoresTheDefaults() {
+        TemplateSlots slots = slots(ValueCodec.DEFAULT);
+        slots.setDouble(SPEED, 3.0);
+        slots.setLong(COUNT, 4L);
+        slots.setValue(COLOR, "blue");
+        assertTrue(slots.isSet(SPEED));
+
+        slots.clear();
+        assertFalse(slots.isSet(SPEED));
+        assertFalse(slots.isSet(COUNT));
+        assertNull(slots.getValue(SPEED));
+        assertEquals("red", slots.getValue(COLOR));
+
+        AttributeUpdate update = copy(slots, ValueCodec.DEFAULT);
+        assertEquals(1, update.size());
+        assertEquals("red", update.getValue(0));
+        assertEquals("{color=red}", slots.toString());
+
+        slots.setDouble(SPEED, 5.0); // the buffer is reused after a clear
+        assertEquals("5.0", slots.getValue(SPEED));
+    }
+}
@@ -0,0 +1,100 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class UpdateCombinerTest {
+    private static AttributeUpdate update(int instanceHandle, boolean isTimestamped, Object... handlesAndValues) {
+        AttributeUpdate update = new AttributeUpdate();
+        update.reset("object" + instanceHandle, instanceHandle, 1, isTimestamped);
+        for (int i = 0; i < handlesAndValues.length; i += 2) {
+            int handle = (Integer) handlesAndValues[i];
+            update.add(handle, "a" + handle, (String) handlesAndValues[i + 1], null);
+        }
+        return update;
+    }
+
+    @Test
+    public void updatesOfTheSameInstanceAreMerged() {
+        UpdateCombiner combiner = new UpdateCombiner();
+        combiner.add(update(10, false, 0, "a", 1, "b"), Double.NaN);
+        combiner.add(update(10, false, 1, "c", 2, "d"), Double.NaN);
+
+        assertEquals(1, combiner.size());
+        AttributeUpdate combined = combiner.getUpdate(0);
+        assertEquals("object10", combined.getInstanceName());
+        assertEquals(3, combined.size());
+        assertEquals("a", combined.getValue(combined.indexOf(0)));
+        assertEquals("c", combined.getValue(combined.indexOf(1)));
+        assertEquals("d", combined.getValue(combined.indexOf(2)));
+        assertFalse(combined.isTimestamped());
+        assertTrue(Double.isNaN(combiner.getTimestamp(0)));
+    }
+
+    @Test
+    public void instancesKeepTheOrderOfTheirFirstUpdate() {
+        UpdateCombiner combiner = new UpdateCombiner();
+        combiner.add(update(12, false, 0, "a"), Double.NaN);
+        combiner.add(update(10, false, 0, "b"), Double.NaN);
+        combiner.add(update(12, false, 0, "c"), Double.NaN);
+        combiner.add(update(11, false, 0, "d"), Double.NaN);
+
+        assertEquals(3, combiner.size());
+        assertEquals(12, combiner.getUpdate(0).getInstanceHandle());
+        assertEquals("c", combiner.getUpdate(0).getValue(0));
+        assertEquals(10, combiner.getUpdate(1).getInstanceHandle());
+        assertEquals(11, combiner.getUpdate(2).getInstanceHandle());
+    }
+
+    @Test
+    public void latestTimestampIsKept() {
+        UpdateCombiner combiner = new UpdateCombiner();
+        combiner.add(update(10, false, 0, "a"), Double.NaN);
+        combiner.add(update(10, true, 0, "b"), 4.0);
+        combiner.add(update(10, true, 0, "c"), 2.0);
+        combiner.add(update(10, false, 0, "d"), Double.NaN);
+
+        AttributeUpdate combined = combiner.getUpdate(0);
+        assertTrue(combined.isTimestamped());
+        assertEquals(4.0, combiner.getTimestamp(0), 0.0);
+        assertEquals("d", combined.getValue(0));
+    }
+
+    @Test
+    public void removedInstanceLeavesAnEmptyUpdate() {
+        UpdateCombiner combiner = new UpdateCombiner();
+        combiner.add(update(10, false, 0, "a"), Double.NaN);
+        combiner.add(update(11, false, 0, "b"), Double.NaN);
+        combiner.remove(10);
+
+        assertEquals(2, combiner.size());
+        assertTrue(combiner.getUpdate(0).isEmpty());
+        assertEquals("b", combiner.getUpdate(1).getValue(0));
+
+        // a later update of the removed instance starts a new combined update
+        combiner.add(update(10, false, 0, "c"), Double.NaN);
+        assertEquals(3, combiner.size());
+        assertEquals("c", combiner.getUpdate(2).getValue(0));
+    }
+
+    @Test
+    public void clearedUpdatesAreReused() {
+        UpdateCombiner combiner = new UpdateCombiner();
+        combiner.add(update(10, true, 0, "a"), 1.0);
+        AttributeUpdate first = combiner.getUpdate(0);
+        combiner.clear();
+        assertTrue(combiner.isEmpty());
+
+        combiner.add(update(11, false, 1, "b"), Double.NaN);
+        AttributeUpdate reused = combiner.getUpdate(0);
+        assertSame(first, reused);
+        assertEquals(11, reused.getInstanceHandle());
+        assertFalse(reused.isTimestamped());
+        assertEquals(1, reused.size());
+        assertEquals("b", reused.getValue(0));
+    }
+}
@@ -0,0 +1,176 @@
+package gov.nist.hla.gateway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class UpdateRateThrottleTest {
+    private static final int CLASS = 1;
+    private static final int INSTANCE = 10;
+    private static final int LIMITED = 0; // at most one update per second
+    private static final int UNLIMITED = 1;
+
+    private UpdateRateThrottle throttle;
+
+    @Before
+    public void setUp() {
+        throttle = new UpdateRateThrottle();
+        throttle.putClass(CLASS, new double[] { 1.0, 0.0 });
+    }
+
+    private static AttributeUpdate update(boolean isTimestamped, String limitedValue, String unlimitedValue) {
+        AttributeUpdate update = new AttributeUpdate();
+        update.reset("car", INSTANCE, CLASS, isTimestamped);
+        if (limitedValue != null) {
+            update.add(LIMITED, "limited", limitedValue, null);
+        }
+        if (unlimitedValue != null) {
+            update.add(UNLIMITED, "unlimited", unlimitedValue, null);
+        }
+        return update;
+    }
+
+    private List<AttributeUpdate> release(double now) {
+        List<AttributeUpdate> released = new ArrayList<AttributeUpdate>();
+        throttle.releaseHeldValues(now, released);
+        return released;
+    }
+
+    @Test
+    public void firstUpdateIsSentAndRepeatWithinIntervalIsHeld() {
+        AttributeUpdate first = update(false, "a", "x");
+        throttle.filter(first, 0.0, Double.NaN);
+        assertEquals(2, first.size());
+        assertFalse(throttle.hasHeldValues());
+
+        AttributeUpdate second = update(false, "b", "y");
+        throttle.filter(second, 0.5, Double.NaN);
+        assertEquals(1, second.size());
+        assertEquals("unlimited", second.getName(0));
+        assertTrue(throttle.hasHeldValues());
+    }
+
+    @Test
+    public void heldValueIsReleasedOnceTheIntervalEnds() {
+        throttle.filter(update(false, "a", null), 0.0, Double.NaN);
+        throttle.filter(update(false, "b", null), 0.2, Double.NaN);
+        throttle.filter(update(false, "c", null), 0.4, Double.NaN);
+
+        assertTrue(release(0.9).isEmpty());
+        List<AttributeUpdate> released = release(1.0);
+        assertEquals(1, released.size());
+        assertEquals(1, released.get(0).size());
+        assertEquals("c", released.get(0).getValue(0)); // only the latest held value
+        assertFalse(released.get(0).isTimestamped());
+        assertFalse(throttle.hasHeldValues());
+
+        // the release counts as a send, so the next value is held again
+        AttributeUpdate next = update(false, "d", null);
+        throttle.filter(next, 1.5, Double.NaN);
+        assertTrue(next.isEmpty());
+    }
+
+    @Test
+    public void releasedUpdateKeepsTheLatestTimestamp() {
+        throttle.filter(update(true, "a", null), 0.0, 5.0);
+        throttle.filter(update(true, "b", null), 0.2, 7.0);
+        throttle.filter(update(true, "c", null), 0.4, 6.0);
+
+        List<AttributeUpdate> released = release(1.0);
+        assertEquals(1, released.size());
+        assertTrue(released.get(0).isTimestamped());
+        assertEquals(7.0, released.get(0).getTimestamp(), 0.0);
+    }
+
+    @Test
+    public void timestampedUpdateMakesHeldReceiveOrderValuesTimestamped() {
+        throttle.filter(update(false, "a", null), 0.0, Double.NaN);
+        throttle.filter(update(false, "b", null), 0.2, Double.NaN);
+        throttle.filter(update(true, "c", null), 0.4, 3.0);
+
+        AttributeUpdate released = release(1.0).get(0);
+        assertTrue(released.isTimestamped());
+        assertEquals(3.0, released.getTimestamp(), 0.0);
+    }
+
+    @Test
+    public void sentValueSupersedesHeldValue() {
+        throttle.filter(update(false, "a", null), 0.0, Double.NaN);
+        throttle.filter(update(false, "b", null), 0.5, Double.NaN);
+
+        AttributeUpdate sent = update(false, "c", null);
+        throttle.filter(sent, 1.0, Double.NaN);
+        assertEquals(1, sent.size());
+        assertEquals("c", sent.getValue(0));
+        assertTrue(release(2.0).isEmpty());
+    }
+
+    @Test
+    public void classWithoutLimitsIsNotFiltered() {
+        throttle.putClass(2, null);
+        for (int i = 0; i < 3; i++) {
+            AttributeUpdate update = new AttributeUpdate();
+            update.reset("truck", 20, 2, false);
+            update.add(0, "limited", Integer.toString(i), null);
+            throttle.filter(update, 0.0, Double.NaN);
+            assertEquals(1, update.size());
+        }
+        assertFalse(throttle.hasHeldValues());
+    }
+
+    @Test
+    public void removedInstanceDropsHeldValues() {
+        throttle.filter(update(false, "a", null), 0.0, Double.NaN);
+        throttle.filter(update(false, "b", null), 0.5, Double.NaN);
+        throttle.remove(INSTANCE);
+        assertFalse(throttle.hasHeldValues());
+        assertTrue(release(5.0).isEmpty());
+    }
+
+    @Test
+    public void discardedHeldValueIsNotReleased() {
+        throttle.filter(update(false, "a", null), 0.0, Double.NaN);
+        throttle.filter(update(false, "b", null), 0.5, Double.NaN);
+        throttle.discardHeld(INSTANCE, UNLIMITED);
+        assertTrue(throttle.hasHeldValues());
+
+        throttle.discardHeld(INSTANCE, LIMITED);
+        throttle.discardHeld(INSTANCE + 1, LIMITED);
+        assertFalse(throttle.hasHeldValues());
+        assertTrue(release(1.5).isEmpty());
+    }
+
+    @Test
+    public void revertingToTheSentValueDiscardsTheHeldValue() {
+        // the delta filter runs first and compares with the values last sent, as when the federate sends an update
+        DeltaUpdateFilter deltaFilter = new DeltaUpdateFilter(0);
+        Map<String, String> sentState = new HashMap<String, String>();
+
+        AttributeUpdate first = update(false, "1", null);
+        deltaFilter.filter(first, sentState, throttle);
+        throttle.filter(first, 0.0, Double.NaN);
+        assertEquals(1, first.size());
+        sentState.put("limited", "1");
+
+        AttributeUpdate second = update(false, "2", null);
+        deltaFilter.filter(second, sentState, throttle);
+        throttle.filter(second, 0.5, Double.NaN);
+        assertTrue(second.isEmpty()); // held
+        assertTrue(throttle.hasHeldValues());
+
+        AttributeUpdate third = update(false, "1", null);
+        deltaFilter.filter(third, sentState, throttle);
+        throttle.filter(third, 0.6, Double.NaN);
+        assertTrue(third.isEmpty()); // unchanged from the sent value
+        assertFalse(throttle.hasHeldValues());
+        assertTrue(release(1.5).isEmpty()); // the stale 2 is not sent
+    }
+}